@@ -0,0 +1,142 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.tinkerpop.blueprints.Vertex;
+
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration;
+import edu.jhuapl.tinkerpop.AccumuloVertex;
+import edu.jhuapl.tinkerpop.GlobalInstances;
+import edu.jhuapl.tinkerpop.cache.ElementCache;
+import edu.jhuapl.tinkerpop.cache.PropertyCache;
+
+/**
+ * Element and property cache operations. The element
+ * cache is shared by all threads of a graph, so it is
+ * measured with several threads reading and writing
+ * concurrently. Property caches belong to a single
+ * element and are not thread-safe, so each thread
+ * gets its own.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class SharedElementCache {
+
+    /**
+     * Number of distinct element ids accessed,
+     * relative to the cache size of 10000.
+     */
+    @Param({"5000", "50000"})
+    public int ids;
+
+    ElementCache<Vertex> cache;
+    Vertex[] vertices;
+
+    @Setup
+    public void setup() {
+      GlobalInstances globals = MockGraphs.globals("cacheBenchmark");
+      cache = new ElementCache<Vertex>(10000, 60000);
+      vertices = new Vertex[ids];
+      for (int i = 0; i < ids; i++) {
+        vertices[i] = new AccumuloVertex(globals, "vertex" + i);
+        cache.cache(vertices[i]);
+      }
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class ThreadState {
+    final Random random = new Random();
+
+    int next(int bound) {
+      return random.nextInt(bound);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class ThreadPropertyCache {
+    PropertyCache cache;
+    String[] keys;
+
+    @Setup
+    public void setup() {
+      AccumuloGraphConfiguration cfg = new AccumuloGraphConfiguration()
+          .setPropertyCacheTimeout(null, 60000);
+      cache = new PropertyCache(cfg);
+      keys = new String[20];
+      for (int i = 0; i < keys.length; i++) {
+        keys[i] = "property" + i;
+        cache.put(keys[i], i);
+      }
+    }
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Vertex elementRetrieve(SharedElementCache shared, ThreadState state) {
+    return shared.cache.retrieve(shared.vertices[
+        state.next(shared.ids)].getId());
+  }
+
+  @Benchmark
+  @Group("elementMixed")
+  @GroupThreads(3)
+  public Vertex elementMixedRetrieve(SharedElementCache shared, ThreadState state) {
+    return shared.cache.retrieve(shared.vertices[
+        state.next(shared.ids)].getId());
+  }
+
+  @Benchmark
+  @Group("elementMixed")
+  @GroupThreads(1)
+  public void elementMixedCache(SharedElementCache shared, ThreadState state) {
+    shared.cache.cache(shared.vertices[state.next(shared.ids)]);
+  }
+
+  @Benchmark
+  public Object propertyGet(ThreadPropertyCache props, ThreadState state) {
+    return props.cache.get(props.keys[state.next(props.keys.length)]);
+  }
+
+  @Benchmark
+  public void propertyPut(ThreadPropertyCache props, ThreadState state) {
+    int i = state.next(props.keys.length);
+    props.cache.put(props.keys[i], i);
+  }
+}
@@ -0,0 +1,77 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.data.Key;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.jhuapl.tinkerpop.Constants;
+import edu.jhuapl.tinkerpop.parser.KeyBytes;
+
+/**
+ * Reading an edge endpoint entry, as done for every
+ * entry of an adjacency scan: by decoding and splitting
+ * strings, versus in place with {@link KeyBytes}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class KeyBytesBenchmark {
+
+  private Key key;
+  private byte[] value;
+
+  @Setup
+  public void setup() {
+    key = new Key("0000000000001234", Constants.OUT_EDGE,
+        "0000000000005678" + Constants.ID_DELIM + "edge-0000000000009012");
+    value = (Constants.ID_DELIM + "knows").getBytes();
+  }
+
+  @Benchmark
+  public void split(Blackhole bh) {
+    if (key.getColumnFamily().toString().equals(Constants.OUT_EDGE)) {
+      String[] parts = key.getColumnQualifier().toString()
+          .split(Constants.ID_DELIM);
+      bh.consume(parts[0]);
+      bh.consume(parts[1]);
+      bh.consume(new String(value).split(Constants.ID_DELIM)[1]);
+    }
+  }
+
+  @Benchmark
+  public void inPlace(Blackhole bh) {
+    if (KeyBytes.equals(key.getColumnFamilyData(), Constants.OUT_EDGE_BYTES)) {
+      bh.consume(KeyBytes.beforeDelim(key.getColumnQualifierData()));
+      bh.consume(KeyBytes.afterDelim(key.getColumnQualifierData()));
+      bh.consume(KeyBytes.afterDelim(value));
+    }
+  }
+}
@@ -0,0 +1,63 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.benchmarks;
+
+import edu.jhuapl.tinkerpop.AccumuloGraph;
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration;
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.InstanceType;
+import edu.jhuapl.tinkerpop.GlobalInstances;
+import edu.jhuapl.tinkerpop.cache.ElementCaches;
+
+/**
+ * Graphs and supporting objects backed by
+ * an in-memory mock Accumulo instance.
+ */
+final class MockGraphs {
+
+  private MockGraphs() { }
+
+  /**
+   * Configuration for a new, empty mock graph.
+   * @param name
+   * @return
+   */
+  static AccumuloGraphConfiguration config(String name) {
+    return new AccumuloGraphConfiguration()
+        .setInstanceType(InstanceType.Mock)
+        .setGraphName(name + System.nanoTime())
+        .setCreate(true);
+  }
+
+  static AccumuloGraph open(String name) {
+    return new AccumuloGraph(config(name));
+  }
+
+  /**
+   * Global instances for a mock graph, for constructing
+   * elements and parsers without a graph around them.
+   * @param name
+   * @return
+   */
+  static GlobalInstances globals(String name) {
+    AccumuloGraphConfiguration cfg = config(name);
+    try {
+      return new GlobalInstances(cfg, cfg.getConnector()
+          .createMultiTableBatchWriter(cfg.getBatchWriterConfig()),
+          new ElementCaches(cfg));
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
@@ -0,0 +1,126 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.data.Mutation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.tinkerpop.blueprints.Vertex;
+
+import edu.jhuapl.tinkerpop.AccumuloVertex;
+import edu.jhuapl.tinkerpop.Constants.IndexMetadataEntryType;
+import edu.jhuapl.tinkerpop.GlobalInstances;
+import edu.jhuapl.tinkerpop.mutator.Mutator;
+import edu.jhuapl.tinkerpop.mutator.edge.EdgeEndpointsMutator;
+import edu.jhuapl.tinkerpop.mutator.edge.EdgeMutator;
+import edu.jhuapl.tinkerpop.mutator.index.IndexMetadataMutator;
+import edu.jhuapl.tinkerpop.mutator.index.IndexValueMutator;
+import edu.jhuapl.tinkerpop.mutator.index.ReverseIndexMutator;
+import edu.jhuapl.tinkerpop.mutator.property.ClearPropertyMutator;
+import edu.jhuapl.tinkerpop.mutator.property.WritePropertyMutator;
+import edu.jhuapl.tinkerpop.mutator.vertex.AddVertexMutator;
+
+/**
+ * Building the mutations for each kind of write.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MutatorBenchmark {
+
+  @Param({"addVertex", "writeProperty", "clearProperty",
+    "addEdge", "deleteEdge", "addEndpoints", "deleteEndpoints",
+    "addIndexValue", "deleteIndexValue", "addIndexMetadata",
+    "deleteIndexMetadata", "indexMetadataVersion",
+    "addReverseIndex", "deleteReverseIndex"})
+  public String mutator;
+
+  private Mutator mut;
+
+  @Setup
+  public void setup() {
+    GlobalInstances globals = MockGraphs.globals("mutatorBenchmark");
+    AccumuloVertex vertex = new AccumuloVertex(globals, "vertex");
+
+    switch (mutator) {
+      case "addVertex":
+        mut = new AddVertexMutator("vertex");
+        break;
+      case "writeProperty":
+        mut = new WritePropertyMutator("vertex", "name", "value");
+        break;
+      case "clearProperty":
+        mut = new ClearPropertyMutator("vertex", "name");
+        break;
+      case "addEdge":
+        mut = new EdgeMutator.Add("edge", "out", "in", "label");
+        break;
+      case "deleteEdge":
+        mut = new EdgeMutator.Delete("edge", "out", "in", "label");
+        break;
+      case "addEndpoints":
+        mut = new EdgeEndpointsMutator.Add("edge", "out", "in", "label");
+        break;
+      case "deleteEndpoints":
+        mut = new EdgeEndpointsMutator.Delete("edge", "out", "in", "label");
+        break;
+      case "addIndexValue":
+        mut = new IndexValueMutator.Add(vertex, "name", "value");
+        break;
+      case "deleteIndexValue":
+        mut = new IndexValueMutator.Delete(vertex, "name", "value");
+        break;
+      case "addIndexMetadata":
+        mut = new IndexMetadataMutator.Add("name", Vertex.class,
+            IndexMetadataEntryType.__INDEX_KEY__);
+        break;
+      case "deleteIndexMetadata":
+        mut = new IndexMetadataMutator.Delete("name", Vertex.class,
+            IndexMetadataEntryType.__INDEX_KEY__);
+        break;
+      case "indexMetadataVersion":
+        mut = new IndexMetadataMutator.Version("version");
+        break;
+      case "addReverseIndex":
+        mut = new ReverseIndexMutator.Add("index", vertex, "name", "value");
+        break;
+      case "deleteReverseIndex":
+        mut = new ReverseIndexMutator.Delete("index", vertex, "name", "value");
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown mutator: " + mutator);
+    }
+  }
+
+  @Benchmark
+  public Iterable<Mutation> create() {
+    return mut.create();
+  }
+}
@@ -0,0 +1,132 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.benchmarks;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.LongCombiner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.jhuapl.tinkerpop.AccumuloByteSerializer;
+import edu.jhuapl.tinkerpop.AccumuloEdge;
+import edu.jhuapl.tinkerpop.AccumuloVertex;
+import edu.jhuapl.tinkerpop.Constants;
+import edu.jhuapl.tinkerpop.GlobalInstances;
+import edu.jhuapl.tinkerpop.parser.EdgeParser;
+import edu.jhuapl.tinkerpop.parser.PropertyParser;
+import edu.jhuapl.tinkerpop.parser.VertexParser;
+
+/**
+ * Parsing of synthetic vertex and edge rows, laid out
+ * as they are in the vertex and edge tables.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParserBenchmark {
+
+  /**
+   * Number of properties per element.
+   */
+  @Param({"1", "10"})
+  public int properties;
+
+  /**
+   * Number of incident edges per vertex row.
+   */
+  @Param({"0", "100"})
+  public int edges;
+
+  private GlobalInstances globals;
+  private VertexParser vertexParser;
+  private EdgeParser edgeParser;
+  private PropertyParser propertyParser;
+
+  private List<Entry<Key, Value>> vertexRow;
+  private List<Entry<Key, Value>> edgeRow;
+
+  @Setup
+  public void setup() {
+    globals = MockGraphs.globals("parserBenchmark");
+    vertexParser = new VertexParser(globals);
+    edgeParser = new EdgeParser(globals);
+    propertyParser = new PropertyParser();
+
+    vertexRow = new ArrayList<Entry<Key, Value>>();
+    add(vertexRow, "vertex", Constants.LABEL, Constants.EXISTS,
+        Constants.EMPTY);
+    add(vertexRow, "vertex", Constants.DEGREE, "OUT" + Constants.ID_DELIM
+        + "label", LongCombiner.VAR_LEN_ENCODER.encode((long) edges));
+    for (int i = 0; i < edges; i++) {
+      add(vertexRow, "vertex", i % 2 == 0 ? Constants.IN_EDGE : Constants.OUT_EDGE,
+          "other" + i + Constants.ID_DELIM + "edge" + i,
+          (Constants.ID_DELIM + "label").getBytes());
+    }
+    addProperties(vertexRow, "vertex");
+
+    edgeRow = new ArrayList<Entry<Key, Value>>();
+    add(edgeRow, "edge", Constants.LABEL, "in" + Constants.ID_DELIM + "out",
+        AccumuloByteSerializer.serialize("label"));
+    addProperties(edgeRow, "edge");
+  }
+
+  @Benchmark
+  public AccumuloVertex parseVertex() {
+    return vertexParser.parse("vertex", vertexRow);
+  }
+
+  @Benchmark
+  public AccumuloEdge parseEdge() {
+    return edgeParser.parse("edge", edgeRow);
+  }
+
+  @Benchmark
+  public Map<String, Object> parseProperties() {
+    return propertyParser.parse(vertexRow);
+  }
+
+  private void addProperties(List<Entry<Key, Value>> row, String id) {
+    for (int i = 0; i < properties; i++) {
+      add(row, id, "property" + i, "",
+          AccumuloByteSerializer.serialize(i % 2 == 0 ? i : "value" + i));
+    }
+  }
+
+  private static void add(List<Entry<Key, Value>> row, String id,
+      String cf, String cq, byte[] value) {
+    row.add(new SimpleImmutableEntry<Key, Value>(
+        new Key(id, cf, cq), new Value(value)));
+  }
+}
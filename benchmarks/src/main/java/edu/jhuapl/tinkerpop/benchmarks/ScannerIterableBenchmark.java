@@ -0,0 +1,99 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+
+import edu.jhuapl.tinkerpop.AccumuloGraph;
+
+/**
+ * Iterating scan results through {@link edu.jhuapl.tinkerpop.ScannerIterable}
+ * against a mock instance: a full vertex table scan,
+ * and an adjacency scan of a single vertex.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScannerIterableBenchmark {
+
+  @Param({"1000"})
+  public int size;
+
+  private AccumuloGraph graph;
+  private Vertex hub;
+
+  @Setup
+  public void setup() {
+    graph = MockGraphs.open("scannerIterableBenchmark");
+    hub = graph.addVertex("hub");
+    for (int i = 0; i < size; i++) {
+      Vertex v = graph.addVertex("vertex" + i);
+      v.setProperty("index", i);
+      graph.addEdge("edge" + i, hub, v, i % 2 == 0 ? "even" : "odd");
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    graph.shutdown();
+  }
+
+  @Benchmark
+  public int vertices() {
+    int count = 0;
+    for (Vertex v : graph.getVertices()) {
+      count += v.getId().hashCode();
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int adjacentEdges() {
+    int count = 0;
+    for (Edge e : hub.getEdges(Direction.OUT)) {
+      count += e.getId().hashCode();
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int adjacentVertices() {
+    int count = 0;
+    for (Vertex v : hub.getVertices(Direction.OUT, "even")) {
+      count += v.getId().hashCode();
+    }
+    return count;
+  }
+}
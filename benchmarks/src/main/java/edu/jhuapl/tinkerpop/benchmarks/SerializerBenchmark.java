@@ -0,0 +1,129 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.namespace.QName;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.tinkerpop.blueprints.Direction;
+
+import edu.jhuapl.tinkerpop.AccumuloByteSerializer;
+
+/**
+ * Serialization and deserialization of property values,
+ * for each type tag. The text_* types are the legacy
+ * encodings, which are only read; serializing them
+ * writes the corresponding sortable encoding.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializerBenchmark {
+
+  @Param({"null", "byte", "short", "character", "integer", "long",
+    "float", "double", "boolean", "date", "string", "enum", "qname",
+    "serializable", "text_byte", "text_short", "text_integer",
+    "text_long", "text_float", "text_double", "text_boolean",
+    "text_date"})
+  public String type;
+
+  private Object value;
+  private byte[] bytes;
+
+  @Setup
+  public void setup() {
+    switch (type) {
+      case "null": value = null; break;
+      case "byte": case "text_byte": value = (byte) 42; break;
+      case "short": case "text_short": value = (short) 4242; break;
+      case "character": value = 'c'; break;
+      case "integer": case "text_integer": value = 424242; break;
+      case "long": case "text_long": value = 42424242424L; break;
+      case "float": case "text_float": value = 42.42f; break;
+      case "double": case "text_double": value = 4242.4242d; break;
+      case "boolean": case "text_boolean": value = true; break;
+      case "date": case "text_date": value = new Date(1400000000000L); break;
+      case "string": value = "a moderately long property value"; break;
+      case "enum": value = Direction.OUT; break;
+      case "qname": value = new QName("http://example.com/ns", "local"); break;
+      case "serializable":
+        value = new ArrayList<String>(Arrays.asList("a", "b", "c"));
+        break;
+      default: throw new IllegalArgumentException("Unknown type: " + type);
+    }
+
+    bytes = type.startsWith("text_") ?
+        legacyEncoding(type, value) : AccumuloByteSerializer.serialize(value);
+  }
+
+  @Benchmark
+  public byte[] serialize() {
+    return AccumuloByteSerializer.serialize(value);
+  }
+
+  @Benchmark
+  public Object deserialize() {
+    return AccumuloByteSerializer.deserialize(bytes);
+  }
+
+  /**
+   * Encode the given value as the text encodings did.
+   */
+  private static byte[] legacyEncoding(String type, Object value) {
+    int tag;
+    String text = value.toString();
+    switch (type) {
+      case "text_byte": tag = AccumuloByteSerializer.BYTE; break;
+      case "text_short": tag = AccumuloByteSerializer.SHORT; break;
+      case "text_integer": tag = AccumuloByteSerializer.INTEGER; break;
+      case "text_long": tag = AccumuloByteSerializer.LONG; break;
+      case "text_float": tag = AccumuloByteSerializer.FLOAT; break;
+      case "text_double": tag = AccumuloByteSerializer.DOUBLE; break;
+      case "text_boolean":
+        tag = AccumuloByteSerializer.BOOLEAN;
+        text = ((Boolean) value) ? "t" : "f";
+        break;
+      case "text_date":
+        tag = AccumuloByteSerializer.DATE;
+        text = Long.toString(((Date) value).getTime());
+        break;
+      default: throw new IllegalArgumentException("Unknown type: " + type);
+    }
+    byte[] textBytes = text.getBytes();
+    byte[] encoded = new byte[textBytes.length + 1];
+    encoded[0] = (byte) tag;
+    System.arraycopy(textBytes, 0, encoded, 1, textBytes.length);
+    return encoded;
+  }
+}
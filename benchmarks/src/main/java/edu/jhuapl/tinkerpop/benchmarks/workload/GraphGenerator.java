@@ -0,0 +1,144 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.benchmarks.workload;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.tinkerpop.blueprints.Graph;
+import com.tinkerpop.blueprints.KeyIndexableGraph;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * Generates a synthetic graph with a power-law in-degree
+ * distribution. Edge sources are chosen uniformly, and
+ * targets from a Zipf distribution over vertices, so a few
+ * vertices are very popular. Workload operations pick their
+ * vertices from the same distribution.
+ * <p/>
+ * Each vertex has a {@link #GROUP_KEY} property, which is
+ * key indexed, plus the properties of the given
+ * {@link PropertyMix}.
+ */
+public class GraphGenerator {
+
+  /**
+   * Key indexed property, with {@link #GROUPS} distinct values.
+   */
+  public static final String GROUP_KEY = "group";
+  public static final int GROUPS = 100;
+
+  public static final String[] LABELS = {"knows", "likes", "follows"};
+
+  private final int vertices;
+  private final int degree;
+  private final PropertyMix props;
+  private final long seed;
+  private final double[] cdf;
+
+  /**
+   * @param vertices number of vertices
+   * @param degree average out-degree
+   * @param alpha Zipf exponent; 0 is uniform, larger is more skewed
+   * @param props properties of each vertex
+   * @param seed
+   */
+  public GraphGenerator(int vertices, int degree, double alpha,
+      PropertyMix props, long seed) {
+    if (vertices < 1) {
+      throw new IllegalArgumentException("Must have at least one vertex");
+    }
+    this.vertices = vertices;
+    this.degree = degree;
+    this.props = props;
+    this.seed = seed;
+
+    cdf = new double[vertices];
+    double sum = 0;
+    for (int i = 0; i < vertices; i++) {
+      sum += 1.0 / Math.pow(i + 1, alpha);
+      cdf[i] = sum;
+    }
+    for (int i = 0; i < vertices; i++) {
+      cdf[i] /= sum;
+    }
+  }
+
+  public int getVertexCount() {
+    return vertices;
+  }
+
+  public PropertyMix getPropertyMix() {
+    return props;
+  }
+
+  public static String vertexId(int i) {
+    return "v" + i;
+  }
+
+  /**
+   * Pick a vertex, popular ones more often.
+   * @param random
+   * @return
+   */
+  public int pickVertex(Random random) {
+    double p = random.nextDouble();
+    int low = 0;
+    int high = vertices - 1;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (cdf[mid] < p) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  public String pickLabel(Random random) {
+    return LABELS[random.nextInt(LABELS.length)];
+  }
+
+  /**
+   * Write the graph, and a key index on {@link #GROUP_KEY}.
+   * Returns the number of edges written.
+   * @param graph
+   * @return
+   */
+  public long load(Graph graph) {
+    if (graph instanceof KeyIndexableGraph) {
+      ((KeyIndexableGraph) graph).createKeyIndex(GROUP_KEY, Vertex.class);
+    }
+
+    Random random = new Random(seed);
+    List<Vertex> added = new ArrayList<Vertex>(vertices);
+    for (int i = 0; i < vertices; i++) {
+      Vertex v = graph.addVertex(vertexId(i));
+      v.setProperty(GROUP_KEY, i % GROUPS);
+      props.apply(v, random);
+      added.add(v);
+    }
+
+    long edges = (long) vertices * degree;
+    for (long e = 0; e < edges; e++) {
+      Vertex out = added.get(random.nextInt(vertices));
+      Vertex in = added.get(pickVertex(random));
+      graph.addEdge("e" + e, out, in, pickLabel(random));
+    }
+    return edges;
+  }
+}
@@ -0,0 +1,64 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.benchmarks.workload;
+
+import java.util.Arrays;
+
+/**
+ * Collects operation latencies, in nanoseconds.
+ * Not thread-safe; use one per thread and merge.
+ */
+public class LatencyStats {
+
+  private long[] latencies = new long[1024];
+  private int count;
+  private boolean sorted;
+
+  public void record(long nanos) {
+    if (count == latencies.length) {
+      latencies = Arrays.copyOf(latencies, count * 2);
+    }
+    latencies[count++] = nanos;
+    sorted = false;
+  }
+
+  public void merge(LatencyStats other) {
+    for (int i = 0; i < other.count; i++) {
+      record(other.latencies[i]);
+    }
+  }
+
+  public int getCount() {
+    return count;
+  }
+
+  /**
+   * Return the latency at the given percentile (0-100),
+   * in nanoseconds, or 0 if nothing was recorded.
+   * @param percentile
+   * @return
+   */
+  public long getPercentile(double percentile) {
+    if (count == 0) {
+      return 0;
+    }
+    if (!sorted) {
+      Arrays.sort(latencies, 0, count);
+      sorted = true;
+    }
+    int index = (int) Math.ceil(percentile / 100 * count) - 1;
+    return latencies[Math.max(0, Math.min(count - 1, index))];
+  }
+}
@@ -0,0 +1,116 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.benchmarks.workload;
+
+import java.util.Random;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Graph;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * Operations a workload is made of. Each returns a
+ * number derived from what it read, so that the reads
+ * are not optimized away.
+ */
+public enum Operation {
+
+  /**
+   * Read a vertex and one of its properties.
+   */
+  POINT_READ {
+    @Override
+    int run(Graph graph, GraphGenerator gen, Random random) {
+      Vertex v = graph.getVertex(GraphGenerator.vertexId(gen.pickVertex(random)));
+      String key = gen.getPropertyMix().firstKey();
+      Object value = key != null ? v.getProperty(key) :
+        v.getProperty(GraphGenerator.GROUP_KEY);
+      return value != null ? 1 : 0;
+    }
+  },
+
+  /**
+   * Read the neighbors of a vertex.
+   */
+  NEIGHBOR_SCAN {
+    @Override
+    int run(Graph graph, GraphGenerator gen, Random random) {
+      Vertex v = graph.getVertex(GraphGenerator.vertexId(gen.pickVertex(random)));
+      return count(v.getVertices(Direction.BOTH));
+    }
+  },
+
+  /**
+   * Read the vertices two outgoing hops from a vertex.
+   */
+  TWO_HOP {
+    @Override
+    int run(Graph graph, GraphGenerator gen, Random random) {
+      Vertex v = graph.getVertex(GraphGenerator.vertexId(gen.pickVertex(random)));
+      int count = 0;
+      for (Vertex n : v.getVertices(Direction.OUT)) {
+        count += count(n.getVertices(Direction.OUT));
+      }
+      return count;
+    }
+  },
+
+  /**
+   * Look up vertices by an indexed property value.
+   */
+  INDEX_LOOKUP {
+    @Override
+    int run(Graph graph, GraphGenerator gen, Random random) {
+      return count(graph.getVertices(GraphGenerator.GROUP_KEY,
+          random.nextInt(GraphGenerator.GROUPS)));
+    }
+  },
+
+  /**
+   * Set a property of an existing vertex.
+   */
+  PROPERTY_WRITE {
+    @Override
+    int run(Graph graph, GraphGenerator gen, Random random) {
+      Vertex v = graph.getVertex(GraphGenerator.vertexId(gen.pickVertex(random)));
+      v.setProperty("written", random.nextInt());
+      return 1;
+    }
+  },
+
+  /**
+   * Add an edge between existing vertices.
+   */
+  EDGE_INSERT {
+    @Override
+    int run(Graph graph, GraphGenerator gen, Random random) {
+      Vertex out = graph.getVertex(GraphGenerator.vertexId(
+          random.nextInt(gen.getVertexCount())));
+      Vertex in = graph.getVertex(GraphGenerator.vertexId(gen.pickVertex(random)));
+      graph.addEdge(null, out, in, gen.pickLabel(random));
+      return 1;
+    }
+  };
+
+  abstract int run(Graph graph, GraphGenerator gen, Random random);
+
+  private static int count(Iterable<?> iter) {
+    int count = 0;
+    for (@SuppressWarnings("unused") Object obj : iter) {
+      count++;
+    }
+    return count;
+  }
+}
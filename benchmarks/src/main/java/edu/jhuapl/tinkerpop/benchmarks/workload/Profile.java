@@ -0,0 +1,80 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.benchmarks.workload;
+
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration;
+
+/**
+ * Named configuration profiles to compare. Each is
+ * applied on top of the connection settings.
+ */
+public enum Profile {
+
+  /**
+   * Default settings.
+   */
+  DEFAULT {
+    @Override
+    void apply(AccumuloGraphConfiguration cfg) { }
+  },
+
+  /**
+   * Vertex, edge and property caching.
+   */
+  CACHED {
+    @Override
+    void apply(AccumuloGraphConfiguration cfg) {
+      cfg.setVertexCacheParams(100000, 60000)
+          .setEdgeCacheParams(100000, 60000)
+          .setPropertyCacheTimeout(null, 60000);
+    }
+  },
+
+  /**
+   * Property caching, with all properties loaded
+   * along with their elements.
+   */
+  PRELOAD {
+    @Override
+    void apply(AccumuloGraphConfiguration cfg) {
+      cfg.setPropertyCacheTimeout(null, 60000)
+          .setPreloadAllProperties(true);
+    }
+  },
+
+  /**
+   * Writes are buffered rather than flushed after each
+   * operation. Writes are not visible to reads until
+   * the buffer is flushed.
+   */
+  BATCHED {
+    @Override
+    void apply(AccumuloGraphConfiguration cfg) {
+      cfg.setAutoFlush(false);
+    }
+  },
+
+  /**
+   * No existence checks on reads and writes.
+   */
+  NOCHECKS {
+    @Override
+    void apply(AccumuloGraphConfiguration cfg) {
+      cfg.setSkipExistenceChecks(true);
+    }
+  };
+
+  abstract void apply(AccumuloGraphConfiguration cfg);
+}
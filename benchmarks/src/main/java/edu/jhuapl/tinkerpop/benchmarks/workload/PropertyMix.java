@@ -0,0 +1,113 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.benchmarks.workload;
+
+import java.util.Random;
+
+import com.tinkerpop.blueprints.Element;
+
+/**
+ * Numbers and types of the generated properties of each
+ * vertex, parsed from a specification such as
+ * <tt>string:2,int:2,long:1,double:1</tt>. Properties
+ * are named by type and number, e.g. <tt>string0</tt>.
+ */
+public class PropertyMix {
+
+  public static final String[] TYPES = {"string", "int", "long", "double"};
+
+  private final int[] counts = new int[TYPES.length];
+  private final int stringLength;
+
+  public PropertyMix(String spec, int stringLength) {
+    this.stringLength = stringLength;
+    if (spec.isEmpty()) {
+      return;
+    }
+    for (String part : spec.split(",")) {
+      String[] typeCount = part.split(":");
+      if (typeCount.length != 2) {
+        throw new IllegalArgumentException("Bad property spec: " + part);
+      }
+      counts[typeIndex(typeCount[0])] = Integer.parseInt(typeCount[1]);
+    }
+  }
+
+  /**
+   * The key of some generated property, or null if none.
+   * @return
+   */
+  public String firstKey() {
+    for (int t = 0; t < TYPES.length; t++) {
+      if (counts[t] > 0) {
+        return TYPES[t] + 0;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Set the generated properties on the given element.
+   * @param element
+   * @param random
+   */
+  public void apply(Element element, Random random) {
+    for (int t = 0; t < TYPES.length; t++) {
+      for (int i = 0; i < counts[t]; i++) {
+        element.setProperty(TYPES[t] + i, value(t, random));
+      }
+    }
+  }
+
+  private Object value(int type, Random random) {
+    switch (type) {
+      case 0:
+        StringBuilder sb = new StringBuilder(stringLength);
+        for (int i = 0; i < stringLength; i++) {
+          sb.append((char) ('a' + random.nextInt(26)));
+        }
+        return sb.toString();
+      case 1:
+        return random.nextInt();
+      case 2:
+        return random.nextLong();
+      default:
+        return random.nextDouble();
+    }
+  }
+
+  private static int typeIndex(String type) {
+    for (int t = 0; t < TYPES.length; t++) {
+      if (TYPES[t].equals(type)) {
+        return t;
+      }
+    }
+    throw new IllegalArgumentException("Unknown property type: " + type);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    for (int t = 0; t < TYPES.length; t++) {
+      if (counts[t] > 0) {
+        if (sb.length() > 0) {
+          sb.append(',');
+        }
+        sb.append(TYPES[t]).append(':').append(counts[t]);
+      }
+    }
+    return sb.toString();
+  }
+}
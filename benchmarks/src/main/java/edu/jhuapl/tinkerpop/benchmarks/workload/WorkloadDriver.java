@@ -0,0 +1,263 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.benchmarks.workload;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.accumulo.minicluster.MiniAccumuloCluster;
+
+import edu.jhuapl.tinkerpop.AccumuloGraph;
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration;
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.InstanceType;
+
+/**
+ * Runs a workload mix against a generated graph, once
+ * per configuration profile, and reports throughput and
+ * p50/p99 latency for each operation. Each profile gets
+ * a freshly loaded graph.
+ * <p/>
+ * Runs against a mock instance, or against a local
+ * MiniAccumuloCluster started for the run, which
+ * includes the tablet server and RPC overhead the
+ * mock instance does not have.
+ */
+public class WorkloadDriver {
+
+  private static final String MINI_PASSWORD = "password";
+
+  private String instance = "mock";
+  private int vertices = 10000;
+  private int degree = 10;
+  private double alpha = 1.0;
+  private String properties = "string:2,int:2,long:1";
+  private int stringLength = 16;
+  private String mix = "mixed";
+  private List<Profile> profiles = new ArrayList<Profile>();
+  private int ops = 100000;
+  private int warmup = 10000;
+  private int threads = 1;
+  private long seed = 42;
+
+  private MiniAccumuloCluster cluster;
+
+  public static void main(String[] args) throws Exception {
+    WorkloadDriver driver = new WorkloadDriver();
+    if (!driver.parseArgs(args)) {
+      usage();
+      System.exit(1);
+    }
+    driver.run();
+  }
+
+  private static void usage() {
+    System.err.println("Usage: " + WorkloadDriver.class.getName() + " [options]");
+    System.err.println("  --instance mock|mini   backing instance (mock)");
+    System.err.println("  --vertices N           vertices to generate (10000)");
+    System.err.println("  --degree N             average out-degree (10)");
+    System.err.println("  --alpha X              Zipf exponent of in-degree and access skew (1.0)");
+    System.err.println("  --properties SPEC      vertex properties, e.g. string:2,int:2,long:1,double:1");
+    System.err.println("  --string-length N      length of string properties (16)");
+    System.err.println("  --mix NAME|SPEC        one of " + WorkloadMix.getNamedMixes()
+        + ", or e.g. point_read:80,edge_insert:20 (mixed)");
+    System.err.println("  --profiles P,...       profiles to compare, of "
+        + Arrays.toString(Profile.values()) + " (all)");
+    System.err.println("  --ops N                measured operations per profile (100000)");
+    System.err.println("  --warmup N             unmeasured operations first (10000)");
+    System.err.println("  --threads N            client threads (1)");
+    System.err.println("  --seed N               random seed (42)");
+  }
+
+  private boolean parseArgs(String[] args) {
+    if (args.length % 2 != 0) {
+      return false;
+    }
+    for (int i = 0; i < args.length; i += 2) {
+      String value = args[i + 1];
+      switch (args[i]) {
+        case "--instance": instance = value; break;
+        case "--vertices": vertices = Integer.parseInt(value); break;
+        case "--degree": degree = Integer.parseInt(value); break;
+        case "--alpha": alpha = Double.parseDouble(value); break;
+        case "--properties": properties = value; break;
+        case "--string-length": stringLength = Integer.parseInt(value); break;
+        case "--mix": mix = value; break;
+        case "--profiles":
+          for (String p : value.split(",")) {
+            profiles.add(Profile.valueOf(p.trim().toUpperCase()));
+          }
+          break;
+        case "--ops": ops = Integer.parseInt(value); break;
+        case "--warmup": warmup = Integer.parseInt(value); break;
+        case "--threads": threads = Integer.parseInt(value); break;
+        case "--seed": seed = Long.parseLong(value); break;
+        default: return false;
+      }
+    }
+    if (profiles.isEmpty()) {
+      profiles.addAll(Arrays.asList(Profile.values()));
+    }
+    return instance.equals("mock") || instance.equals("mini");
+  }
+
+  private void run() throws Exception {
+    GraphGenerator gen = new GraphGenerator(vertices, degree, alpha,
+        new PropertyMix(properties, stringLength), seed);
+    WorkloadMix workload = new WorkloadMix(mix);
+
+    if (instance.equals("mini")) {
+      File dir = Files.createTempDirectory("workload").toFile();
+      cluster = new MiniAccumuloCluster(dir, MINI_PASSWORD);
+      cluster.start();
+    }
+
+    System.out.printf("instance=%s vertices=%d degree=%d alpha=%.2f "
+        + "properties=%s mix=%s ops=%d threads=%d%n", instance, vertices,
+        degree, alpha, gen.getPropertyMix(), workload, ops, threads);
+    System.out.printf("%-10s %-16s %10s %12s %12s %12s%n", "profile",
+        "operation", "count", "ops/sec", "p50(us)", "p99(us)");
+
+    try {
+      for (Profile profile : profiles) {
+        runProfile(profile, gen, workload);
+      }
+    } finally {
+      if (cluster != null) {
+        cluster.stop();
+      }
+    }
+  }
+
+  private void runProfile(Profile profile, GraphGenerator gen,
+      WorkloadMix workload) throws Exception {
+    AccumuloGraphConfiguration cfg = baseConfig(profile);
+    profile.apply(cfg);
+    AccumuloGraph graph = new AccumuloGraph(cfg);
+
+    try {
+      long start = System.nanoTime();
+      long edges = gen.load(graph);
+      graph.flush();
+      long loadNanos = System.nanoTime() - start;
+      report(profile, "load", vertices + edges, loadNanos, null);
+
+      execute(graph, gen, workload, warmup, seed);
+
+      start = System.nanoTime();
+      Map<Operation, LatencyStats> stats = execute(graph, gen, workload, ops, seed + 1);
+      graph.flush();
+      long runNanos = System.nanoTime() - start;
+
+      LatencyStats all = new LatencyStats();
+      for (Map.Entry<Operation, LatencyStats> entry : stats.entrySet()) {
+        all.merge(entry.getValue());
+        report(profile, entry.getKey().name().toLowerCase(),
+            entry.getValue().getCount(), runNanos, entry.getValue());
+      }
+      report(profile, "all", all.getCount(), runNanos, all);
+    } finally {
+      graph.shutdown();
+    }
+  }
+
+  private AccumuloGraphConfiguration baseConfig(Profile profile) {
+    AccumuloGraphConfiguration cfg = new AccumuloGraphConfiguration()
+        .setGraphName("workload_" + profile.name().toLowerCase()
+            + "_" + System.currentTimeMillis())
+        .setCreate(true);
+    if (cluster != null) {
+      cfg.setInstanceType(InstanceType.Distributed)
+          .setInstanceName(cluster.getInstanceName())
+          .setZooKeeperHosts(cluster.getZooKeepers())
+          .setUser("root").setPassword(MINI_PASSWORD);
+    } else {
+      cfg.setInstanceType(InstanceType.Mock);
+    }
+    return cfg;
+  }
+
+  /**
+   * Run the given number of operations, split across
+   * the client threads, and return their latencies.
+   */
+  private Map<Operation, LatencyStats> execute(final AccumuloGraph graph,
+      final GraphGenerator gen, final WorkloadMix workload, int count,
+      long seed) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Future<Map<Operation, LatencyStats>>> results =
+        new ArrayList<Future<Map<Operation, LatencyStats>>>();
+    for (int t = 0; t < threads; t++) {
+      final int perThread = count / threads + (t < count % threads ? 1 : 0);
+      final Random random = new Random(seed * 31 + t);
+      results.add(executor.submit(new Callable<Map<Operation, LatencyStats>>() {
+        @Override
+        public Map<Operation, LatencyStats> call() {
+          Map<Operation, LatencyStats> stats =
+              new EnumMap<Operation, LatencyStats>(Operation.class);
+          for (int i = 0; i < perThread; i++) {
+            Operation op = workload.pick(random);
+            long start = System.nanoTime();
+            op.run(graph, gen, random);
+            long elapsed = System.nanoTime() - start;
+
+            LatencyStats s = stats.get(op);
+            if (s == null) {
+              s = new LatencyStats();
+              stats.put(op, s);
+            }
+            s.record(elapsed);
+          }
+          return stats;
+        }
+      }));
+    }
+    executor.shutdown();
+
+    Map<Operation, LatencyStats> merged =
+        new EnumMap<Operation, LatencyStats>(Operation.class);
+    for (Future<Map<Operation, LatencyStats>> result : results) {
+      for (Map.Entry<Operation, LatencyStats> entry : result.get().entrySet()) {
+        if (!merged.containsKey(entry.getKey())) {
+          merged.put(entry.getKey(), new LatencyStats());
+        }
+        merged.get(entry.getKey()).merge(entry.getValue());
+      }
+    }
+    return merged;
+  }
+
+  private static void report(Profile profile, String operation, long count,
+      long nanos, LatencyStats stats) {
+    double opsPerSec = count / (nanos / 1e9);
+    if (stats == null) {
+      System.out.printf("%-10s %-16s %10d %12.1f %12s %12s%n",
+          profile.name().toLowerCase(), operation, count, opsPerSec, "-", "-");
+    } else {
+      System.out.printf("%-10s %-16s %10d %12.1f %12.1f %12.1f%n",
+          profile.name().toLowerCase(), operation, count, opsPerSec,
+          stats.getPercentile(50) / 1e3, stats.getPercentile(99) / 1e3);
+    }
+  }
+}
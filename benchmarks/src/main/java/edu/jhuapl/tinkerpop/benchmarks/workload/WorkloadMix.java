@@ -0,0 +1,92 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.benchmarks.workload;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+
+/**
+ * Weighted mix of operations. Named mixes are predefined;
+ * others are given as <tt>operation:weight,...</tt>, e.g.
+ * <tt>point_read:80,edge_insert:20</tt>, or as a single
+ * operation name.
+ */
+public class WorkloadMix {
+
+  private static final Map<String, String> NAMED = new LinkedHashMap<String, String>();
+  static {
+    NAMED.put("read", "point_read:60,neighbor_scan:25,two_hop:5,index_lookup:10");
+    NAMED.put("mixed", "point_read:40,neighbor_scan:20,two_hop:5,index_lookup:10,"
+        + "property_write:15,edge_insert:10");
+    NAMED.put("write", "point_read:10,property_write:50,edge_insert:40");
+    NAMED.put("traversal", "neighbor_scan:50,two_hop:50");
+  }
+
+  private final String name;
+  private final Operation[] ops;
+  private final int[] cumulative;
+
+  public WorkloadMix(String spec) {
+    this.name = spec;
+    String weights = NAMED.containsKey(spec) ? NAMED.get(spec) : spec;
+
+    Map<Operation, Integer> map = new EnumMap<Operation, Integer>(Operation.class);
+    for (String part : weights.split(",")) {
+      String[] opWeight = part.split(":");
+      Operation op = Operation.valueOf(opWeight[0].trim().toUpperCase());
+      map.put(op, opWeight.length > 1 ? Integer.parseInt(opWeight[1].trim()) : 1);
+    }
+
+    ops = new Operation[map.size()];
+    cumulative = new int[map.size()];
+    int i = 0;
+    int total = 0;
+    for (Entry<Operation, Integer> entry : map.entrySet()) {
+      if (entry.getValue() <= 0) {
+        throw new IllegalArgumentException("Weights must be positive: " + part(entry));
+      }
+      total += entry.getValue();
+      ops[i] = entry.getKey();
+      cumulative[i] = total;
+      i++;
+    }
+  }
+
+  public static Iterable<String> getNamedMixes() {
+    return NAMED.keySet();
+  }
+
+  public Operation pick(Random random) {
+    int r = random.nextInt(cumulative[cumulative.length - 1]);
+    for (int i = 0; i < cumulative.length; i++) {
+      if (r < cumulative[i]) {
+        return ops[i];
+      }
+    }
+    throw new IllegalStateException();
+  }
+
+  private static String part(Entry<Operation, Integer> entry) {
+    return entry.getKey().name().toLowerCase() + ":" + entry.getValue();
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
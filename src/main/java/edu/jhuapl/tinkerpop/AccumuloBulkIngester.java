@@ -15,6 +15,10 @@
 package edu.jhuapl.tinkerpop;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import org.apache.accumulo.core.client.AccumuloException;
@@ -26,15 +30,20 @@ import org.apache.accumulo.core.client.MutationsRejectedException;
 import org.apache.accumulo.core.client.TableExistsException;
 import org.apache.accumulo.core.client.TableNotFoundException;
 import org.apache.accumulo.core.client.admin.TableOperations;
-import org.apache.accumulo.core.data.Mutation;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
 
 import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Element;
 import com.tinkerpop.blueprints.GraphFactory;
 import com.tinkerpop.blueprints.Vertex;
 
 import edu.jhuapl.tinkerpop.mutator.Mutators;
 import edu.jhuapl.tinkerpop.mutator.edge.EdgeEndpointsMutator;
 import edu.jhuapl.tinkerpop.mutator.edge.EdgeMutator;
+import edu.jhuapl.tinkerpop.mutator.index.IndexValueMutator;
 import edu.jhuapl.tinkerpop.mutator.property.WritePropertyMutator;
 import edu.jhuapl.tinkerpop.mutator.vertex.AddVertexMutator;
 
@@ -48,6 +57,21 @@ import edu.jhuapl.tinkerpop.mutator.vertex.AddVertexMutator;
  * (or will exist by the end of the ingest process). Likewise, it is the
  * user's responsibility to ensure vertex and edge IDs provided for properties (will) exist.
  * <P>
+ * If a bulk load directory is configured (see
+ * {@link AccumuloGraphConfiguration#setBulkLoadDirectory(String)}),
+ * data is written to sorted files in that directory rather than to the
+ * tables, and the files are imported into the tables on {@link #shutdown(boolean)}.
+ * Nothing is visible in the graph until then.
+ * <P>
+ * Key index entries are written along with the properties, for the keys
+ * that were indexed when the ingester was created. Since no existing
+ * values are read, overwriting an indexed property leaves the old value's
+ * index entry in place, and keys indexed after the ingester was created
+ * are not indexed. Unlike earlier versions, key indexes are not rebuilt on
+ * shutdown unless {@link AccumuloGraphConfiguration#setBulkRebuildKeyIndexes(boolean)}
+ * is enabled, in which case no entries are written during ingest and every
+ * key index is dropped and rebuilt instead.
+ * <P>
  * TODO define the properties that will be used (vs. those that are ignored) from the provided AccumuloGraphConfiguration.
  * 
  */
@@ -65,9 +89,26 @@ public final class AccumuloBulkIngester {
 
   /**
    * Parent MTBW for writing mutation into Accumulo.
+   * Null when writing to files for bulk import.
    */
   MultiTableBatchWriter mtbw;
 
+  /**
+   * File system holding the bulk load directory,
+   * or null when writing directly to tables.
+   */
+  FileSystem fs;
+
+  /**
+   * Writers for each table, by table name.
+   */
+  Map<String, BatchWriter> writers = new HashMap<String, BatchWriter>();
+
+  /**
+   * Whether {@link #shutdown(boolean)} has been called.
+   */
+  boolean closed = false;
+
   /**
    * Writer to the vertex table; child of {@link #mtbw}.
    */
@@ -78,6 +119,32 @@ public final class AccumuloBulkIngester {
    */
   BatchWriter edgeWriter;
 
+  /**
+   * Writer to the vertex key index table.
+   */
+  BatchWriter vertexKeyIndexWriter;
+
+  /**
+   * Writer to the edge key index table.
+   */
+  BatchWriter edgeKeyIndexWriter;
+
+  /**
+   * Whether key indexes are rebuilt on shutdown
+   * instead of written during ingest.
+   */
+  boolean rebuildKeyIndexes;
+
+  /**
+   * Vertex keys indexed when this ingester was created.
+   */
+  Set<String> vertexIndexedKeys;
+
+  /**
+   * Edge keys indexed when this ingester was created.
+   */
+  Set<String> edgeIndexedKeys;
+
   /**
    * Create an ingester using the given configuration parameters.
    * 
@@ -96,9 +163,74 @@ public final class AccumuloBulkIngester {
 
     AccumuloGraphUtils.handleCreateAndClear(config);
 
-    mtbw = connector.createMultiTableBatchWriter(config.getBatchWriterConfig());
-    vertexWriter = mtbw.getBatchWriter(config.getVertexTableName());
-    edgeWriter = mtbw.getBatchWriter(config.getEdgeTableName());
+    if (config.getBulkLoadDirectory() != null) {
+      Path dir = new Path(config.getBulkLoadDirectory());
+      fs = dir.getFileSystem(new Configuration());
+      if (fs.exists(dir) && fs.listStatus(dir).length > 0) {
+        throw new AccumuloGraphException("Bulk load directory is not empty: " + dir);
+      }
+    } else {
+      mtbw = connector.createMultiTableBatchWriter(config.getBatchWriterConfig());
+    }
+
+    vertexWriter = getWriter(config.getVertexTableName());
+    edgeWriter = getWriter(config.getEdgeTableName());
+    vertexKeyIndexWriter = getWriter(config.getVertexKeyIndexTableName());
+    edgeKeyIndexWriter = getWriter(config.getEdgeKeyIndexTableName());
+
+    // Read the indexed keys once, so index entries can be
+    // written along with each property, unless the
+    // indexes are rebuilt on shutdown.
+    rebuildKeyIndexes = config.getBulkRebuildKeyIndexes();
+    if (rebuildKeyIndexes) {
+      vertexIndexedKeys = Collections.emptySet();
+      edgeIndexedKeys = Collections.emptySet();
+    } else {
+      AccumuloGraph g = (AccumuloGraph) GraphFactory.open(noCreateOrClear().getConfiguration());
+      vertexIndexedKeys = g.getIndexedKeys(Vertex.class);
+      edgeIndexedKeys = g.getIndexedKeys(Edge.class);
+      g.shutdown();
+    }
+  }
+
+  /**
+   * Copy of the configuration with the "create" and "clear"
+   * options disabled, so opening the graph doesn't blow away
+   * anything already added.
+   * 
+   * @return
+   */
+  private AccumuloGraphConfiguration noCreateOrClear() {
+    AccumuloGraphConfiguration copy = new AccumuloGraphConfiguration(config);
+    copy.setCreate(false).setClear(false);
+    return copy;
+  }
+
+  /**
+   * Returns the writer for the given table, creating it if needed.
+   * This is either a child of {@link #mtbw}, or a {@link SortedFileWriter}
+   * when writing files for bulk import.
+   * 
+   * @param table
+   * @return
+   * @throws AccumuloException
+   * @throws AccumuloSecurityException
+   * @throws TableNotFoundException
+   */
+  BatchWriter getWriter(String table) throws AccumuloException,
+      AccumuloSecurityException, TableNotFoundException {
+    BatchWriter writer = writers.get(table);
+    if (writer == null) {
+      if (fs != null) {
+        writer = new SortedFileWriter(fs,
+            new Path(config.getBulkLoadDirectory(), table),
+            config.getMaxWriteMemory());
+      } else {
+        writer = mtbw.getBatchWriter(table);
+      }
+      writers.put(table, writer);
+    }
+    return writer;
   }
 
   /**
@@ -115,7 +247,7 @@ public final class AccumuloBulkIngester {
    */
   public PropertyBuilder addVertex(String id) throws MutationsRejectedException {
     Mutators.apply(vertexWriter, new AddVertexMutator(id));
-    return new PropertyBuilder(vertexWriter, id);
+    return new PropertyBuilder(this, Vertex.class, id);
   }
 
   /**
@@ -133,7 +265,7 @@ public final class AccumuloBulkIngester {
    * @throws MutationsRejectedException
    */
   public void addVertexProperty(String id, String key, Object value) throws MutationsRejectedException {
-    addProperty(vertexWriter, id, key, value);
+    addProperty(Vertex.class, id, key, value);
   }
 
   /**
@@ -173,7 +305,7 @@ public final class AccumuloBulkIngester {
   public PropertyBuilder addEdge(String id, String src, String dest, String label) throws MutationsRejectedException {
     Mutators.apply(edgeWriter, new EdgeMutator.Add(id, src, dest, label));
     Mutators.apply(vertexWriter, new EdgeEndpointsMutator.Add(id, src, dest, label));
-    return new PropertyBuilder(edgeWriter, id);
+    return new PropertyBuilder(this, Edge.class, id);
   }
 
   /**
@@ -192,20 +324,30 @@ public final class AccumuloBulkIngester {
    * @throws MutationsRejectedException
    */
   public void addEdgeProperty(String id, String key, Object value) throws MutationsRejectedException {
-    addProperty(edgeWriter, id, key, value);
+    addProperty(Edge.class, id, key, value);
   }
 
   /**
-   * Adds the provided proprty to the given writer.
+   * Adds the provided property to the given element, and to
+   * the key index if the key is indexed.
    * 
-   * @param writer
+   * @param type
    * @param id
    * @param key
    * @param value
    * @throws MutationsRejectedException
    */
-  private void addProperty(BatchWriter writer, String id, String key, Object value) throws MutationsRejectedException {
-    Mutators.apply(writer, new WritePropertyMutator(id, key, value));
+  private void addProperty(Class<? extends Element> type, String id, String key, Object value) throws MutationsRejectedException {
+    boolean vertex = Vertex.class.equals(type);
+    Mutators.apply(vertex ? vertexWriter : edgeWriter, new WritePropertyMutator(id, key, value));
+
+    if (rebuildKeyIndexes) {
+      return;
+    }
+    if (config.getAutoIndex() || (vertex ? vertexIndexedKeys : edgeIndexedKeys).contains(key)) {
+      Mutators.apply(vertex ? vertexKeyIndexWriter : edgeKeyIndexWriter,
+          new IndexValueMutator.Add(id, key, value));
+    }
   }
 
   /**
@@ -222,19 +364,41 @@ public final class AccumuloBulkIngester {
   public void shutdown(boolean compact) throws AccumuloSecurityException,
     TableNotFoundException, AccumuloException {
 	// Make sure this wasn't closed already.
-    if (mtbw == null) {
+    if (closed) {
       throw new RuntimeException("Ingester was already closed");
     }
+    closed = true;
 
-    mtbw.close();
-    mtbw = null;
+    if (mtbw != null) {
+      mtbw.close();
+      mtbw = null;
+    } else {
+      importFiles();
+    }
 
-    // Disable the "create" and "clear" options so we don't blow away
-    // everything we just added.
-    AccumuloGraphConfiguration copy = new AccumuloGraphConfiguration(config);
-    copy.setCreate(false).setClear(false);
+    if (rebuildKeyIndexes) {
+      rebuildKeyIndexes();
+    }
+
+    // TODO ... other house cleaning/verification?
 
-    AccumuloGraph g = (AccumuloGraph) GraphFactory.open(copy.getConfiguration());
+    if (compact) {
+      TableOperations tableOps = connector.tableOperations();
+      for (String table : config.getTableNames()) {
+        if (!tableOps.exists(table)) {
+          continue;
+        }
+        tableOps.compact(table, null, null, true, false);
+      }
+    }
+  }
+
+  /**
+   * Drop and rebuild every key index, so that the indexes
+   * match the ingested values.
+   */
+  private void rebuildKeyIndexes() {
+    AccumuloGraph g = (AccumuloGraph) GraphFactory.open(noCreateOrClear().getConfiguration());
     for (String key : g.getIndexedKeys(Vertex.class)) {
       g.dropKeyIndex(key, Vertex.class);
       g.createKeyIndex(key, Vertex.class);
@@ -245,14 +409,40 @@ public final class AccumuloBulkIngester {
       g.createKeyIndex(key, Edge.class);
     }
     g.shutdown();
+  }
 
-    // TODO ... other house cleaning/verification?
+  /**
+   * Close the file writers and import their files into
+   * the tables, then remove the bulk load directory.
+   * 
+   * @throws AccumuloException
+   * @throws AccumuloSecurityException
+   * @throws TableNotFoundException
+   */
+  private void importFiles() throws AccumuloException,
+    AccumuloSecurityException, TableNotFoundException {
+    TableOperations tableOps = connector.tableOperations();
+    try {
+      for (Map.Entry<String, BatchWriter> entry : writers.entrySet()) {
+        SortedFileWriter writer = (SortedFileWriter) entry.getValue();
+        writer.close();
+        if (!writer.hasData()) {
+          continue;
+        }
 
-    if (compact) {
-      TableOperations tableOps = connector.tableOperations();
-      for (String table : copy.getTableNames()) {
-        tableOps.compact(table, null, null, true, false);
+        tableOps.importDirectory(entry.getKey(),
+            fs.makeQualified(writer.getFilesDirectory()).toString(),
+            fs.makeQualified(writer.getFailuresDirectory()).toString(), false);
+
+        FileStatus[] failures = fs.listStatus(writer.getFailuresDirectory());
+        if (failures != null && failures.length > 0) {
+          throw new AccumuloGraphException("Failed to import files into "
+              + entry.getKey() + "; see " + writer.getFailuresDirectory());
+        }
       }
+      fs.delete(new Path(config.getBulkLoadDirectory()), true);
+    } catch (IOException e) {
+      throw new AccumuloGraphException(e);
     }
   }
 
@@ -271,11 +461,13 @@ public final class AccumuloBulkIngester {
    */
   public static final class PropertyBuilder {
 
+    final AccumuloBulkIngester ingester;
+    final Class<? extends Element> type;
     final String id;
-    final BatchWriter writer;
 
-    PropertyBuilder(BatchWriter writer, String id) {
-      this.writer = writer;
+    PropertyBuilder(AccumuloBulkIngester ingester, Class<? extends Element> type, String id) {
+      this.ingester = ingester;
+      this.type = type;
       this.id = id;
     }
 
@@ -288,12 +480,10 @@ public final class AccumuloBulkIngester {
      * @return
      */
     public PropertyBuilder add(String key, Object value) {
-      for (Mutation m : new WritePropertyMutator(id, key, value).create()) {
-        try {
-          writer.addMutation(m);
-        } catch (MutationsRejectedException e) {
-          throw new AccumuloGraphException(e);
-        }
+      try {
+        ingester.addProperty(type, id, key, value);
+      } catch (MutationsRejectedException e) {
+        throw new AccumuloGraphException(e);
       }
       return this;
     }
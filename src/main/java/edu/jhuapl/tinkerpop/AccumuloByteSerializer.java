@@ -24,19 +24,48 @@ import java.util.Date;
 
 import javax.xml.namespace.QName;
 
+/**
+ * Serializes property values to and from byte arrays.
+ * The first byte of each serialized value is a tag identifying
+ * its type and encoding.
+ *
+ * <p/>Numbers, dates and booleans are written with fixed-width
+ * binary encodings (the SORTABLE_* tags) whose unsigned
+ * lexicographic byte order matches the values' natural order.
+ * This keeps keys small, and makes byte ranges over index rows
+ * correspond to value ranges. These types were previously
+ * written as their decimal text representation (the lowercase
+ * tags). Such values can still be read, but index entries written
+ * with the text encoding do not match lookups. Graphs whose index
+ * metadata does not record the current encoding have these entries
+ * rewritten when opened with the create option, and cannot be
+ * opened otherwise (see {@link AccumuloGraph}).
+ */
 public final class AccumuloByteSerializer {
 
   public static final int NULL = 'n';
 
+  // Text encodings, no longer written but still readable.
   public static final int BYTE = 'b';
   public static final int SHORT = 's';
-  public static final int CHARACTER = 'c';
   public static final int INTEGER = 'i';
   public static final int LONG = 'l';
   public static final int FLOAT = 'f';
   public static final int DOUBLE = 'd';
   public static final int BOOLEAN = 'o';
   public static final int DATE = 't';
+
+  // Order-preserving binary encodings.
+  public static final int SORTABLE_BYTE = 'B';
+  public static final int SORTABLE_SHORT = 'S';
+  public static final int SORTABLE_INTEGER = 'I';
+  public static final int SORTABLE_LONG = 'L';
+  public static final int SORTABLE_FLOAT = 'F';
+  public static final int SORTABLE_DOUBLE = 'D';
+  public static final int SORTABLE_BOOLEAN = 'O';
+  public static final int SORTABLE_DATE = 'T';
+
+  public static final int CHARACTER = 'c';
   public static final int ENUM = 'e';
   public static final int STRING = 'a';
   public static final int SERIALIZABLE = 'x';
@@ -86,6 +115,26 @@ public final class AccumuloByteSerializer {
       case DATE:
         long millis = Long.parseLong(new String(target, 1, target.length - 1));
         return (T) new Date(millis);
+      case SORTABLE_BYTE:
+        return (T) (Byte) (byte) (target[1] ^ 0x80);
+      case SORTABLE_SHORT:
+        return (T) (Short) (short) (readBits(target, 2) ^ 0x8000);
+      case SORTABLE_INTEGER:
+        return (T) (Integer) (int) (readBits(target, 4) ^ 0x80000000L);
+      case SORTABLE_LONG:
+        return (T) (Long) (readBits(target, 8) ^ Long.MIN_VALUE);
+      case SORTABLE_FLOAT:
+        int floatBits = (int) readBits(target, 4);
+        floatBits = floatBits < 0 ? floatBits ^ 0x80000000 : ~floatBits;
+        return (T) (Float) Float.intBitsToFloat(floatBits);
+      case SORTABLE_DOUBLE:
+        long doubleBits = readBits(target, 8);
+        doubleBits = doubleBits < 0 ? doubleBits ^ Long.MIN_VALUE : ~doubleBits;
+        return (T) (Double) Double.longBitsToDouble(doubleBits);
+      case SORTABLE_BOOLEAN:
+        return (T) Boolean.valueOf(target[1] != 0);
+      case SORTABLE_DATE:
+        return (T) new Date(readBits(target, 8) ^ Long.MIN_VALUE);
       case STRING:
         return (T) new String(target, 1, target.length - 1);
       case QNAME:
@@ -130,38 +179,44 @@ public final class AccumuloByteSerializer {
       String cls = o.getClass().getSimpleName();
       switch (cls) {
         case "Byte":
-          type = BYTE;
-          break;
+          bout.write(SORTABLE_BYTE);
+          bout.write(((Byte) o) ^ 0x80);
+          return bout.toByteArray();
         case "Short":
-          type = SHORT;
-          break;
+          bout.write(SORTABLE_SHORT);
+          writeBits(bout, ((Short) o) ^ 0x8000, 2);
+          return bout.toByteArray();
         case "Character":
           type = CHARACTER;
           break;
         case "Integer":
-          type = INTEGER;
-          break;
+          bout.write(SORTABLE_INTEGER);
+          writeBits(bout, ((Integer) o) ^ 0x80000000, 4);
+          return bout.toByteArray();
         case "Long":
-          type = LONG;
-          break;
+          bout.write(SORTABLE_LONG);
+          writeBits(bout, ((Long) o) ^ Long.MIN_VALUE, 8);
+          return bout.toByteArray();
         case "Float":
-          type = FLOAT;
-          break;
+          // Flip all bits of negative numbers so that larger
+          // magnitudes sort first, and only the sign bit of others.
+          int floatBits = Float.floatToIntBits((Float) o);
+          bout.write(SORTABLE_FLOAT);
+          writeBits(bout, floatBits < 0 ? ~floatBits : floatBits ^ 0x80000000, 4);
+          return bout.toByteArray();
         case "Double":
-          type = DOUBLE;
-          break;
+          long doubleBits = Double.doubleToLongBits((Double) o);
+          bout.write(SORTABLE_DOUBLE);
+          writeBits(bout, doubleBits < 0 ? ~doubleBits : doubleBits ^ Long.MIN_VALUE, 8);
+          return bout.toByteArray();
         case "Boolean":
-          type = BOOLEAN;
-          if ((Boolean) o) {
-            val = "t";
-          } else {
-            val = "f";
-          }
-          break;
+          bout.write(SORTABLE_BOOLEAN);
+          bout.write((Boolean) o ? 1 : 0);
+          return bout.toByteArray();
         case "Date":
-          val = Long.toString(((Date) o).getTime());
-          type = DATE;
-          break;
+          bout.write(SORTABLE_DATE);
+          writeBits(bout, ((Date) o).getTime() ^ Long.MIN_VALUE, 8);
+          return bout.toByteArray();
         case "String":
           type = STRING;
           break;
@@ -192,4 +247,31 @@ public final class AccumuloByteSerializer {
       bout.reset();
     }
   }
+
+  /**
+   * Write the low-order bytes of the given bits, big-endian.
+   * @param bout
+   * @param bits
+   * @param bytes
+   */
+  private static void writeBits(ByteArrayOutputStream bout, long bits, int bytes) {
+    for (int i = bytes - 1; i >= 0; i--) {
+      bout.write((int) (bits >>> (8 * i)));
+    }
+  }
+
+  /**
+   * Read the given number of big-endian bytes following
+   * the type tag, without sign extension.
+   * @param target
+   * @param bytes
+   * @return
+   */
+  private static long readBits(byte[] target, int bytes) {
+    long bits = 0;
+    for (int i = 1; i <= bytes; i++) {
+      bits = (bits << 8) | (target[i] & 0xFF);
+    }
+    return bits;
+  }
 }
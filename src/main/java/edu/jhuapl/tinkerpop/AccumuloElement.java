@@ -14,6 +14,7 @@
  */
 package edu.jhuapl.tinkerpop;
 
+import java.util.Map;
 import java.util.Set;
 
 import com.tinkerpop.blueprints.Element;
@@ -66,7 +67,8 @@ public abstract class AccumuloElement implements Element {
     T value = propertyCache.get(key);
 
     // If not cached, get it from the backing table.
-    if (value == null) {
+    // A null value is cached for properties known to be absent.
+    if (value == null && !propertyCache.containsKey(key)) {
       value = globals.getElementWrapper(type).readProperty(this, key);
     }
 
@@ -105,6 +107,27 @@ public abstract class AccumuloElement implements Element {
     propertyCache.put(key, value);
   }
 
+  /**
+   * Store the given properties, read from the backing
+   * store, in memory. Keys with no value in the given map
+   * are recorded as absent, so that reading them does not
+   * require a round-trip to Accumulo. The usual property
+   * cache timeouts apply, and nothing is kept for keys
+   * without a timeout.
+   * @param keys
+   * @param props
+   */
+  public void loadPropertiesInMemory(Iterable<String> keys, Map<String, Object> props) {
+    // Don't use makeCache, since there's no need to
+    // read the preloaded properties separately.
+    if (propertyCache == null) {
+      propertyCache = new PropertyCache(globals.getConfig());
+    }
+    for (String key : keys) {
+      propertyCache.load(key, props != null ? props.get(key) : null);
+    }
+  }
+
   @Override
   public <T> T removeProperty(String key) {
     if (StringFactory.LABEL.equals(key) ||
@@ -132,7 +155,9 @@ public abstract class AccumuloElement implements Element {
    */
   protected void removeElementFromNamedIndexes() {
     for (Index<? extends Element> index : globals.getIndexMetadataWrapper().getIndices()) {
-      ((AccumuloIndex<? extends Element>) index).getWrapper().removeElementFromIndex(this);
+      if (index.getIndexClass().equals(type)) {
+        ((AccumuloIndex<? extends Element>) index).getWrapper().removeElementFromIndex(this);
+      }
     }
   }
 
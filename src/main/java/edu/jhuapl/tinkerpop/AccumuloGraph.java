@@ -14,7 +14,11 @@
  */
 package edu.jhuapl.tinkerpop;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -28,6 +32,7 @@ import org.apache.accumulo.core.data.Range;
 import org.apache.commons.configuration.Configuration;
 import org.apache.hadoop.io.Text;
 
+import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Element;
 import com.tinkerpop.blueprints.Features;
@@ -39,10 +44,11 @@ import com.tinkerpop.blueprints.IndexableGraph;
 import com.tinkerpop.blueprints.KeyIndexableGraph;
 import com.tinkerpop.blueprints.Parameter;
 import com.tinkerpop.blueprints.Vertex;
-import com.tinkerpop.blueprints.util.DefaultGraphQuery;
 import com.tinkerpop.blueprints.util.ExceptionFactory;
 
 import edu.jhuapl.tinkerpop.cache.ElementCaches;
+import edu.jhuapl.tinkerpop.tables.core.VertexRemover;
+import edu.jhuapl.tinkerpop.tables.index.BaseKeyIndexTableWrapper.RebuildListener;
 
 /**
  * This is an implementation of the TinkerPop Blueprints 2.6 API using
@@ -61,6 +67,18 @@ import edu.jhuapl.tinkerpop.cache.ElementCaches;
  */
 public class AccumuloGraph implements Graph, KeyIndexableGraph, IndexableGraph {
 
+  /**
+   * Maximum number of elements whose properties are
+   * read in a single batch by {@link #loadProperties}.
+   */
+  private static final int PROPERTY_LOAD_BATCH_SIZE = 10000;
+
+  /**
+   * Maximum number of vertices removed in a single
+   * batch by {@link #removeVertices}.
+   */
+  private static final int REMOVAL_BATCH_SIZE = 10000;
+
   private final GlobalInstances globals;
 
   /**
@@ -95,6 +113,31 @@ public class AccumuloGraph implements Graph, KeyIndexableGraph, IndexableGraph {
     } catch (Exception e) {
       throw new AccumuloGraphException(e);
     }
+
+    if (globals.getIndexMetadataWrapper().hasTextEncodedIndexes()) {
+      if (!config.getCreate()) {
+        throw new AccumuloGraphException("Indexes of graph "+config.getGraphName()+
+            " may contain values in an old encoding, which do not match queries."+
+            " Open the graph with the create option to migrate them.");
+      }
+      migrateIndexValues();
+    }
+  }
+
+  /**
+   * Rewrite index entries written with the text value
+   * encoding, in the key indexes and every named index,
+   * then record that the indexes use the current encoding.
+   */
+  private void migrateIndexValues() {
+    globals.getVertexKeyIndexWrapper().migrateTextEncodedValues();
+    globals.getEdgeKeyIndexWrapper().migrateTextEncodedValues();
+    for (Index<? extends Element> index :
+      globals.getIndexMetadataWrapper().getIndices()) {
+      ((AccumuloIndex<? extends Element>) index).getWrapper()
+        .migrateTextEncodedValues();
+    }
+    globals.getIndexMetadataWrapper().writeValueFormat();
   }
 
   /**
@@ -197,6 +240,31 @@ public class AccumuloGraph implements Graph, KeyIndexableGraph, IndexableGraph {
     vertex.remove();
   }
 
+  /**
+   * Remove the given vertices, along with their incident
+   * edges and index entries. Vertices are removed in batches,
+   * each read with a single batch scan and deleted with
+   * grouped mutations and multi-range deletes, rather than
+   * with several round-trips per vertex and edge.
+   * Unlike {@link #removeVertex(Vertex)}, vertices which
+   * do not exist are skipped.
+   * @param vertices
+   */
+  public void removeVertices(Iterable<? extends Vertex> vertices) {
+    VertexRemover remover = new VertexRemover(globals);
+
+    List<String> batch = new ArrayList<String>();
+    for (Vertex vertex : vertices) {
+      batch.add(vertex.getId().toString());
+      if (batch.size() >= REMOVAL_BATCH_SIZE) {
+        remover.remove(batch);
+        batch.clear();
+      }
+    }
+    remover.remove(batch);
+    globals.checkedFlush();
+  }
+
   @Override
   public Iterable<Vertex> getVertices() {
     return globals.getVertexWrapper().getVertices();
@@ -217,16 +285,81 @@ public class AccumuloGraph implements Graph, KeyIndexableGraph, IndexableGraph {
     return globals.getVertexWrapper().getVerticesInRange(fromId, toId);
   }
 
+  /**
+   * Retrieve all vertices, scanning the table's tablets
+   * in parallel. Faster than {@link #getVertices()} on
+   * large graphs, but vertices are returned in no
+   * particular order.
+   * @return
+   */
+  public Iterable<Vertex> getVerticesUnordered() {
+    return globals.getVertexWrapper().getVerticesUnordered();
+  }
+
   @Override
   public Iterable<Vertex> getVertices(String key, Object value) {
     AccumuloGraphUtils.validateProperty(key, value);
-    if (globals.getConfig().getAutoIndex() || getIndexedKeys(Vertex.class).contains(key)) {
+    if (globals.getConfig().getAutoIndex() ||
+        globals.getIndexMetadataWrapper().isIndexedKey(Vertex.class, key)) {
       return globals.getVertexKeyIndexWrapper().getVertices(key, value);
     } else {
       return globals.getVertexWrapper().getVertices(key, value);
     }
   }
 
+  /**
+   * Retrieve the vertices with the given ids, as with
+   * {@link #getVertex(Object)}, but using a single batch scan
+   * for all ids not already cached.
+   * Vertices are returned in the order of the given ids.
+   * Ids of vertices which do not exist are skipped.
+   * @param ids
+   * @return
+   */
+  public Iterable<Vertex> getVertices(Collection<?> ids) {
+    List<String> idStrs = new ArrayList<String>(ids.size());
+    for (Object id : ids) {
+      if (id == null) {
+        throw ExceptionFactory.vertexIdCanNotBeNull();
+      }
+      idStrs.add(id.toString());
+    }
+
+    Map<String, Vertex> vertices = new HashMap<String, Vertex>();
+    List<String> toRead = new ArrayList<String>();
+    for (String id : idStrs) {
+      Vertex vertex = globals.getCaches().retrieve(id, Vertex.class);
+      if (vertex != null) {
+        vertices.put(id, vertex);
+      } else {
+        toRead.add(id);
+      }
+    }
+
+    if (globals.getConfig().getSkipExistenceChecks()) {
+      for (String id : toRead) {
+        vertices.put(id, new AccumuloVertex(globals, id));
+      }
+    } else {
+      // As with getVertex, load any preloaded properties.
+      String[] preload = globals.getConfig().getPreloadedProperties();
+      if (preload == null && !globals.getConfig().getPreloadAllProperties()) {
+        preload = new String[]{};
+      }
+      vertices.putAll(globals.getVertexWrapper().readVertices(toRead, preload));
+    }
+
+    List<Vertex> result = new ArrayList<Vertex>(idStrs.size());
+    for (String id : idStrs) {
+      Vertex vertex = vertices.get(id);
+      if (vertex != null) {
+        globals.getCaches().cache(vertex, Vertex.class);
+        result.add(vertex);
+      }
+    }
+    return result;
+  }
+
   @Override
   public Edge addEdge(Object id, Vertex outVertex, Vertex inVertex, String label) {
     return ((AccumuloVertex) outVertex).addEdge(id, label, inVertex);
@@ -283,6 +416,17 @@ public class AccumuloGraph implements Graph, KeyIndexableGraph, IndexableGraph {
     return globals.getEdgeWrapper().getEdges();
   }
 
+  /**
+   * Retrieve all edges, scanning the table's tablets
+   * in parallel. Faster than {@link #getEdges()} on
+   * large graphs, but edges are returned in no
+   * particular order.
+   * @return
+   */
+  public Iterable<Edge> getEdgesUnordered() {
+    return globals.getEdgeWrapper().getEdgesUnordered();
+  }
+
   @Override
   public Iterable<Edge> getEdges(String key, Object value) {
     AccumuloGraphUtils.nullCheckProperty(key, value);
@@ -290,25 +434,175 @@ public class AccumuloGraph implements Graph, KeyIndexableGraph, IndexableGraph {
       key = Constants.LABEL;
     }
 
-    if (globals.getConfig().getAutoIndex() || getIndexedKeys(Edge.class).contains(key)) {
+    if (globals.getConfig().getAutoIndex() ||
+        globals.getIndexMetadataWrapper().isIndexedKey(Edge.class, key)) {
       return globals.getEdgeKeyIndexWrapper().getEdges(key, value);
     } else {
       return globals.getEdgeWrapper().getEdges(key, value);
     }
   }
 
-  // TODO Eventually
+  /**
+   * Retrieve the edges with the given ids, as with
+   * {@link #getEdge(Object)}, but using a single batch scan
+   * for all ids not already cached.
+   * Edges are returned in the order of the given ids.
+   * Ids of edges which do not exist are skipped.
+   * @param ids
+   * @return
+   */
+  public Iterable<Edge> getEdges(Collection<?> ids) {
+    List<String> idStrs = new ArrayList<String>(ids.size());
+    for (Object id : ids) {
+      if (id == null) {
+        throw ExceptionFactory.edgeIdCanNotBeNull();
+      }
+      idStrs.add(id.toString());
+    }
+
+    Map<String, Edge> edges = new HashMap<String, Edge>();
+    List<String> toRead = new ArrayList<String>();
+    for (String id : idStrs) {
+      Edge edge = globals.getCaches().retrieve(id, Edge.class);
+      if (edge != null) {
+        edges.put(id, edge);
+      } else {
+        toRead.add(id);
+      }
+    }
+
+    if (globals.getConfig().getSkipExistenceChecks()) {
+      for (String id : toRead) {
+        edges.put(id, new AccumuloEdge(globals, id));
+      }
+    } else {
+      // As with getEdge, load any preloaded properties.
+      String[] preload = globals.getConfig().getPreloadedProperties();
+      if (preload == null) {
+        preload = new String[]{};
+      }
+      edges.putAll(globals.getEdgeWrapper().readEdges(toRead, preload));
+    }
+
+    List<Edge> result = new ArrayList<Edge>(idStrs.size());
+    for (String id : idStrs) {
+      Edge edge = edges.get(id);
+      if (edge != null) {
+        globals.getCaches().cache(edge, Edge.class);
+        result.add(edge);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Count the vertices in the graph. Counting is
+   * done on the tablet servers, so no vertices
+   * are transferred to the client.
+   * @return
+   */
+  public long countVertices() {
+    return globals.getVertexWrapper().countVertices();
+  }
+
+  /**
+   * Count the edges in the graph with one of the given
+   * labels, or all edges if no labels are given.
+   * Counting is done on the tablet servers, so no edges
+   * are transferred to the client.
+   * @param labels
+   * @return
+   */
+  public long countEdges(String... labels) {
+    return globals.getEdgeWrapper().countEdges(labels);
+  }
+
+  /**
+   * Recompute every vertex's degree counters (see
+   * {@link AccumuloVertex#getDegree(Direction, String...)})
+   * from its edges. Graphs created before counters were
+   * maintained are backfilled when opened with the create
+   * option; until then, degrees are computed by counting
+   * edges. Use this to repair counters after edges were
+   * written by clients that don't maintain them.
+   */
+  public void rebuildDegrees() {
+    try {
+      globals.getMtbw().flush();
+      AccumuloGraphUtils.rebuildDegreeCounters(globals.getConfig());
+    } catch (Exception e) {
+      throw new AccumuloGraphException(e);
+    }
+    globals.getVertexWrapper().invalidateDegreeCounters();
+  }
+
+  /**
+   * Return the vertices within the given number of hops
+   * of the given seed vertices, following edges in the given
+   * direction with one of the given labels (or any label,
+   * if none are given). Each hop is read with a single
+   * batch scan over the whole frontier, rather than a scan
+   * per vertex. Vertices are returned once each, in order of
+   * distance from the seeds; the seeds themselves are not returned.
+   * @param seeds
+   * @param direction
+   * @param hops
+   * @param labels
+   * @return
+   */
+  public Iterable<Vertex> expand(Collection<? extends Vertex> seeds,
+      Direction direction, int hops, String... labels) {
+    List<String> seedIds = new ArrayList<String>(seeds.size());
+    for (Vertex seed : seeds) {
+      seedIds.add(seed.getId().toString());
+    }
+    return new NeighborhoodIterable(globals, seedIds, direction, hops, labels);
+  }
+
+  /**
+   * Read the given properties for all the given elements,
+   * using a batch scan rather than a round-trip per element,
+   * and store them in memory in each element. Subsequent calls
+   * to {@link Element#getProperty(String)} for these keys on
+   * these element instances, including for keys the element
+   * doesn't have, are answered from memory until their
+   * property cache timeout expires. Keys without a
+   * timeout are not kept in memory.
+   * If no keys are given, read all properties.
+   * @param elements
+   * @param keys
+   */
+  public void loadProperties(Iterable<? extends Element> elements, String... keys) {
+    String[] propertyKeys = keys.length > 0 ? keys : null;
+
+    List<Element> vertices = new ArrayList<Element>();
+    List<Element> edges = new ArrayList<Element>();
+    for (Element element : elements) {
+      Class<? extends Element> type = element instanceof Vertex ?
+          Vertex.class : Edge.class;
+      List<Element> batch = element instanceof Vertex ? vertices : edges;
+      batch.add(element);
+
+      if (batch.size() >= PROPERTY_LOAD_BATCH_SIZE) {
+        globals.getElementWrapper(type).loadProperties(batch, propertyKeys);
+        batch.clear();
+      }
+    }
+
+    globals.getVertexWrapper().loadProperties(vertices, propertyKeys);
+    globals.getEdgeWrapper().loadProperties(edges, propertyKeys);
+  }
+
   @Override
   public GraphQuery query() {
-    return new DefaultGraphQuery(this);
+    return new AccumuloGraphQuery(this);
   }
 
   @Override
   public void shutdown() {
     try {
       globals.getMtbw().close();
-      globals.getVertexWrapper().close();
-      globals.getEdgeWrapper().close();
+      globals.close();
     } catch (MutationsRejectedException e) {
       throw new AccumuloGraphException(e);
     }
@@ -377,6 +671,10 @@ public class AccumuloGraph implements Graph, KeyIndexableGraph, IndexableGraph {
           throw new AccumuloGraphException(e);
         }
 
+        if (((AccumuloIndex<? extends Element>) index).isReverseIndexed()) {
+          globals.getReverseIndexWrapper().clearIndex(indexName);
+        }
+
         return;
       }
     }
@@ -427,12 +725,44 @@ public class AccumuloGraph implements Graph, KeyIndexableGraph, IndexableGraph {
     globals.getIndexMetadataWrapper().writeKeyMetadataEntry(key, elementClass);
     globals.checkedFlush();
 
+    for (Parameter param : indexParameters) {
+      if (Constants.REBUILD_INDEX.equals(param.getKey()) &&
+          Boolean.FALSE.equals(param.getValue())) {
+        return;
+      }
+    }
+
     // Reindex graph.
     globals.getKeyIndexTableWrapper(elementClass).rebuildIndex(key, elementClass);
-    globals.getVertexKeyIndexWrapper().dump();
     globals.checkedFlush();
   }
 
+  /**
+   * Rebuild the key index for an already indexed key, over
+   * elements in the given row ranges, or all elements if null.
+   * The ranges are split along tablet boundaries, and each piece
+   * is reported to the listener once its entries are written, so
+   * an interrupted rebuild can be resumed over the remaining ranges.
+   * <p/>Existing index entries are not removed.
+   * @param key
+   * @param elementClass
+   * @param ranges
+   * @param listener may be null
+   */
+  public <T extends Element> void rebuildKeyIndex(String key,
+      Class<T> elementClass, Collection<Range> ranges,
+      RebuildListener listener) {
+    if (elementClass == null) {
+      throw ExceptionFactory.classForElementCannotBeNull();
+    }
+    if (!getIndexedKeys(elementClass).contains(key)) {
+      throw new IllegalArgumentException("Key is not indexed: " + key);
+    }
+
+    globals.getKeyIndexTableWrapper(elementClass).rebuildIndex(key,
+        elementClass, ranges, listener);
+  }
+
   @Override
   public <T extends Element> Set<String> getIndexedKeys(Class<T> elementClass) {
     return globals.getIndexMetadataWrapper().getIndexedKeys(elementClass);
@@ -463,16 +793,23 @@ public class AccumuloGraph implements Graph, KeyIndexableGraph, IndexableGraph {
           }
         }
       }
+
+      AccumuloGraphUtils.attachDegreeCombiner(tableOps,
+          globals.getConfig().getVertexTableName());
+      globals.getVertexWrapper().invalidateDegreeCounters();
     } catch (Exception e) {
       throw new AccumuloGraphException(e);
     }
+
+    globals.getIndexMetadataWrapper().invalidateCache();
   }
 
   public boolean isEmpty() {
     try {
       TableOperations tableOps = globals.getConfig().getConnector().tableOperations();
       for (String table : globals.getConfig().getTableNames()) {
-        if (tableOps.getMaxRow(table, globals.getConfig().getAuthorizations(),
+        // Older graphs may lack some tables.
+        if (tableOps.exists(table) && tableOps.getMaxRow(table, globals.getConfig().getAuthorizations(),
             null, true, null, true) != null) {
           return false;
         }
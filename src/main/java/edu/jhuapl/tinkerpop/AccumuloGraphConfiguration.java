@@ -122,7 +122,10 @@ implements Serializable, Cloneable {
     public static final String MAX_WRITE_MEMORY = "blueprints.accumulo.write.max.memory";
     public static final String MAX_WRITE_THREADS = "blueprints.accumulo.write.max.threads";
     public static final String MAX_WRITE_TIMEOUT = "blueprints.accumulo.write.timeout";
+    public static final String BULK_LOAD_DIRECTORY = "blueprints.accumulo.bulk.directory";
+    public static final String BULK_REBUILD_KEY_INDEXES = "blueprints.accumulo.bulk.rebuildKeyIndexes";
     public static final String QUERY_THREADS = "blueprints.accumulo.read.queryThreads";
+    public static final String WHOLE_ROW_SCANS = "blueprints.accumulo.read.wholeRow";
     public static final String AUTHORIZATIONS = "blueprints.accumulo.authorizations";
     public static final String AUTO_FLUSH = "blueprints.accumulo.auto.flush";
     public static final String CREATE = "blueprints.accumulo.create";
@@ -140,6 +143,8 @@ implements Serializable, Cloneable {
     public static final String PRELOAD_EDGES = "blueprints.accumulo.edge.preload";
     public static final String AUTO_INDEX = "blueprints.accumulo.index.auto";
     public static final String DISABLE_INDEX = "blueprints.accumulo.index.disable";
+    public static final String INDEX_METADATA_CACHE_TIMEOUT = "blueprints.accumulo.index.metadataCacheTimeout";
+    public static final String INDEX_REBUILD_BATCH_SIZE = "blueprints.accumulo.index.rebuildBatchSize";
   }
 
 
@@ -184,12 +189,16 @@ implements Serializable, Cloneable {
     setMaxWriteThreads(3);
     setMaxWriteTimeout(Long.MAX_VALUE);
     setQueryThreads(3);
+    setWholeRowScans(false);
     setAutoFlush(true);
     setCreate(false);
     setInstanceType(InstanceType.Distributed);
     setAuthorizations(Constants.NO_AUTHS);
     setSkipExistenceChecks(false);
     setPreloadAllProperties(false);
+    setIndexMetadataCacheTimeout(1000);
+    setIndexRebuildBatchSize(64);
+    setBulkRebuildKeyIndexes(false);
   }
 
   /**
@@ -634,6 +643,26 @@ implements Serializable, Cloneable {
     return this;
   }
 
+  public boolean getWholeRowScans() {
+    return conf.getBoolean(Keys.WHOLE_ROW_SCANS);
+  }
+
+  /**
+   * If true, full scans of the vertex and edge tables
+   * group each element's entries on the tablet servers,
+   * so each element is sent as a single key/value pair.
+   * This reduces transfer and client overhead for bulk
+   * reads, but each row must fit in tablet server memory.
+   * <p/>
+   * The default is false.
+   * @param wholeRow
+   * @return
+   */
+  public AccumuloGraphConfiguration setWholeRowScans(boolean wholeRow) {
+    conf.setProperty(Keys.WHOLE_ROW_SCANS, wholeRow);
+    return this;
+  }
+
   public ColumnVisibility getColumnVisibility() {
     return new ColumnVisibility(conf.getString(Keys.COLVIS).getBytes());
   }
@@ -685,6 +714,50 @@ implements Serializable, Cloneable {
     return this;
   }
 
+  public int getIndexMetadataCacheTimeout() {
+    return conf.getInt(Keys.INDEX_METADATA_CACHE_TIMEOUT);
+  }
+
+  /**
+   * Sets the number of milliseconds that cached index metadata
+   * (indexed keys and named indexes) is trusted before checking
+   * whether another client has changed it. Changes made through
+   * this graph are always visible immediately. If set to 0,
+   * the check is made on every access.
+   * <p/>
+   * The default is 1000 milliseconds.
+   * @param millis
+   * @return
+   */
+  public AccumuloGraphConfiguration setIndexMetadataCacheTimeout(int millis) {
+    if (millis < 0) {
+      throw new IllegalArgumentException("Timeout value cannot be negative.");
+    }
+    conf.setProperty(Keys.INDEX_METADATA_CACHE_TIMEOUT, millis);
+    return this;
+  }
+
+  public int getIndexRebuildBatchSize() {
+    return conf.getInt(Keys.INDEX_REBUILD_BATCH_SIZE);
+  }
+
+  /**
+   * Sets the number of tablets scanned together when rebuilding
+   * a key index. Index entries are flushed, and progress reported,
+   * after each batch.
+   * <p/>
+   * The default is 64 tablets.
+   * @param tablets
+   * @return
+   */
+  public AccumuloGraphConfiguration setIndexRebuildBatchSize(int tablets) {
+    if (tablets <= 0) {
+      throw new IllegalArgumentException("Batch size must be positive.");
+    }
+    conf.setProperty(Keys.INDEX_REBUILD_BATCH_SIZE, tablets);
+    return this;
+  }
+
   public SortedSet<Text> getSplits() {
     String[] val = conf.getStringArray(Keys.SPLITS);
     if ((val == null) || (val.length == 0)) {
@@ -923,6 +996,46 @@ implements Serializable, Cloneable {
     return this;
   }
 
+  public String getBulkLoadDirectory() {
+    return conf.getString(Keys.BULK_LOAD_DIRECTORY);
+  }
+
+  /**
+   * Directory in which {@link AccumuloBulkIngester} writes sorted
+   * files for bulk import, instead of writing to the tables
+   * directly. May be local or on HDFS, but must be visible to the
+   * tablet servers, and must be empty or absent. Up to
+   * {@link #getMaxWriteMemory()} bytes per table are sorted
+   * in memory before spilling to disk.
+   * Default is null, which writes to the tables directly.
+   * @param directory
+   * @return
+   */
+  public AccumuloGraphConfiguration setBulkLoadDirectory(String directory) {
+    conf.setProperty(Keys.BULK_LOAD_DIRECTORY, directory);
+    return this;
+  }
+
+  public boolean getBulkRebuildKeyIndexes() {
+    return conf.getBoolean(Keys.BULK_REBUILD_KEY_INDEXES);
+  }
+
+  /**
+   * If true, {@link AccumuloBulkIngester} writes no key index
+   * entries during ingest, and instead drops and rebuilds every
+   * key index on {@link AccumuloBulkIngester#shutdown(boolean)}.
+   * This is slower, but removes entries for overwritten values
+   * and covers keys indexed after the ingester was created.
+   * <p/>
+   * The default is false.
+   * @param rebuild
+   * @return
+   */
+  public AccumuloGraphConfiguration setBulkRebuildKeyIndexes(boolean rebuild) {
+    conf.setProperty(Keys.BULK_REBUILD_KEY_INDEXES, rebuild);
+    return this;
+  }
+
   /**
    * Create a {@link Connector} from this configuration.
    * <p/>Note: Once this is called, the configuration may not be modified.
@@ -1069,10 +1182,20 @@ implements Serializable, Cloneable {
     return getGraphName() + "_index_metadata";
   }
 
+  /**
+   * Table recording, for each element, the entries
+   * which reference it in named indexes (keyed by
+   * element id).
+   * @return
+   */
+  public String getReverseIndexTableName() {
+    return getGraphName() + "_reverse_index";
+  }
+
   List<String> getTableNames() {
     return Arrays.asList(getVertexTableName(),
         getEdgeTableName(), getVertexKeyIndexTableName(), getEdgeKeyIndexTableName(),
-        getIndexMetadataTableName());
+        getIndexMetadataTableName(), getReverseIndexTableName());
   }
 
   /**
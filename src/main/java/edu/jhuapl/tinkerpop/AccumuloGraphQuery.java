@@ -0,0 +1,367 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import com.tinkerpop.blueprints.Compare;
+import com.tinkerpop.blueprints.Contains;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Element;
+import com.tinkerpop.blueprints.GraphQuery;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.util.DefaultGraphQuery;
+import com.tinkerpop.blueprints.util.StringFactory;
+
+import edu.jhuapl.tinkerpop.iterators.PropertyPredicateFilter;
+import edu.jhuapl.tinkerpop.iterators.PropertyValueFilter;
+
+/**
+ * {@link GraphQuery} implementation which pushes work
+ * to Accumulo rather than filtering every element on the
+ * client as {@link DefaultGraphQuery} does.
+ * One of the query's constraints is chosen to drive the lookup:
+ * <ol>
+ * <li>an equality constraint on an indexed key
+ * is answered from the key index table;</li>
+ * <li>otherwise, range, interval and set membership constraints
+ * on an indexed key are answered by contiguous scans of
+ * the key index table;</li>
+ * <li>otherwise, a lone comparison is evaluated by a filter
+ * on the tablet servers over that key's column in the element table;</li>
+ * <li>otherwise, all comparisons on property values are evaluated
+ * together on the tablet servers over each element's row,
+ * and matching rows are returned whole;</li>
+ * <li>otherwise, the element table is scanned.</li>
+ * </ol>
+ * Any remaining constraints are evaluated on the client
+ * against the returned elements. Iteration stops once the
+ * limit is reached.
+ */
+public class AccumuloGraphQuery extends DefaultGraphQuery {
+
+  private final GlobalInstances globals;
+
+  public AccumuloGraphQuery(AccumuloGraph graph) {
+    super(graph);
+    this.globals = graph.getGlobals();
+  }
+
+  @Override
+  public Iterable<Vertex> vertices() {
+    return query(Vertex.class);
+  }
+
+  @Override
+  public Iterable<Edge> edges() {
+    return query(Edge.class);
+  }
+
+  private <T extends Element> Iterable<T> query(Class<T> elementClass) {
+    if (limit == 0) {
+      return Collections.emptyList();
+    }
+
+    final List<HasContainer> remaining = new ArrayList<HasContainer>(hasContainers);
+    Iterable<T> candidates = lookup(elementClass, remaining);
+
+    if (remaining.isEmpty() && limit == Integer.MAX_VALUE) {
+      return candidates;
+    }
+
+    return new FilteringIterable<T>(candidates, limit) {
+      @Override
+      protected boolean accept(T element) {
+        for (HasContainer has : remaining) {
+          if (!has.isLegal(element)) {
+            return false;
+          }
+        }
+        return true;
+      }
+    };
+  }
+
+  /**
+   * Choose the constraint which drives the lookup, and return
+   * the elements it matches. The chosen constraint is removed
+   * from the given list.
+   * @param elementClass
+   * @param remaining
+   * @return
+   */
+  @SuppressWarnings("unchecked")
+  private <T extends Element> Iterable<T> lookup(Class<T> elementClass,
+      List<HasContainer> remaining) {
+    // Equality on an indexed key.
+    for (Iterator<HasContainer> iter = remaining.iterator(); iter.hasNext(); ) {
+      HasContainer has = iter.next();
+      if (isEquality(has) && !isReserved(has.key) && isIndexed(has.key, elementClass)) {
+        iter.remove();
+        if (Vertex.class.equals(elementClass)) {
+          return (Iterable<T>) globals.getVertexKeyIndexWrapper().getVertices(has.key, has.value);
+        } else {
+          return (Iterable<T>) globals.getEdgeKeyIndexWrapper().getEdges(has.key, has.value);
+        }
+      }
+    }
+
+    // Ranges and sets of values on an indexed key.
+    for (HasContainer has : remaining) {
+      if (!isReserved(has.key) && isIndexed(has.key, elementClass)) {
+        IndexQuery query = toIndexQuery(has.key, remaining);
+        if (query != null) {
+          if (Vertex.class.equals(elementClass)) {
+            return (Iterable<T>) globals.getVertexKeyIndexWrapper().getVertices(has.key, query);
+          } else {
+            return (Iterable<T>) globals.getEdgeKeyIndexWrapper().getEdges(has.key, query);
+          }
+        }
+      }
+    }
+
+    // A single comparison on any other key is evaluated over
+    // that key's column only, preferring equality.
+    if (remaining.size() == 1) {
+      HasContainer has = remaining.get(0);
+      if (canFilter(has, elementClass)) {
+        remaining.clear();
+        PropertyValueFilter.Op op = toOp(has);
+        Object[] operands = toOperands(has);
+        if (Vertex.class.equals(elementClass)) {
+          return (Iterable<T>) globals.getVertexWrapper().getVerticesMatching(has.key, op, operands);
+        } else {
+          return (Iterable<T>) globals.getEdgeWrapper().getEdgesMatching(has.key, op, operands);
+        }
+      }
+    }
+
+    // Otherwise, all comparisons which can be evaluated over
+    // the element's row are evaluated together, and matching
+    // rows are returned whole.
+    List<PropertyPredicateFilter.Predicate> predicates =
+        new ArrayList<PropertyPredicateFilter.Predicate>();
+    for (Iterator<HasContainer> iter = remaining.iterator(); iter.hasNext(); ) {
+      HasContainer has = iter.next();
+      if (canFilterRow(has, elementClass)) {
+        iter.remove();
+        predicates.add(new PropertyPredicateFilter.Predicate(has.key,
+            toOp(has), toOperands(has)));
+      }
+    }
+    if (!predicates.isEmpty()) {
+      if (Vertex.class.equals(elementClass)) {
+        return (Iterable<T>) globals.getVertexWrapper().getVerticesMatching(predicates);
+      } else {
+        return (Iterable<T>) globals.getEdgeWrapper().getEdgesMatching(predicates);
+      }
+    }
+
+    // Nothing to push down.
+    if (Vertex.class.equals(elementClass)) {
+      return (Iterable<T>) globals.getVertexWrapper().getVertices();
+    } else {
+      return (Iterable<T>) globals.getEdgeWrapper().getEdges();
+    }
+  }
+
+  /**
+   * Build an index query from the constraints on the given key,
+   * removing the constraints used. The first lower and upper
+   * bounds on the key are combined into a single range, as
+   * produced by {@link #interval(String, Comparable, Comparable)}.
+   * Return null if the constraints can't be answered by the index.
+   * @param key
+   * @param remaining
+   * @return
+   */
+  private static IndexQuery toIndexQuery(String key, List<HasContainer> remaining) {
+    HasContainer lower = null;
+    HasContainer upper = null;
+
+    for (HasContainer has : remaining) {
+      if (!key.equals(has.key)) {
+        continue;
+      }
+
+      if (Contains.IN.equals(has.predicate) && canFilter(has, Element.class)) {
+        remaining.remove(has);
+        return IndexQuery.in((Collection<?>) has.value);
+      }
+
+      if (!IndexQuery.isOrdered(has.value)) {
+        continue;
+      }
+      if (lower == null && (Compare.GREATER_THAN.equals(has.predicate) ||
+          Compare.GREATER_THAN_EQUAL.equals(has.predicate))) {
+        lower = has;
+      } else if (upper == null && (Compare.LESS_THAN.equals(has.predicate) ||
+          Compare.LESS_THAN_EQUAL.equals(has.predicate))) {
+        upper = has;
+      }
+    }
+
+    if (lower != null && upper != null && AccumuloByteSerializer.serialize(lower.value)[0] !=
+        AccumuloByteSerializer.serialize(upper.value)[0]) {
+      // Not comparable, so leave the upper bound to the client.
+      upper = null;
+    }
+    if (lower == null && upper == null) {
+      return null;
+    }
+
+    remaining.remove(lower);
+    remaining.remove(upper);
+
+    return IndexQuery.range(
+        lower != null ? lower.value : null,
+        lower != null && Compare.GREATER_THAN_EQUAL.equals(lower.predicate),
+        upper != null ? upper.value : null,
+        upper != null && Compare.LESS_THAN_EQUAL.equals(upper.predicate));
+  }
+
+  private <T extends Element> boolean isIndexed(String key, Class<T> elementClass) {
+    return globals.getConfig().getAutoIndex() ||
+        globals.getIndexMetadataWrapper().isIndexedKey(elementClass, key);
+  }
+
+  /**
+   * Reserved keys aren't stored as ordinary properties,
+   * except for edge labels.
+   * @param key
+   * @return
+   */
+  private static boolean isReserved(String key) {
+    return StringFactory.ID.equals(key) || StringFactory.LABEL.equals(key);
+  }
+
+  private static boolean isEquality(HasContainer has) {
+    return Compare.EQUAL.equals(has.predicate) && has.value != null;
+  }
+
+  /**
+   * Return true if the given constraint can be evaluated
+   * entirely over the key's column, i.e. it only matches
+   * elements which have the key.
+   * @param has
+   * @param elementClass
+   * @return
+   */
+  private static <T extends Element> boolean canFilter(HasContainer has,
+      Class<T> elementClass) {
+    if (StringFactory.ID.equals(has.key) || (StringFactory.LABEL.equals(has.key) &&
+        !Edge.class.equals(elementClass))) {
+      return false;
+    }
+
+    if (has.predicate instanceof Compare) {
+      switch ((Compare) has.predicate) {
+        case EQUAL:
+          return has.value != null;
+        case NOT_EQUAL:
+          // has(key) is expressed as NOT_EQUAL null;
+          // other values match elements missing the key.
+          return has.value == null;
+        default:
+          return has.value != null;
+      }
+    } else if (Contains.IN.equals(has.predicate)) {
+      return isValueSet(has.value);
+    }
+
+    return false;
+  }
+
+  /**
+   * Return true if the given value is a collection
+   * of non-null values, usable as operands.
+   * @param value
+   * @return
+   */
+  private static boolean isValueSet(Object value) {
+    if (!(value instanceof Collection)) {
+      return false;
+    }
+    for (Object v : (Collection<?>) value) {
+      if (v == null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Return true if the given constraint can be evaluated
+   * over the element's whole row, including constraints
+   * matching elements which don't have the key.
+   * @param has
+   * @param elementClass
+   * @return
+   */
+  private static <T extends Element> boolean canFilterRow(HasContainer has,
+      Class<T> elementClass) {
+    if (StringFactory.ID.equals(has.key) || (StringFactory.LABEL.equals(has.key) &&
+        !Edge.class.equals(elementClass))) {
+      return false;
+    }
+
+    if (Contains.NOT_IN.equals(has.predicate)) {
+      return isValueSet(has.value);
+    } else if (Compare.NOT_EQUAL.equals(has.predicate)) {
+      return true;
+    }
+    return canFilter(has, elementClass);
+  }
+
+  private static PropertyValueFilter.Op toOp(HasContainer has) {
+    if (Contains.IN.equals(has.predicate)) {
+      return PropertyValueFilter.Op.IN;
+    } else if (Contains.NOT_IN.equals(has.predicate)) {
+      return PropertyValueFilter.Op.NOT_IN;
+    }
+
+    switch ((Compare) has.predicate) {
+      case EQUAL:
+        return PropertyValueFilter.Op.EQUAL;
+      case NOT_EQUAL:
+        // Null means key presence only.
+        return has.value == null ? null : PropertyValueFilter.Op.NOT_EQUAL;
+      case GREATER_THAN:
+        return PropertyValueFilter.Op.GREATER_THAN;
+      case GREATER_THAN_EQUAL:
+        return PropertyValueFilter.Op.GREATER_THAN_EQUAL;
+      case LESS_THAN:
+        return PropertyValueFilter.Op.LESS_THAN;
+      case LESS_THAN_EQUAL:
+        return PropertyValueFilter.Op.LESS_THAN_EQUAL;
+      default:
+        throw new AccumuloGraphException("Unexpected predicate: " + has.predicate);
+    }
+  }
+
+  private static Object[] toOperands(HasContainer has) {
+    if (has.predicate instanceof Contains) {
+      return ((Collection<?>) has.value).toArray();
+    } else if (has.value == null) {
+      return new Object[0];
+    } else {
+      return new Object[]{has.value};
+    }
+  }
+}
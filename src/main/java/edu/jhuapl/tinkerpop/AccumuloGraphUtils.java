@@ -14,17 +14,43 @@
  */
 package edu.jhuapl.tinkerpop;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.SortedSet;
 import java.util.UUID;
 
+import org.apache.accumulo.core.client.BatchScanner;
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.client.admin.TableOperations;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.Combiner;
+import org.apache.accumulo.core.iterators.LongCombiner;
+import org.apache.accumulo.core.iterators.user.SummingCombiner;
 import org.apache.hadoop.io.Text;
 
+import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.util.ExceptionFactory;
 import com.tinkerpop.blueprints.util.StringFactory;
 
+import edu.jhuapl.tinkerpop.mutator.Mutators;
+import edu.jhuapl.tinkerpop.mutator.edge.EdgeEndpointsMutator;
+import edu.jhuapl.tinkerpop.parser.KeyBytes;
+
 public final class AccumuloGraphUtils {
 
+  /**
+   * Name and priority of the vertex degree counter combiner.
+   * It must run before the versioning iterator.
+   */
+  private static final String DEGREE_COMBINER = "degreeCounter";
+  private static final int DEGREE_COMBINER_PRIORITY = 7;
+
   /**
    * Create and/or clear existing graph tables for the given configuration.
    * 
@@ -50,7 +76,19 @@ public final class AccumuloGraphUtils {
       }
       // Tables exist, and we are not clearing them.
       else if (existedBeforeClear && !cfg.getClear()) {
-        // Do nothing.
+        // Nothing to do, except set up tables and degree
+        // counters for graphs created before they existed.
+        // Counters are backfilled from existing edges.
+        if (cfg.getCreate() && tableOps.exists(cfg.getVertexTableName())) {
+          for (String table : cfg.getTableNames()) {
+            if (!tableOps.exists(table)) {
+              tableOps.create(table);
+            }
+          }
+          if (attachDegreeCombiner(tableOps, cfg.getVertexTableName())) {
+            rebuildDegreeCounters(cfg);
+          }
+        }
         return;
       }
 
@@ -76,11 +114,123 @@ public final class AccumuloGraphUtils {
         }
       }
 
+      attachDegreeCombiner(tableOps, cfg.getVertexTableName());
+
     } catch (Exception e) {
       throw new IllegalArgumentException(e);
     }
   }
 
+  /**
+   * Attach the combiner which sums vertex degree
+   * counters to the given vertex table, if not
+   * already attached.
+   * @param tableOps
+   * @param table
+   * @return true if the combiner was attached,
+   *   false if it already was
+   * @throws Exception
+   */
+  static boolean attachDegreeCombiner(TableOperations tableOps,
+      String table) throws Exception {
+    if (hasDegreeCombiner(tableOps, table)) {
+      return false;
+    }
+
+    tableOps.attachIterator(table, getDegreeCombiner(
+        DEGREE_COMBINER_PRIORITY, DEGREE_COMBINER));
+    return true;
+  }
+
+  /**
+   * Return whether the given vertex table maintains
+   * degree counters. Graphs created before counters
+   * existed lack them until reopened with the create
+   * option, or until {@link #rebuildDegreeCounters}.
+   * @param tableOps
+   * @param table
+   * @return
+   * @throws Exception
+   */
+  public static boolean hasDegreeCombiner(TableOperations tableOps,
+      String table) throws Exception {
+    return tableOps.listIterators(table).containsKey(DEGREE_COMBINER);
+  }
+
+  private static IteratorSetting getDegreeCombiner(int priority, String name) {
+    IteratorSetting is = new IteratorSetting(priority, name,
+        SummingCombiner.class);
+    LongCombiner.setEncodingType(is, LongCombiner.Type.VARLEN);
+    Combiner.setColumns(is, Collections.singletonList(
+        new IteratorSetting.Column(Constants.DEGREE)));
+    return is;
+  }
+
+  /**
+   * Recompute every vertex's degree counters from its edge
+   * entries, attaching the combiner first if needed. Each
+   * counter is adjusted by the difference between its edge
+   * count and its current value, so the graph stays usable
+   * while this runs. Edges written concurrently by clients
+   * which don't maintain counters are not reflected.
+   * @param cfg
+   * @throws Exception
+   */
+  static void rebuildDegreeCounters(AccumuloGraphConfiguration cfg)
+      throws Exception {
+    Connector connector = cfg.getConnector();
+    String table = cfg.getVertexTableName();
+    attachDegreeCombiner(connector.tableOperations(), table);
+
+    BatchScanner scan = connector.createBatchScanner(table,
+        cfg.getAuthorizations(), cfg.getQueryThreads());
+    BatchWriter writer = connector.createBatchWriter(table,
+        cfg.getBatchWriterConfig());
+    try {
+      scan.setRanges(Collections.singletonList(new Range()));
+      scan.fetchColumnFamily(new Text(Constants.IN_EDGE));
+      scan.fetchColumnFamily(new Text(Constants.OUT_EDGE));
+      scan.fetchColumnFamily(new Text(Constants.DEGREE));
+      // Sum counter entries even if the table's combiner
+      // is not active on the tablet servers yet.
+      scan.addScanIterator(getDegreeCombiner(
+          DEGREE_COMBINER_PRIORITY + 1, DEGREE_COMBINER + "Rebuild"));
+
+      // Rows may arrive in pieces, but changes are summed,
+      // so each piece can be adjusted on its own.
+      String vertexId = null;
+      Map<String, Long> changes = new HashMap<String, Long>();
+      for (Entry<Key, Value> entry : scan) {
+        Key key = entry.getKey();
+        String row = KeyBytes.toString(key.getRowData());
+        if (!row.equals(vertexId)) {
+          Mutators.apply(writer, new EdgeEndpointsMutator.AdjustDegrees(vertexId, changes));
+          vertexId = row;
+          changes.clear();
+        }
+
+        String qualifier;
+        long change;
+        if (KeyBytes.equals(key.getColumnFamilyData(), Constants.DEGREE_BYTES)) {
+          qualifier = KeyBytes.toString(key.getColumnQualifierData());
+          change = -LongCombiner.VAR_LEN_ENCODER.decode(entry.getValue().get());
+        } else {
+          Direction direction = KeyBytes.equals(key.getColumnFamilyData(),
+              Constants.IN_EDGE_BYTES) ? Direction.IN : Direction.OUT;
+          qualifier = EdgeEndpointsMutator.getDegreeQualifier(direction,
+              KeyBytes.afterDelim(entry.getValue().get()));
+          change = 1;
+        }
+        Long total = changes.get(qualifier);
+        changes.put(qualifier, total != null ? total + change : change);
+      }
+      Mutators.apply(writer, new EdgeEndpointsMutator.AdjustDegrees(vertexId, changes));
+    } finally {
+      scan.close();
+      writer.close();
+    }
+  }
+
   /**
    * Generate an element id.
    * @return
@@ -14,8 +14,6 @@
  */
 package edu.jhuapl.tinkerpop;
 
-import java.util.Iterator;
-
 import com.tinkerpop.blueprints.CloseableIterable;
 import com.tinkerpop.blueprints.Element;
 import com.tinkerpop.blueprints.Index;
@@ -25,6 +23,9 @@ import edu.jhuapl.tinkerpop.tables.index.NamedIndexTableWrapper;
 
 /**
  * Accumulo-based implementation for {@link IndexableGraph}.
+ * Instances are cheap to construct and are cached per graph.
+ * The backing table is created along with the index, and
+ * its existence is only checked on first use.
  * @param <T>
  */
 public class AccumuloIndex<T extends Element> implements Index<T> {
@@ -32,23 +33,27 @@ public class AccumuloIndex<T extends Element> implements Index<T> {
   private final Class<T> indexedType;
   private final String indexName;
   private final NamedIndexTableWrapper indexWrapper;
+  private volatile boolean tableChecked;
 
   public AccumuloIndex(GlobalInstances globals, String indexName, Class<T> indexedType) {
+    this(globals, indexName, indexedType, false);
+  }
+
+  /**
+   * @param globals
+   * @param indexName
+   * @param indexedType
+   * @param reverseIndexed whether entries of this index are
+   *   recorded in the reverse index table
+   */
+  public AccumuloIndex(GlobalInstances globals, String indexName,
+      Class<T> indexedType, boolean reverseIndexed) {
     this.globals = globals;
     this.indexName = indexName;
     this.indexedType = indexedType;
 
-    try {
-      if (!globals.getConfig().getConnector()
-          .tableOperations().exists(getTableName())) {
-        globals.getConfig().getConnector()
-        .tableOperations().create(getTableName());
-      }
-    } catch (Exception e) {
-      throw new AccumuloGraphException(e);
-    }
-
-    indexWrapper = new NamedIndexTableWrapper(globals, indexedType, indexName);
+    indexWrapper = new NamedIndexTableWrapper(globals, indexedType,
+        indexName, reverseIndexed);
   }
 
   @Override
@@ -60,10 +65,33 @@ public class AccumuloIndex<T extends Element> implements Index<T> {
     return globals.getConfig().getNamedIndexTableName(indexName);
   }
 
+  /**
+   * Return the wrapper for the backing table, checking
+   * that the table exists if this is the first use.
+   * @return
+   */
   public NamedIndexTableWrapper getWrapper() {
+    if (!tableChecked) {
+      boolean exists;
+      try {
+        exists = globals.getConfig().getConnector()
+            .tableOperations().exists(getTableName());
+      } catch (Exception e) {
+        throw new AccumuloGraphException(e);
+      }
+      if (!exists) {
+        throw new AccumuloGraphException("Index table does not exist: "
+            + getTableName());
+      }
+      tableChecked = true;
+    }
     return indexWrapper;
   }
 
+  public boolean isReverseIndexed() {
+    return indexWrapper.isReverseIndexed();
+  }
+
   @Override
   public Class<T> getIndexClass() {
     return indexedType;
@@ -71,34 +99,35 @@ public class AccumuloIndex<T extends Element> implements Index<T> {
 
   @Override
   public void put(String key, Object value, Element element) {
-    indexWrapper.setPropertyForIndex(element, key, value, true);
+    getWrapper().setPropertyForIndex(element, key, value, true);
   }
 
   @Override
   public CloseableIterable<T> get(String key, Object value) {
-    return indexWrapper.readElementsFromIndex(key, value);
+    return getWrapper().readElementsFromIndex(key, value);
   }
 
+  /**
+   * Query the index using an {@link IndexQuery},
+   * e.g. for ranges of values.
+   */
   @Override
   public CloseableIterable<T> query(String key, Object query) {
-    throw new UnsupportedOperationException();
+    if (!(query instanceof IndexQuery)) {
+      throw new UnsupportedOperationException("Unsupported query type: "
+          + (query != null ? query.getClass().getName() : null)
+          + "; use " + IndexQuery.class.getSimpleName());
+    }
+    return getWrapper().readElementsFromIndex(key, (IndexQuery) query);
   }
 
   @Override
   public long count(String key, Object value) {
-    CloseableIterable<T> iterable = get(key, value);
-    Iterator<T> iter = iterable.iterator();
-    int count = 0;
-    while (iter.hasNext()) {
-      count++;
-      iter.next();
-    }
-    iterable.close();
-    return count;
+    return getWrapper().countElementsInIndex(key, IndexQuery.exact(value));
   }
 
   @Override
   public void remove(String key, Object value, Element element) {
-    indexWrapper.removePropertyFromIndex(element, key, value);
+    getWrapper().removePropertyFromIndex(element, key, value);
   }
 }
@@ -14,17 +14,16 @@
  */
 package edu.jhuapl.tinkerpop;
 
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Collections;
 
-import com.tinkerpop.blueprints.CloseableIterable;
 import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Vertex;
 import com.tinkerpop.blueprints.VertexQuery;
-import com.tinkerpop.blueprints.util.DefaultVertexQuery;
 import com.tinkerpop.blueprints.util.ExceptionFactory;
 
+import edu.jhuapl.tinkerpop.tables.core.VertexRemover;
+
 /**
  * TODO
  */
@@ -44,9 +43,24 @@ public class AccumuloVertex extends AccumuloElement implements Vertex {
     return globals.getVertexWrapper().getVertices(this, direction, labels);
   }
 
+  /**
+   * Return the number of edges incident to this vertex
+   * in the given direction, with one of the given labels
+   * (or any label, if none are given). This reads the
+   * vertex's maintained degree counters rather than
+   * scanning its edges. Self-loops count once in each
+   * direction, so twice for {@link Direction#BOTH}.
+   * @param direction
+   * @param labels
+   * @return
+   */
+  public long getDegree(Direction direction, String... labels) {
+    return globals.getVertexWrapper().readDegree(this, direction, labels);
+  }
+
   @Override
   public VertexQuery query() {
-    return new DefaultVertexQuery(this);
+    return new AccumuloVertexQuery(globals, this);
   }
 
   @Override
@@ -91,33 +105,11 @@ public class AccumuloVertex extends AccumuloElement implements Vertex {
   public void remove() {
     globals.getCaches().remove(getId(), Vertex.class);
 
-    super.removeElementFromNamedIndexes();
-
+    // Remove the vertex along with its edges and index entries.
     // Throw exception if the element does not exist.
-    if (!globals.getVertexWrapper().elementExists(id)) {
+    if (new VertexRemover(globals).remove(Collections.singleton(id)) == 0) {
       throw ExceptionFactory.vertexWithIdDoesNotExist(getId());
     }
-
-    // Remove properties from key/value indexes.
-    Map<String, Object> props = globals.getVertexWrapper()
-        .readAllProperties(this);
-
-    for (Entry<String,Object> ent : props.entrySet()) {
-      globals.getVertexKeyIndexWrapper().removePropertyFromIndex(this,
-          ent.getKey(), ent.getValue());
-    }
-
-    // Remove edges incident to this vertex.
-    CloseableIterable<Edge> iter = (CloseableIterable<Edge>)getEdges(Direction.BOTH);
-    for (Edge edge : iter) {
-      edge.remove();
-    }
-    iter.close();
-
-    globals.checkedFlush();
-
-    // Get rid of the vertex.
-    globals.getVertexWrapper().deleteVertex(this);
     globals.checkedFlush();
   }
 
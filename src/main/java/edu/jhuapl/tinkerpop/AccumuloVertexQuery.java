@@ -0,0 +1,285 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.tinkerpop.blueprints.CloseableIterable;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.VertexQuery;
+import com.tinkerpop.blueprints.util.DefaultVertexQuery;
+import com.tinkerpop.blueprints.util.StringFactory;
+
+/**
+ * {@link VertexQuery} implementation which works from the
+ * vertex's edge endpoint entries rather than instantiating
+ * and inspecting each incident edge, as {@link DefaultVertexQuery} does.
+ * <ul>
+ * <li>Direction and labels restrict the scan of the
+ * vertex's row, with labels matched on the tablet servers.</li>
+ * <li>Edge property constraints are checked by reading only
+ * the needed properties for batches of candidate edges,
+ * rather than one edge at a time.</li>
+ * <li>Iteration stops once the limit is reached.</li>
+ * <li>{@link #count()} and {@link #vertexIds()} return only
+ * keys from the tablet servers when there are no property
+ * constraints.</li>
+ * </ul>
+ */
+public class AccumuloVertexQuery extends DefaultVertexQuery {
+
+  /**
+   * Number of candidate edges whose properties
+   * are read in each batch.
+   */
+  private static final int BATCH_SIZE = 1000;
+
+  private final GlobalInstances globals;
+
+  public AccumuloVertexQuery(GlobalInstances globals, AccumuloVertex vertex) {
+    super(vertex);
+    this.globals = globals;
+  }
+
+  @Override
+  public Iterable<Edge> edges() {
+    if (limit == 0) {
+      return Collections.emptyList();
+    }
+
+    CloseableIterable<Edge> edges = globals.getVertexWrapper()
+        .getEdges(vertex, direction, labels);
+
+    if (!hasContainers.isEmpty()) {
+      return new PropertyFilteringIterable(edges);
+    } else if (limit != Integer.MAX_VALUE) {
+      return new FilteringIterable<Edge>(edges, limit) {
+        @Override
+        protected boolean accept(Edge edge) {
+          return true;
+        }
+      };
+    } else {
+      return edges;
+    }
+  }
+
+  @Override
+  public Iterable<Vertex> vertices() {
+    if (limit == 0) {
+      return Collections.emptyList();
+    }
+
+    if (hasContainers.isEmpty()) {
+      Iterable<Vertex> vertices = globals.getVertexWrapper()
+          .getVertices(vertex, direction, labels);
+      if (limit == Integer.MAX_VALUE) {
+        return vertices;
+      }
+      return new FilteringIterable<Vertex>(vertices, limit) {
+        @Override
+        protected boolean accept(Vertex vertex) {
+          return true;
+        }
+      };
+    }
+
+    final CloseableIterable<Edge> edges = (CloseableIterable<Edge>) edges();
+
+    return new CloseableIterable<Vertex>() {
+      @Override
+      public Iterator<Vertex> iterator() {
+        final Iterator<Edge> iter = edges.iterator();
+
+        return new Iterator<Vertex>() {
+          @Override
+          public boolean hasNext() {
+            return iter.hasNext();
+          }
+
+          @Override
+          public Vertex next() {
+            return otherVertex(iter.next());
+          }
+
+          @Override
+          public void remove() {
+            throw new UnsupportedOperationException();
+          }
+        };
+      }
+
+      @Override
+      public void close() {
+        edges.close();
+      }
+    };
+  }
+
+  @Override
+  public long count() {
+    if (hasContainers.isEmpty()) {
+      return globals.getVertexWrapper().countEdges(vertex,
+          direction, limit, labels);
+    }
+    return super.count();
+  }
+
+  @Override
+  public Object vertexIds() {
+    if (hasContainers.isEmpty()) {
+      return globals.getVertexWrapper().readAdjacentVertexIds(vertex,
+          direction, limit, labels);
+    }
+    return super.vertexIds();
+  }
+
+  /**
+   * Return the endpoint of the given edge opposite this
+   * query's vertex.
+   * @param edge
+   * @return
+   */
+  private Vertex otherVertex(Edge edge) {
+    if (Direction.OUT.equals(direction)) {
+      return edge.getVertex(Direction.IN);
+    } else if (Direction.IN.equals(direction)) {
+      return edge.getVertex(Direction.OUT);
+    } else {
+      Vertex out = edge.getVertex(Direction.OUT);
+      return out.equals(vertex) ? edge.getVertex(Direction.IN) : out;
+    }
+  }
+
+  /**
+   * Return the value used to evaluate a constraint on
+   * the given key, given the edge's properties.
+   * @param edge
+   * @param props
+   * @param key
+   * @return
+   */
+  private static Object getValue(Edge edge, Map<String, Object> props, String key) {
+    if (StringFactory.LABEL.equals(key)) {
+      return edge.getLabel();
+    } else if (StringFactory.ID.equals(key)) {
+      return edge.getId();
+    } else {
+      return props.get(key);
+    }
+  }
+
+  /**
+   * Iterable which checks property constraints for batches
+   * of candidate edges, reading only the properties needed.
+   */
+  private class PropertyFilteringIterable implements CloseableIterable<Edge> {
+
+    private final CloseableIterable<Edge> edges;
+    private final String[] keys;
+
+    public PropertyFilteringIterable(CloseableIterable<Edge> edges) {
+      this.edges = edges;
+
+      Set<String> keys = new TreeSet<String>();
+      for (HasContainer has : hasContainers) {
+        if (!StringFactory.LABEL.equals(has.key) && !StringFactory.ID.equals(has.key)) {
+          keys.add(has.key);
+        }
+      }
+      this.keys = keys.toArray(new String[keys.size()]);
+    }
+
+    @Override
+    public Iterator<Edge> iterator() {
+      final Iterator<Edge> iter = edges.iterator();
+
+      return new Iterator<Edge>() {
+        private final LinkedList<Edge> buffer = new LinkedList<Edge>();
+        private int count;
+
+        @Override
+        public boolean hasNext() {
+          while (buffer.isEmpty() && count < limit && iter.hasNext()) {
+            fill();
+          }
+          return !buffer.isEmpty() && count < limit;
+        }
+
+        @Override
+        public Edge next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          count++;
+          return buffer.removeFirst();
+        }
+
+        @Override
+        public void remove() {
+          throw new UnsupportedOperationException();
+        }
+
+        private void fill() {
+          Map<String, Edge> batch = new LinkedHashMap<String, Edge>();
+          while (batch.size() < BATCH_SIZE && iter.hasNext()) {
+            Edge edge = iter.next();
+            batch.put(edge.getId().toString(), edge);
+          }
+
+          Map<String, Map<String, Object>> props = keys.length > 0 ?
+              globals.getEdgeWrapper().readProperties(batch.keySet(), keys) :
+                Collections.<String, Map<String, Object>>emptyMap();
+
+          for (Edge edge : batch.values()) {
+            Map<String, Object> edgeProps = props.get(edge.getId().toString());
+            if (edgeProps == null) {
+              edgeProps = Collections.emptyMap();
+            }
+            if (accept(edge, edgeProps)) {
+              for (Map.Entry<String, Object> prop : edgeProps.entrySet()) {
+                ((AccumuloElement) edge).setPropertyInMemory(prop.getKey(), prop.getValue());
+              }
+              buffer.add(edge);
+            }
+          }
+        }
+      };
+    }
+
+    private boolean accept(Edge edge, Map<String, Object> props) {
+      for (HasContainer has : hasContainers) {
+        if (!has.predicate.evaluate(getValue(edge, props, has.key), has.value)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public void close() {
+      edges.close();
+    }
+  }
+}
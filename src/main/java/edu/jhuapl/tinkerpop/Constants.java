@@ -38,9 +38,53 @@ public class Constants {
   public static final String OUT_EDGE = "__OUT_EDGE__";
   public static final String EXISTS = "__EXISTS__";
 
+  /**
+   * Column family of per-direction, per-label vertex
+   * degree counters, merged by a summing combiner.
+   */
+  public static final String DEGREE = "__DEGREE__";
+
   /**
    * Type of metadata to distinguish between
    * entries in the metadata table.
    */
   public static enum IndexMetadataEntryType {__INDEX_KEY__, __INDEX_NAME__};
+
+  /**
+   * Row and column family of the index metadata version
+   * marker, rewritten whenever the metadata changes.
+   */
+  public static final String INDEX_METADATA_VERSION = "__VERSION__";
+
+  /**
+   * Row and column family of the index metadata entry
+   * recording how values in index rows are encoded, and
+   * the current encoding. Index tables of graphs without
+   * this entry may hold text-encoded values.
+   */
+  public static final String INDEX_VALUE_FORMAT = "__VALUE_FORMAT__";
+  public static final String SORTABLE_VALUE_FORMAT = "sortable";
+
+  /**
+   * Value of a named index metadata entry whose index
+   * entries are recorded in the reverse index table.
+   */
+  public static final String REVERSE_INDEXED = "__REVERSE_INDEXED__";
+
+  /**
+   * Key of a parameter to createKeyIndex which, if false,
+   * records the key as indexed without building its index
+   * entries, for when they have been built separately.
+   */
+  public static final String REBUILD_INDEX = "rebuildIndex";
+
+  /**
+   * Encoded forms of the above, for comparing against
+   * key bytes without decoding them. Do not modify.
+   */
+  public static final byte[] ID_DELIM_BYTES = ID_DELIM.getBytes();
+  public static final byte[] LABEL_BYTES = LABEL.getBytes();
+  public static final byte[] IN_EDGE_BYTES = IN_EDGE.getBytes();
+  public static final byte[] OUT_EDGE_BYTES = OUT_EDGE.getBytes();
+  public static final byte[] DEGREE_BYTES = DEGREE.getBytes();
 }
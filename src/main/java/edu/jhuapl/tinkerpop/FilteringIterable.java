@@ -0,0 +1,95 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.tinkerpop.blueprints.CloseableIterable;
+
+/**
+ * Iterable which returns the elements of another iterable
+ * accepted by {@link #accept(Object)}, up to the given limit.
+ * Closing this closes the underlying iterable, if closeable.
+ */
+public abstract class FilteringIterable<T> implements CloseableIterable<T> {
+
+  private final Iterable<T> iterable;
+  private final int limit;
+
+  public FilteringIterable(Iterable<T> iterable, int limit) {
+    this.iterable = iterable;
+    this.limit = limit;
+  }
+
+  /**
+   * Return true if the given item should be returned.
+   * @param item
+   * @return
+   */
+  protected abstract boolean accept(T item);
+
+  @Override
+  public Iterator<T> iterator() {
+    final Iterator<T> iter = iterable.iterator();
+
+    return new Iterator<T>() {
+      private T next;
+      private int count;
+
+      @Override
+      public boolean hasNext() {
+        if (next != null) {
+          return true;
+        }
+        if (count >= limit) {
+          return false;
+        }
+
+        while (iter.hasNext()) {
+          T item = iter.next();
+          if (accept(item)) {
+            next = item;
+            return true;
+          }
+        }
+        return false;
+      }
+
+      @Override
+      public T next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        T item = next;
+        next = null;
+        count++;
+        return item;
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  @Override
+  public void close() {
+    if (iterable instanceof CloseableIterable) {
+      ((CloseableIterable<T>) iterable).close();
+    }
+  }
+}
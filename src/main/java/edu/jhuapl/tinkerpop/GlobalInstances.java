@@ -28,6 +28,7 @@ import edu.jhuapl.tinkerpop.tables.core.VertexTableWrapper;
 import edu.jhuapl.tinkerpop.tables.index.BaseKeyIndexTableWrapper;
 import edu.jhuapl.tinkerpop.tables.index.EdgeKeyIndexTableWrapper;
 import edu.jhuapl.tinkerpop.tables.index.IndexMetadataTableWrapper;
+import edu.jhuapl.tinkerpop.tables.index.ReverseIndexTableWrapper;
 import edu.jhuapl.tinkerpop.tables.index.VertexKeyIndexTableWrapper;
 
 /**
@@ -40,11 +41,26 @@ public class GlobalInstances {
   private final MultiTableBatchWriter mtbw;
   private final ElementCaches caches;
 
+  private final VertexTableWrapper vertexWrapper;
+  private final EdgeTableWrapper edgeWrapper;
+  private final VertexKeyIndexTableWrapper vertexKeyIndexWrapper;
+  private final EdgeKeyIndexTableWrapper edgeKeyIndexWrapper;
+  private final IndexMetadataTableWrapper indexMetadataWrapper;
+  private final ReverseIndexTableWrapper reverseIndexWrapper;
+
   public GlobalInstances(AccumuloGraphConfiguration config,
       MultiTableBatchWriter mtbw, ElementCaches caches) {
     this.config = config;
     this.mtbw = mtbw;
     this.caches = caches;
+
+    // Wrappers are shared for the life of the graph.
+    vertexWrapper = new VertexTableWrapper(this);
+    edgeWrapper = new EdgeTableWrapper(this);
+    vertexKeyIndexWrapper = new VertexKeyIndexTableWrapper(this);
+    edgeKeyIndexWrapper = new EdgeKeyIndexTableWrapper(this);
+    indexMetadataWrapper = new IndexMetadataTableWrapper(this);
+    reverseIndexWrapper = new ReverseIndexTableWrapper(this);
   }
 
   public AccumuloGraphConfiguration getConfig() {
@@ -56,23 +72,27 @@ public class GlobalInstances {
   }
 
   public VertexTableWrapper getVertexWrapper() {
-    return new VertexTableWrapper(this);
+    return vertexWrapper;
   }
 
   public EdgeTableWrapper getEdgeWrapper() {
-    return new EdgeTableWrapper(this);
+    return edgeWrapper;
   }
 
   public VertexKeyIndexTableWrapper getVertexKeyIndexWrapper() {
-    return new VertexKeyIndexTableWrapper(this);
+    return vertexKeyIndexWrapper;
   }
 
   public EdgeKeyIndexTableWrapper getEdgeKeyIndexWrapper() {
-    return new EdgeKeyIndexTableWrapper(this);
+    return edgeKeyIndexWrapper;
   }
 
   public IndexMetadataTableWrapper getIndexMetadataWrapper() {
-    return new IndexMetadataTableWrapper(this);
+    return indexMetadataWrapper;
+  }
+
+  public ReverseIndexTableWrapper getReverseIndexWrapper() {
+    return reverseIndexWrapper;
   }
 
   public <T extends Element> ElementTableWrapper getElementWrapper(Class<T> clazz) {
@@ -99,6 +119,18 @@ public class GlobalInstances {
     return caches;
   }
 
+  /**
+   * Release resources held by the table wrappers.
+   */
+  public void close() {
+    vertexWrapper.close();
+    edgeWrapper.close();
+    vertexKeyIndexWrapper.close();
+    edgeKeyIndexWrapper.close();
+    indexMetadataWrapper.close();
+    reverseIndexWrapper.close();
+  }
+
   /**
    * Flush the writer, if autoflush is enabled.
    */
@@ -0,0 +1,203 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.accumulo.core.data.Range;
+import org.apache.hadoop.io.Text;
+
+import com.tinkerpop.blueprints.Index;
+
+/**
+ * Lookup against an index table, for use with
+ * {@link Index#query(String, Object)} and the key index tables.
+ * Index rows are serialized property values, so each lookup
+ * is served by one or more contiguous row ranges.
+ *
+ * <p/>Ranges only match values of the same type as their bounds.
+ * Ordering follows the byte order of the serialized values,
+ * which for numbers, dates and booleans is their natural order,
+ * and for strings is the order of their code points. Enums,
+ * qualified names and other serializable objects can only be
+ * matched exactly.
+ */
+public final class IndexQuery {
+
+  private final List<Range> ranges;
+
+  private IndexQuery(List<Range> ranges) {
+    this.ranges = Collections.unmodifiableList(ranges);
+  }
+
+  /**
+   * Match the given value exactly.
+   * @param value
+   * @return
+   */
+  public static IndexQuery exact(Object value) {
+    return new IndexQuery(Collections.singletonList(Range.exact(toRow(value))));
+  }
+
+  /**
+   * Match any of the given values exactly.
+   * @param values
+   * @return
+   */
+  public static IndexQuery in(Collection<?> values) {
+    List<Range> ranges = new ArrayList<Range>(values.size());
+    for (Object value : values) {
+      ranges.add(Range.exact(toRow(value)));
+    }
+    return new IndexQuery(ranges);
+  }
+
+  /**
+   * Match any of the given values exactly.
+   * @param values
+   * @return
+   */
+  public static IndexQuery in(Object... values) {
+    return in(Arrays.asList(values));
+  }
+
+  /**
+   * Match strings starting with the given prefix.
+   * @param prefix
+   * @return
+   */
+  public static IndexQuery prefix(String prefix) {
+    return new IndexQuery(Collections.singletonList(Range.prefix(toRow(prefix))));
+  }
+
+  public static IndexQuery lessThan(Object value) {
+    return range(null, false, value, false);
+  }
+
+  public static IndexQuery atMost(Object value) {
+    return range(null, false, value, true);
+  }
+
+  public static IndexQuery greaterThan(Object value) {
+    return range(value, false, null, false);
+  }
+
+  public static IndexQuery atLeast(Object value) {
+    return range(value, true, null, false);
+  }
+
+  /**
+   * Match values from start, inclusive, to end, exclusive.
+   * This is consistent with Blueprints' interval queries.
+   * @param start
+   * @param end
+   * @return
+   */
+  public static IndexQuery between(Object start, Object end) {
+    return range(start, true, end, false);
+  }
+
+  /**
+   * Match values between the given bounds. A null bound
+   * is unbounded, i.e. matches all values of the other
+   * bound's type in that direction.
+   * @param lower
+   * @param lowerInclusive
+   * @param upper
+   * @param upperInclusive
+   * @return
+   */
+  public static IndexQuery range(Object lower, boolean lowerInclusive,
+      Object upper, boolean upperInclusive) {
+    if (lower == null && upper == null) {
+      throw new IllegalArgumentException("At least one bound must be given");
+    }
+
+    byte[] lowerBytes = lower != null ? AccumuloByteSerializer.serialize(lower) : null;
+    byte[] upperBytes = upper != null ? AccumuloByteSerializer.serialize(upper) : null;
+
+    int type = lowerBytes != null ? lowerBytes[0] : upperBytes[0];
+    if (!isOrdered(type)) {
+      throw new IllegalArgumentException("Range queries not supported for values of type "
+          + (lower != null ? lower : upper).getClass().getName());
+    } else if (lowerBytes != null && upperBytes != null && lowerBytes[0] != upperBytes[0]) {
+      throw new IllegalArgumentException("Bounds must be of the same type");
+    }
+
+    // Rows of the given type fall between the bare type
+    // tag and the next tag.
+    Text start = lowerBytes != null ? new Text(lowerBytes) : new Text(new byte[]{(byte) type});
+    Text end = upperBytes != null ? new Text(upperBytes) : new Text(new byte[]{(byte) (type + 1)});
+    boolean startInclusive = lowerBytes == null || lowerInclusive;
+    boolean endInclusive = upperBytes != null && upperInclusive;
+
+    int cmp = start.compareTo(end);
+    if (cmp > 0 || (cmp == 0 && !(startInclusive && endInclusive))) {
+      return new IndexQuery(Collections.<Range>emptyList());
+    }
+
+    return new IndexQuery(Collections.singletonList(
+        new Range(start, startInclusive, end, endInclusive)));
+  }
+
+  /**
+   * Return true if range queries are supported for the given value.
+   * @param value
+   * @return
+   */
+  public static boolean isOrdered(Object value) {
+    return value != null && isOrdered(AccumuloByteSerializer.serialize(value)[0]);
+  }
+
+  private static boolean isOrdered(int type) {
+    switch (type) {
+      case AccumuloByteSerializer.SORTABLE_BYTE:
+      case AccumuloByteSerializer.SORTABLE_SHORT:
+      case AccumuloByteSerializer.SORTABLE_INTEGER:
+      case AccumuloByteSerializer.SORTABLE_LONG:
+      case AccumuloByteSerializer.SORTABLE_FLOAT:
+      case AccumuloByteSerializer.SORTABLE_DOUBLE:
+      case AccumuloByteSerializer.SORTABLE_BOOLEAN:
+      case AccumuloByteSerializer.SORTABLE_DATE:
+      case AccumuloByteSerializer.CHARACTER:
+      case AccumuloByteSerializer.STRING:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Return the row ranges to scan for this query.
+   * An empty list matches nothing.
+   * @return
+   */
+  public List<Range> getRanges() {
+    return ranges;
+  }
+
+  private static Text toRow(Object value) {
+    return new Text(AccumuloByteSerializer.serialize(value));
+  }
+
+  @Override
+  public String toString() {
+    return ranges.toString();
+  }
+}
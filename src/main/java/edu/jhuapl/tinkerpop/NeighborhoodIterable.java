@@ -0,0 +1,124 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * Iterable over the vertices within a given number of hops
+ * of a set of seed vertices. Each hop is read with a single
+ * batch scan over the whole frontier, and vertices are
+ * returned level by level, in order of distance from the seeds.
+ * Each vertex is returned once; seeds are not returned.
+ * Levels are read lazily, as iteration reaches them.
+ */
+public class NeighborhoodIterable implements Iterable<Vertex> {
+
+  private final GlobalInstances globals;
+  private final Collection<String> seedIds;
+  private final Direction direction;
+  private final int hops;
+  private final String[] labels;
+
+  public NeighborhoodIterable(GlobalInstances globals, Collection<String> seedIds,
+      Direction direction, int hops, String... labels) {
+    if (hops < 0) {
+      throw new IllegalArgumentException("Number of hops must be non-negative");
+    }
+    this.globals = globals;
+    this.seedIds = seedIds;
+    this.direction = direction;
+    this.hops = hops;
+    this.labels = labels;
+  }
+
+  @Override
+  public Iterator<Vertex> iterator() {
+    return new NeighborhoodIterator();
+  }
+
+  private class NeighborhoodIterator implements Iterator<Vertex> {
+    private final Set<String> visited = new HashSet<String>(seedIds);
+    private Collection<String> frontier = new ArrayList<String>(visited);
+    private Iterator<Vertex> level = Collections.<Vertex>emptyList().iterator();
+    private int hop = 0;
+
+    @Override
+    public boolean hasNext() {
+      while (!level.hasNext() && hop < hops && !frontier.isEmpty()) {
+        readLevel();
+      }
+      return level.hasNext();
+    }
+
+    @Override
+    public Vertex next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return level.next();
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Read the next level of vertices, adjacent
+     * to the current frontier and not yet visited.
+     */
+    private void readLevel() {
+      List<String> next = new ArrayList<String>();
+      for (String id : globals.getVertexWrapper()
+          .readAdjacentVertexIds(frontier, direction, labels)) {
+        if (visited.add(id)) {
+          next.add(id);
+        }
+      }
+
+      List<Vertex> vertices = new ArrayList<Vertex>(next.size());
+      for (String id : next) {
+        Vertex vertex = globals.getCaches().retrieve(id, Vertex.class);
+        if (vertex == null) {
+          vertex = new AccumuloVertex(globals, id);
+          globals.getCaches().cache(vertex, Vertex.class);
+        }
+        vertices.add(vertex);
+      }
+
+      // As with adjacency iterables, load any
+      // preloaded properties for the whole level.
+      String[] preload = globals.getConfig().getPreloadedProperties();
+      if (preload != null) {
+        globals.getVertexWrapper().loadProperties(vertices, preload);
+      }
+
+      frontier = next;
+      level = vertices.iterator();
+      hop++;
+    }
+  }
+}
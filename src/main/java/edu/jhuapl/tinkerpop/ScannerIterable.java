@@ -15,6 +15,7 @@
 package edu.jhuapl.tinkerpop;
 
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.Map.Entry;
 
 import org.apache.accumulo.core.client.ScannerBase;
@@ -23,7 +24,9 @@ import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.util.PeekingIterator;
 
 import com.tinkerpop.blueprints.CloseableIterable;
+import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Element;
+import com.tinkerpop.blueprints.Vertex;
 
 /**
  * TODO
@@ -32,10 +35,32 @@ public abstract class ScannerIterable<T extends Element> implements CloseableIte
 
   private ScannerBase scanner;
 
+  private int prefetchSize = 0;
+  private String[] prefetchKeys = null;
+
   public ScannerIterable(ScannerBase scanner) {
     this.scanner = scanner;
   }
 
+  /**
+   * Read ahead up to chunkSize elements at a time,
+   * and load the given properties for each chunk with
+   * a single batch scan rather than one scan per element.
+   * If no keys are given, all properties are loaded.
+   * A chunk size of 0 disables prefetching.
+   * @param chunkSize
+   * @param keys
+   * @return this iterable
+   */
+  public ScannerIterable<T> setPrefetch(int chunkSize, String... keys) {
+    if (chunkSize < 0) {
+      throw new IllegalArgumentException("Chunk size must be non-negative");
+    }
+    prefetchSize = chunkSize;
+    prefetchKeys = keys.length > 0 ? keys : null;
+    return this;
+  }
+
   @Override
   public Iterator<T> iterator() {
     return new ScannerIterator(new PeekingIterator<Entry<Key,Value>>(scanner.iterator()));
@@ -58,6 +83,7 @@ public abstract class ScannerIterable<T extends Element> implements CloseableIte
 
   private class ScannerIterator implements Iterator<T> {
     private PeekingIterator<Entry<Key,Value>> iterator;
+    private LinkedList<T> chunk = new LinkedList<T>();
 
     private ScannerIterator(PeekingIterator<Entry<Key,Value>> iterator) {
       this.iterator = iterator;
@@ -65,12 +91,31 @@ public abstract class ScannerIterable<T extends Element> implements CloseableIte
 
     @Override
     public boolean hasNext() {
-      return iterator.hasNext();
+      return !chunk.isEmpty() || iterator.hasNext();
     }
 
     @Override
     public T next() {
-      return ScannerIterable.this.next(iterator);
+      if (prefetchSize == 0) {
+        return ScannerIterable.this.next(iterator);
+      }
+
+      if (chunk.isEmpty()) {
+        while (chunk.size() < prefetchSize && iterator.hasNext()) {
+          chunk.add(ScannerIterable.this.next(iterator));
+        }
+        loadChunk();
+      }
+      return chunk.removeFirst();
+    }
+
+    private void loadChunk() {
+      if (chunk.isEmpty()) {
+        return;
+      }
+      AccumuloElement first = (AccumuloElement) chunk.getFirst();
+      first.globals.getElementWrapper(first instanceof Vertex ?
+          Vertex.class : Edge.class).loadProperties(chunk, prefetchKeys);
     }
 
     @Override
@@ -0,0 +1,291 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.MutationsRejectedException;
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.data.ColumnUpdate;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.FileOperations;
+import org.apache.accumulo.core.file.FileSKVIterator;
+import org.apache.accumulo.core.file.FileSKVWriter;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+/**
+ * A {@link BatchWriter} that writes mutations to a sorted
+ * RFile for bulk import, rather than to a table. Entries
+ * are buffered in memory and sorted; when the buffer fills,
+ * it is written out as a sorted run. On {@link #close()},
+ * the runs are merged into a single file in
+ * {@link #getFilesDirectory()}.
+ * <p/>
+ * Among entries with equal keys, later writes are placed
+ * first, so that they take precedence as they would had
+ * they been written to the table.
+ */
+final class SortedFileWriter implements BatchWriter {
+
+  /**
+   * Rough per-entry memory overhead beyond
+   * the key and value bytes.
+   */
+  private static final int ENTRY_OVERHEAD = 128;
+
+  private static final Comparator<BufferedEntry> ORDER =
+      new Comparator<BufferedEntry>() {
+    @Override
+    public int compare(BufferedEntry a, BufferedEntry b) {
+      int cmp = a.key.compareTo(b.key);
+      if (cmp != 0) {
+        return cmp;
+      }
+      return a.sequence > b.sequence ? -1 : a.sequence < b.sequence ? 1 : 0;
+    }
+  };
+
+  private final FileSystem fs;
+  private final Path workDir;
+  private final long maxMemory;
+
+  private final List<Path> runs = new ArrayList<Path>();
+  private List<BufferedEntry> buffer = new ArrayList<BufferedEntry>();
+  private long bufferSize = 0;
+  private long sequence = 0;
+  private boolean closed = false;
+
+  /**
+   * @param fs
+   * @param workDir directory for sorted runs and the final file
+   * @param maxMemory bytes of entries to buffer before writing a run
+   */
+  SortedFileWriter(FileSystem fs, Path workDir, long maxMemory) {
+    this.fs = fs;
+    this.workDir = workDir;
+    this.maxMemory = maxMemory;
+  }
+
+  /**
+   * Directory holding the final file, once closed.
+   * @return
+   */
+  Path getFilesDirectory() {
+    return new Path(workDir, "files");
+  }
+
+  /**
+   * Directory for files that fail to import.
+   * @return
+   */
+  Path getFailuresDirectory() {
+    return new Path(workDir, "failures");
+  }
+
+  Path getWorkDirectory() {
+    return workDir;
+  }
+
+  /**
+   * Whether any entries were written.
+   * @return
+   */
+  boolean hasData() {
+    return sequence > 0;
+  }
+
+  @Override
+  public void addMutation(Mutation m) throws MutationsRejectedException {
+    if (closed) {
+      throw new IllegalStateException("Writer is closed");
+    }
+
+    long now = System.currentTimeMillis();
+    byte[] row = m.getRow();
+    for (ColumnUpdate update : m.getUpdates()) {
+      Key key = new Key(row, update.getColumnFamily(),
+          update.getColumnQualifier(), update.getColumnVisibility(),
+          update.hasTimestamp() ? update.getTimestamp() : now,
+          update.isDeleted(), false);
+      Value value = new Value(update.getValue(), false);
+      buffer.add(new BufferedEntry(key, value, sequence++));
+      bufferSize += key.getSize() + value.getSize() + ENTRY_OVERHEAD;
+    }
+
+    if (bufferSize >= maxMemory) {
+      spill();
+    }
+  }
+
+  @Override
+  public void addMutations(Iterable<Mutation> iterable) throws MutationsRejectedException {
+    for (Mutation m : iterable) {
+      addMutation(m);
+    }
+  }
+
+  /**
+   * Nothing is visible until the files are imported,
+   * so there is nothing to flush.
+   */
+  @Override
+  public void flush() throws MutationsRejectedException {
+  }
+
+  @Override
+  public void close() throws MutationsRejectedException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+
+    try {
+      if (!buffer.isEmpty()) {
+        spill();
+      }
+      buffer = null;
+
+      fs.mkdirs(getFilesDirectory());
+      fs.mkdirs(getFailuresDirectory());
+      Path file = new Path(getFilesDirectory(), "data.rf");
+      if (runs.size() == 1) {
+        if (!fs.rename(runs.get(0), file)) {
+          throw new IOException("Failed to rename " + runs.get(0)
+              + " to " + file);
+        }
+      } else if (runs.size() > 1) {
+        merge(file);
+      }
+      fs.delete(new Path(workDir, "runs"), true);
+    } catch (IOException e) {
+      throw new AccumuloGraphException(e);
+    }
+  }
+
+  /**
+   * Sort the buffer and write it out as a run.
+   */
+  private void spill() {
+    Collections.sort(buffer, ORDER);
+
+    Path run = new Path(new Path(workDir, "runs"),
+        String.format("run-%05d.rf", runs.size()));
+    try {
+      FileSKVWriter writer = openWriter(run);
+      try {
+        for (BufferedEntry entry : buffer) {
+          writer.append(entry.key, entry.value);
+        }
+      } finally {
+        writer.close();
+      }
+    } catch (IOException e) {
+      throw new AccumuloGraphException(e);
+    }
+
+    runs.add(run);
+    buffer.clear();
+    bufferSize = 0;
+  }
+
+  /**
+   * Merge all the runs into the given file. Entries with
+   * equal keys are taken from later runs first.
+   */
+  private void merge(Path file) throws IOException {
+    PriorityQueue<RunReader> queue = new PriorityQueue<RunReader>(runs.size(),
+        new Comparator<RunReader>() {
+      @Override
+      public int compare(RunReader a, RunReader b) {
+        int cmp = a.reader.getTopKey().compareTo(b.reader.getTopKey());
+        return cmp != 0 ? cmp : b.index - a.index;
+      }
+    });
+
+    List<FileSKVIterator> readers = new ArrayList<FileSKVIterator>();
+    try {
+      for (int i = 0; i < runs.size(); i++) {
+        FileSKVIterator reader = FileOperations.getInstance().openReader(
+            qualified(runs.get(i)), true, fs, fs.getConf(),
+            AccumuloConfiguration.getDefaultConfiguration());
+        readers.add(reader);
+        if (reader.hasTop()) {
+          queue.add(new RunReader(reader, i));
+        }
+      }
+
+      FileSKVWriter writer = openWriter(file);
+      try {
+        while (!queue.isEmpty()) {
+          RunReader next = queue.poll();
+          writer.append(next.reader.getTopKey(), next.reader.getTopValue());
+          next.reader.next();
+          if (next.reader.hasTop()) {
+            queue.add(next);
+          }
+        }
+      } finally {
+        writer.close();
+      }
+    } finally {
+      for (FileSKVIterator reader : readers) {
+        reader.close();
+      }
+    }
+  }
+
+  private FileSKVWriter openWriter(Path file) throws IOException {
+    FileSKVWriter writer = FileOperations.getInstance().openWriter(
+        qualified(file), fs, fs.getConf(),
+        AccumuloConfiguration.getDefaultConfiguration());
+    writer.startDefaultLocalityGroup();
+    return writer;
+  }
+
+  private String qualified(Path path) {
+    return fs.makeQualified(path).toString();
+  }
+
+  private static class BufferedEntry {
+    final Key key;
+    final Value value;
+    final long sequence;
+
+    BufferedEntry(Key key, Value value, long sequence) {
+      this.key = key;
+      this.value = value;
+      this.sequence = sequence;
+    }
+  }
+
+  private static class RunReader {
+    final FileSKVIterator reader;
+    final int index;
+
+    RunReader(FileSKVIterator reader, int index) {
+      this.reader = reader;
+      this.index = index;
+    }
+  }
+}
@@ -26,7 +26,8 @@ import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration;
  * This supports a global timeout for key evictions,
  * as well as per-property eviction.
  * If caching is disabled for the given property,
- * this does nothing (stores no values).
+ * this does nothing (stores no values), including
+ * for values loaded with {@link #load(String, Object)}.
  */
 public class PropertyCache {
 
@@ -57,6 +58,24 @@ public class PropertyCache {
         System.currentTimeMillis() + timeout));
   }
 
+  /**
+   * Store a value loaded from the backing table.
+   * Unlike {@link #put(String, Object)}, a null value
+   * is stored, recording that the property is absent.
+   * As with put, nothing is stored if no timeout
+   * is configured for the key.
+   * @param key
+   * @param value
+   */
+  public void load(String key, Object value) {
+    Integer timeout = getTimeout(key);
+    if (timeout == null) {
+      return;
+    }
+    values.put(key, new TimedValue(value,
+        System.currentTimeMillis() + timeout));
+  }
+
   public void putAll(Map<String, Object> entries) {
     if(entries==null)return;
     for (Entry<String,Object> ent : entries.entrySet()) {
@@ -0,0 +1,40 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.iterators;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.Filter;
+
+import edu.jhuapl.tinkerpop.Constants;
+import edu.jhuapl.tinkerpop.parser.KeyBytes;
+
+/**
+ * Filter which drops a vertex's adjacency entries, that is,
+ * its edge endpoint entries and degree counters, leaving its
+ * label and properties. Set below an iterator which groups
+ * whole rows, so that supernode rows are not buffered whole.
+ */
+public class AdjacencyFilter extends Filter {
+
+  @Override
+  public boolean accept(Key k, Value v) {
+    ByteSequence cf = k.getColumnFamilyData();
+    return !KeyBytes.equals(cf, Constants.IN_EDGE_BYTES) &&
+        !KeyBytes.equals(cf, Constants.OUT_EDGE_BYTES) &&
+        !KeyBytes.equals(cf, Constants.DEGREE_BYTES);
+  }
+}
@@ -0,0 +1,157 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.iterators;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.Filter;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.commons.codec.binary.Base64;
+
+import edu.jhuapl.tinkerpop.AccumuloByteSerializer;
+import edu.jhuapl.tinkerpop.Constants;
+
+/**
+ * Filter which keeps only edge entries with one of a given
+ * set of labels, on the tablet server. Labels are matched by
+ * exact byte comparison of the stored value, so nothing is
+ * decoded or regex-matched per entry.
+ *
+ * <p/>Edge endpoint entries in the vertex table are matched
+ * against their raw label value, and edge label entries in
+ * the edge table against their serialized label. All other
+ * entries, such as vertex existence entries and properties,
+ * are passed through unchanged.
+ */
+public class EdgeLabelFilter extends Filter {
+
+  private static final String ENDPOINT_LABELS = "endpointLabels";
+  private static final String EDGE_LABELS = "edgeLabels";
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  private static final byte[] IN_EDGE = Constants.IN_EDGE.getBytes();
+  private static final byte[] OUT_EDGE = Constants.OUT_EDGE.getBytes();
+  private static final byte[] LABEL = Constants.LABEL.getBytes();
+
+  private byte[][] endpointLabels;
+  private byte[][] edgeLabels;
+
+  /**
+   * Set the edge labels to keep.
+   * @param is
+   * @param labels
+   */
+  public static void setLabels(IteratorSetting is, String... labels) {
+    if (labels.length == 0) {
+      throw new IllegalArgumentException("At least one label is required");
+    }
+
+    StringBuilder endpoint = new StringBuilder();
+    StringBuilder edge = new StringBuilder();
+    for (String label : labels) {
+      if (endpoint.length() > 0) {
+        endpoint.append(',');
+        edge.append(',');
+      }
+      endpoint.append(encode((Constants.ID_DELIM + label).getBytes()));
+      edge.append(encode(AccumuloByteSerializer.serialize(label)));
+    }
+
+    is.addOption(ENDPOINT_LABELS, endpoint.toString());
+    is.addOption(EDGE_LABELS, edge.toString());
+  }
+
+  @Override
+  public void init(SortedKeyValueIterator<Key,Value> source,
+      Map<String,String> options, IteratorEnvironment env) throws IOException {
+    super.init(source, options, env);
+    endpointLabels = decode(options.get(ENDPOINT_LABELS));
+    edgeLabels = decode(options.get(EDGE_LABELS));
+  }
+
+  @Override
+  public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
+    EdgeLabelFilter copy = (EdgeLabelFilter) super.deepCopy(env);
+    copy.endpointLabels = endpointLabels;
+    copy.edgeLabels = edgeLabels;
+    return copy;
+  }
+
+  @Override
+  public boolean accept(Key k, Value v) {
+    ByteSequence cf = k.getColumnFamilyData();
+    if (equals(cf, IN_EDGE) || equals(cf, OUT_EDGE)) {
+      return matches(v.get(), endpointLabels);
+    } else if (equals(cf, LABEL) && v.getSize() > 0) {
+      // Vertex existence entries have empty values.
+      return matches(v.get(), edgeLabels);
+    }
+    return true;
+  }
+
+  @Override
+  public boolean validateOptions(Map<String,String> options) {
+    super.validateOptions(options);
+    if (options.get(ENDPOINT_LABELS) == null ||
+        options.get(EDGE_LABELS) == null) {
+      throw new IllegalArgumentException("Missing label options");
+    }
+    return true;
+  }
+
+  private static boolean matches(byte[] value, byte[][] labels) {
+    for (byte[] label : labels) {
+      if (Arrays.equals(value, label)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean equals(ByteSequence seq, byte[] bytes) {
+    if (seq.length() != bytes.length) {
+      return false;
+    }
+    for (int i = 0; i < bytes.length; i++) {
+      if (seq.byteAt(i) != bytes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String encode(byte[] bytes) {
+    return new String(Base64.encodeBase64(bytes), UTF8);
+  }
+
+  private static byte[][] decode(String encoded) {
+    String[] parts = encoded == null || encoded.isEmpty() ?
+        new String[0] : encoded.split(",");
+    byte[][] decoded = new byte[parts.length][];
+    for (int i = 0; i < parts.length; i++) {
+      decoded[i] = Base64.decodeBase64(parts[i].getBytes(UTF8));
+    }
+    return decoded;
+  }
+}
@@ -0,0 +1,101 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.iterators;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.WrappingIterator;
+
+/**
+ * Iterator which counts the entries in the scanned range on
+ * the tablet server, and returns a single entry holding the
+ * count in place of the entries themselves. The entry's key
+ * is the last key counted, so a scan resumed after it counts
+ * only the remaining entries. Nothing is returned for ranges
+ * without entries. Use {@link #getCount(Value)} to read the count,
+ * and sum the counts of all returned entries.
+ */
+public class EntryCountingIterator extends WrappingIterator {
+
+  private Key topKey;
+  private Value topValue;
+
+  @Override
+  public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
+    EntryCountingIterator copy = new EntryCountingIterator();
+    copy.setSource(getSource().deepCopy(env));
+    return copy;
+  }
+
+  @Override
+  public void seek(Range range, Collection<ByteSequence> columnFamilies,
+      boolean inclusive) throws IOException {
+    super.seek(range, columnFamilies, inclusive);
+
+    long count = 0;
+    Key last = null;
+    while (getSource().hasTop()) {
+      last = getSource().getTopKey();
+      count++;
+      getSource().next();
+    }
+
+    if (count > 0) {
+      topKey = new Key(last);
+      topValue = new Value(ByteBuffer.allocate(8).putLong(count).array());
+    } else {
+      topKey = null;
+      topValue = null;
+    }
+  }
+
+  @Override
+  public boolean hasTop() {
+    return topKey != null;
+  }
+
+  @Override
+  public Key getTopKey() {
+    return topKey;
+  }
+
+  @Override
+  public Value getTopValue() {
+    return topValue;
+  }
+
+  @Override
+  public void next() throws IOException {
+    topKey = null;
+    topValue = null;
+  }
+
+  /**
+   * Read the count held by an entry returned by this iterator.
+   * @param value
+   * @return
+   */
+  public static long getCount(Value value) {
+    return ByteBuffer.wrap(value.get()).getLong();
+  }
+}
@@ -0,0 +1,163 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.iterators;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.user.WholeRowIterator;
+import org.apache.hadoop.io.Text;
+
+import edu.jhuapl.tinkerpop.iterators.PropertyValueFilter.Op;
+
+/**
+ * Iterator which returns the whole rows of elements whose
+ * properties satisfy all of a set of predicates, evaluated
+ * on the tablet server. Each matching row is returned as a
+ * single entry, encoded as by {@link WholeRowIterator};
+ * use {@link WholeRowIterator#decodeRow(Key, Value)} to
+ * read it. Set {@link AdjacencyFilter} below this iterator,
+ * so that vertex rows are grouped without their edge entries.
+ *
+ * <p/>Values are compared as by {@link PropertyValueFilter}.
+ * A predicate without a comparison matches elements having
+ * the property. Elements without a property only match
+ * {@link Op#NOT_EQUAL} and {@link Op#NOT_IN} predicates on it.
+ */
+public class PropertyPredicateFilter extends WholeRowIterator {
+
+  /**
+   * A predicate on a single property.
+   */
+  public static class Predicate {
+    private final String key;
+    private final Op op;
+    private final Object[] operands;
+
+    /**
+     * If op is null, the predicate matches
+     * elements having the property.
+     * @param key
+     * @param op
+     * @param operands
+     */
+    public Predicate(String key, Op op, Object... operands) {
+      this.key = key;
+      this.op = op;
+      this.operands = operands;
+    }
+
+    public String getKey() {
+      return key;
+    }
+
+    public Op getOp() {
+      return op;
+    }
+
+    public Object[] getOperands() {
+      return operands;
+    }
+  }
+
+  private static final String COUNT = "predicates";
+  private static final String KEY = "key.";
+  private static final String OP = "op.";
+  private static final String OPERANDS = "operands.";
+
+  private SortedKeyValueIterator<Key,Value> source;
+  private Map<String,String> options;
+
+  private ByteSequence[] keys;
+  private ValueComparison[] comparisons;
+
+  /**
+   * Set the predicates which rows must satisfy.
+   * @param is
+   * @param predicates
+   */
+  public static void setPredicates(IteratorSetting is, Collection<Predicate> predicates) {
+    int i = 0;
+    for (Predicate predicate : predicates) {
+      is.addOption(KEY + i, predicate.key);
+      if (predicate.op != null) {
+        is.addOption(OP + i, predicate.op.name());
+        is.addOption(OPERANDS + i,
+            ValueComparison.encode(predicate.op, predicate.operands));
+      }
+      i++;
+    }
+    is.addOption(COUNT, Integer.toString(i));
+  }
+
+  @Override
+  public void init(SortedKeyValueIterator<Key,Value> source,
+      Map<String,String> options, IteratorEnvironment env) throws IOException {
+    super.init(source, options, env);
+    this.source = source;
+    this.options = new HashMap<String,String>(options);
+
+    int count = Integer.parseInt(options.get(COUNT));
+    keys = new ByteSequence[count];
+    comparisons = new ValueComparison[count];
+    for (int i = 0; i < count; i++) {
+      keys[i] = new ArrayByteSequence(options.get(KEY + i));
+      String op = options.get(OP + i);
+      comparisons[i] = op == null ? null :
+        ValueComparison.decode(Op.valueOf(op), options.get(OPERANDS + i));
+    }
+  }
+
+  @Override
+  public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
+    PropertyPredicateFilter copy = new PropertyPredicateFilter();
+    try {
+      copy.init(source.deepCopy(env), options, env);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    return copy;
+  }
+
+  @Override
+  protected boolean filter(Text currentRow, List<Key> rowKeys, List<Value> rowValues) {
+    for (int i = 0; i < keys.length; i++) {
+      if (!matches(i, rowKeys, rowValues)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean matches(int i, List<Key> rowKeys, List<Value> rowValues) {
+    for (int j = 0; j < rowKeys.size(); j++) {
+      if (rowKeys.get(j).getColumnFamilyData().equals(keys[i])) {
+        return comparisons[i] == null ||
+            comparisons[i].matches(rowValues.get(j).get());
+      }
+    }
+    return comparisons[i] != null && comparisons[i].matchesAbsent();
+  }
+}
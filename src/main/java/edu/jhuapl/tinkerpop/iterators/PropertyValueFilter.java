@@ -0,0 +1,105 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.iterators;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.Filter;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+
+/**
+ * Filter which compares serialized property values against
+ * one or more operands, on the tablet server. Only the value
+ * of each entry is examined, so scans using this filter should
+ * be restricted to the property's column family.
+ *
+ * <p/>Comparisons follow the semantics of the Blueprints
+ * {@code Compare} and {@code Contains} predicates, except that
+ * values of incomparable types never match an ordering comparison.
+ * Values which cannot be deserialized on the tablet server
+ * (e.g. {@link java.io.Serializable} objects) are compared by
+ * their serialized bytes, and only for (in)equality.
+ */
+public class PropertyValueFilter extends Filter {
+
+  /**
+   * Supported comparisons.
+   */
+  public static enum Op {
+    EQUAL,
+    NOT_EQUAL,
+    GREATER_THAN,
+    GREATER_THAN_EQUAL,
+    LESS_THAN,
+    LESS_THAN_EQUAL,
+    IN,
+    NOT_IN
+  }
+
+  private static final String OP = "op";
+  private static final String OPERANDS = "operands";
+
+  private ValueComparison comparison;
+
+  /**
+   * Configure the comparison. {@link Op#IN} and {@link Op#NOT_IN}
+   * take any number of operands and match values equal (or not
+   * equal) to one of them. The other comparisons take exactly
+   * one operand.
+   * @param is
+   * @param op
+   * @param operands
+   */
+  public static void setComparison(IteratorSetting is, Op op, Object... operands) {
+    is.addOption(OPERANDS, ValueComparison.encode(op, operands));
+    is.addOption(OP, op.name());
+  }
+
+  @Override
+  public void init(SortedKeyValueIterator<Key,Value> source,
+      Map<String,String> options, IteratorEnvironment env) throws IOException {
+    super.init(source, options, env);
+    comparison = ValueComparison.decode(Op.valueOf(options.get(OP)),
+        options.get(OPERANDS));
+  }
+
+  @Override
+  public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
+    PropertyValueFilter copy = (PropertyValueFilter) super.deepCopy(env);
+    copy.comparison = comparison;
+    return copy;
+  }
+
+  @Override
+  public boolean accept(Key k, Value v) {
+    return comparison.matches(v.get());
+  }
+
+  @Override
+  public boolean validateOptions(Map<String,String> options) {
+    super.validateOptions(options);
+    try {
+      Op.valueOf(options.get(OP));
+    } catch (Exception e) {
+      throw new IllegalArgumentException("Invalid or missing " + OP + " option", e);
+    }
+    return true;
+  }
+}
@@ -0,0 +1,188 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.iterators;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import org.apache.commons.codec.binary.Base64;
+
+import edu.jhuapl.tinkerpop.AccumuloByteSerializer;
+import edu.jhuapl.tinkerpop.iterators.PropertyValueFilter.Op;
+
+/**
+ * Comparison of serialized property values against
+ * a set of operands, shared by the property filters.
+ * Operands are passed to the tablet servers as
+ * comma-separated base64 strings.
+ */
+final class ValueComparison {
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  /**
+   * Placeholder for values which can't be deserialized here.
+   */
+  private static final Object UNREADABLE = new Object();
+
+  private final Op op;
+  private final byte[][] operands;
+  private final Object[] values;
+
+  private ValueComparison(Op op, byte[][] operands) {
+    this.op = op;
+    this.operands = operands;
+    this.values = new Object[operands.length];
+    for (int i = 0; i < operands.length; i++) {
+      values[i] = deserialize(operands[i]);
+    }
+  }
+
+  /**
+   * Encode the given operands as an option value.
+   * @param op
+   * @param operands
+   * @return
+   */
+  static String encode(Op op, Object... operands) {
+    if (op != Op.IN && op != Op.NOT_IN && operands.length != 1) {
+      throw new IllegalArgumentException(op + " requires exactly one operand");
+    }
+
+    StringBuilder sb = new StringBuilder();
+    for (Object operand : operands) {
+      if (sb.length() > 0) {
+        sb.append(',');
+      }
+      sb.append(new String(Base64.encodeBase64(
+          AccumuloByteSerializer.serialize(operand)), UTF8));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Decode a comparison from its option values.
+   * @param op
+   * @param encoded
+   * @return
+   */
+  static ValueComparison decode(Op op, String encoded) {
+    String[] parts = encoded == null || encoded.isEmpty() ?
+        new String[0] : encoded.split(",");
+
+    byte[][] operands = new byte[parts.length][];
+    for (int i = 0; i < parts.length; i++) {
+      operands[i] = Base64.decodeBase64(parts[i].getBytes(UTF8));
+    }
+    return new ValueComparison(op, operands);
+  }
+
+  /**
+   * Return true if the given serialized value
+   * satisfies this comparison.
+   * @param bytes
+   * @return
+   */
+  boolean matches(byte[] bytes) {
+    if (bytes.length == 0) {
+      return false;
+    }
+
+    Object value = deserialize(bytes);
+
+    if (op == Op.NOT_IN) {
+      for (int i = 0; i < operands.length; i++) {
+        if (equal(bytes, value, operands[i], values[i])) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    for (int i = 0; i < operands.length; i++) {
+      if (matches(bytes, value, operands[i], values[i])) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Return true if an element without the property
+   * satisfies this comparison.
+   * @return
+   */
+  boolean matchesAbsent() {
+    return op == Op.NOT_EQUAL || op == Op.NOT_IN;
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private boolean matches(byte[] bytes, Object value,
+      byte[] operandBytes, Object operand) {
+    switch (op) {
+      case EQUAL:
+      case IN:
+        return equal(bytes, value, operandBytes, operand);
+      case NOT_EQUAL:
+        return !equal(bytes, value, operandBytes, operand);
+      default:
+        if (value == UNREADABLE || operand == UNREADABLE ||
+            value == null || operand == null ||
+            !(value instanceof Comparable)) {
+          return false;
+        }
+
+        int cmp;
+        try {
+          cmp = ((Comparable) value).compareTo(operand);
+        } catch (ClassCastException e) {
+          return false;
+        }
+
+        switch (op) {
+          case GREATER_THAN:
+            return cmp > 0;
+          case GREATER_THAN_EQUAL:
+            return cmp >= 0;
+          case LESS_THAN:
+            return cmp < 0;
+          case LESS_THAN_EQUAL:
+            return cmp <= 0;
+          default:
+            throw new IllegalStateException("Unexpected comparison: " + op);
+        }
+    }
+  }
+
+  private static boolean equal(byte[] bytes, Object value,
+      byte[] operandBytes, Object operand) {
+    if (value == UNREADABLE || operand == UNREADABLE) {
+      return Arrays.equals(bytes, operandBytes);
+    }
+    return value == null ? operand == null : value.equals(operand);
+  }
+
+  private static Object deserialize(byte[] bytes) {
+    if (bytes[0] == AccumuloByteSerializer.SERIALIZABLE ||
+        bytes[0] == AccumuloByteSerializer.ENUM) {
+      return UNREADABLE;
+    }
+    try {
+      return AccumuloByteSerializer.deserialize(bytes);
+    } catch (RuntimeException e) {
+      return UNREADABLE;
+    }
+  }
+}
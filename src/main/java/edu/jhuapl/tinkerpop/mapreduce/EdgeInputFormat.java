@@ -3,17 +3,23 @@ package edu.jhuapl.tinkerpop.mapreduce;
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map.Entry;
 
 import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.client.RowIterator;
 import org.apache.accumulo.core.client.mapreduce.InputFormatBase;
 import org.apache.accumulo.core.client.mock.MockInstance;
 import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.user.WholeRowIterator;
+import org.apache.accumulo.core.util.Pair;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.InputSplit;
 import org.apache.hadoop.mapreduce.Job;
@@ -28,11 +34,14 @@ import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration;
 import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.InstanceType;
 import edu.jhuapl.tinkerpop.AccumuloGraphException;
 import edu.jhuapl.tinkerpop.Constants;
+import edu.jhuapl.tinkerpop.iterators.EdgeLabelFilter;
+import edu.jhuapl.tinkerpop.parser.KeyBytes;
 
 public class EdgeInputFormat extends InputFormatBase<Text,Edge> {
 
   private static final String PREFIX = EdgeInputFormat.class.getSimpleName()+".";
   private static final String GRAPH_NAME = PREFIX+"graph.name";
+  private static final String WHOLE_ROWS = PREFIX+"wholeRows";
 
   static AccumuloGraphConfiguration conf;
 
@@ -44,6 +53,7 @@ public class EdgeInputFormat extends InputFormatBase<Text,Edge> {
   private class EdgeRecordReader extends RecordReaderBase<Text,Edge> {
 
     RowIterator rowIterator;
+    boolean wholeRows;
     AccumuloGraph parent;
 
     EdgeRecordReader() {}
@@ -52,7 +62,10 @@ public class EdgeInputFormat extends InputFormatBase<Text,Edge> {
     public void initialize(InputSplit inSplit, TaskAttemptContext attempt) throws IOException {
 
       super.initialize(inSplit, attempt);
-      rowIterator = new RowIterator(scannerIterator);
+      wholeRows = attempt.getConfiguration().getBoolean(WHOLE_ROWS, false);
+      if (!wholeRows) {
+        rowIterator = new RowIterator(scannerIterator);
+      }
 
       currentK = new Text();
 
@@ -75,38 +88,57 @@ public class EdgeInputFormat extends InputFormatBase<Text,Edge> {
   
     @Override
     public boolean nextKeyValue() throws IOException, InterruptedException {
-      if (rowIterator.hasNext()) {
-        Iterator<Entry<Key,Value>> it = rowIterator.next();
+      while (hasNextRow()) {
+        Iterator<Entry<Key,Value>> it = nextRow();
 
         MapReduceEdge edge = new MapReduceEdge(parent);
+        boolean labeled = false;
         while (it.hasNext()) {
           Entry<Key,Value> entry = it.next();
           numKeysRead++;
 
           currentKey = entry.getKey();
-          String eid = currentKey.getRow().toString();
-          String colf = currentKey.getColumnFamily().toString();
-          switch (colf) {
-            case Constants.LABEL:
-              currentK.set(eid);
-              edge.prepareId(eid);
-              String[] ids = currentKey.getColumnQualifier().toString().split(Constants.ID_DELIM);
-              edge.setSourceId(ids[1]);
-              edge.setDestId(ids[0]);
-              edge.setLabel(AccumuloByteSerializer.deserialize(entry.getValue().get()).toString());
-              break;
-            default:
-              String propertyKey = currentKey.getColumnFamily().toString();
-              Object propertyValue = AccumuloByteSerializer.deserialize(entry.getValue().get());
-              edge.prepareProperty(propertyKey, propertyValue);
+          ByteSequence colf = currentKey.getColumnFamilyData();
+          if (KeyBytes.equals(colf, Constants.LABEL_BYTES)) {
+            String eid = KeyBytes.toString(currentKey.getRowData());
+            currentK.set(eid);
+            edge.prepareId(eid);
+            ByteSequence colq = currentKey.getColumnQualifierData();
+            edge.setSourceId(KeyBytes.afterDelim(colq));
+            edge.setDestId(KeyBytes.beforeDelim(colq));
+            edge.setLabel(AccumuloByteSerializer.deserialize(entry.getValue().get()).toString());
+            labeled = true;
+          } else {
+            String propertyKey = KeyBytes.toString(colf);
+            Object propertyValue = AccumuloByteSerializer.deserialize(entry.getValue().get());
+            edge.prepareProperty(propertyKey, propertyValue);
           }
         }
+
+        // Rows whose label entry was filtered out
+        // (see setEdgeLabels) are skipped.
+        if (!labeled) {
+          continue;
+        }
         currentV = edge;
         return true;
       }
       return false;
     }
 
+    private boolean hasNextRow() {
+      return wholeRows ? scannerIterator.hasNext() : rowIterator.hasNext();
+    }
+
+    private Iterator<Entry<Key,Value>> nextRow() throws IOException {
+      if (wholeRows) {
+        Entry<Key,Value> entry = scannerIterator.next();
+        return WholeRowIterator.decodeRow(entry.getKey(),
+            entry.getValue()).entrySet().iterator();
+      }
+      return rowIterator.next();
+    }
+
   }
 
   public static void setAccumuloGraphConfiguration(Job job, AccumuloGraphConfiguration cfg) throws AccumuloSecurityException {
@@ -119,7 +151,49 @@ public class EdgeInputFormat extends InputFormatBase<Text,Edge> {
       EdgeInputFormat.setZooKeeperInstance(job, cfg.getInstanceName(), cfg.getZooKeeperHosts());
     }
     job.getConfiguration().set(GRAPH_NAME, cfg.getGraphName());
+    if (cfg.getWholeRowScans()) {
+      setWholeRows(job);
+    }
+
+  }
+
+  /**
+   * Only read edges with one of the given labels.
+   * Labels are matched on the tablet servers.
+   * @param job
+   * @param labels
+   */
+  public static void setEdgeLabels(Job job, String... labels) {
+    IteratorSetting is = new IteratorSetting(10, "edgeLabelFilter", EdgeLabelFilter.class);
+    EdgeLabelFilter.setLabels(is, labels);
+    EdgeInputFormat.addIterator(job, is);
+  }
+
+  /**
+   * Group each row on the tablet servers, so each
+   * element is read as a single key/value pair.
+   * Applied after any other filters.
+   * @param job
+   */
+  public static void setWholeRows(Job job) {
+    EdgeInputFormat.addIterator(job, new IteratorSetting(50, "wholeRow",
+        WholeRowIterator.class));
+    job.getConfiguration().setBoolean(WHOLE_ROWS, true);
+  }
 
+  /**
+   * Only read the given properties of each edge,
+   * skipping its other properties.
+   * @param job
+   * @param keys
+   */
+  public static void setProperties(Job job, String... keys) {
+    List<Pair<Text,Text>> columns = new ArrayList<Pair<Text,Text>>();
+    columns.add(new Pair<Text,Text>(new Text(Constants.LABEL), null));
+    for (String key : keys) {
+      columns.add(new Pair<Text,Text>(new Text(key), null));
+    }
+    EdgeInputFormat.fetchColumns(job, columns);
   }
 
 }
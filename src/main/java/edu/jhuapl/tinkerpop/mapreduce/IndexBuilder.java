@@ -0,0 +1,474 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.mapreduce;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Collection;
+import java.util.Set;
+
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.client.mapreduce.AccumuloFileOutputFormat;
+import org.apache.accumulo.core.client.mapreduce.AccumuloOutputFormat;
+import org.apache.accumulo.core.client.mapreduce.lib.partition.RangePartitioner;
+import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.accumulo.core.data.ColumnUpdate;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.util.TextUtil;
+import org.apache.commons.codec.binary.Base64;
+import org.apache.hadoop.conf.Configurable;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.conf.Configured;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.Partitioner;
+import org.apache.hadoop.mapreduce.Reducer;
+import org.apache.hadoop.util.Tool;
+import org.apache.hadoop.util.ToolRunner;
+
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Element;
+import com.tinkerpop.blueprints.GraphFactory;
+import com.tinkerpop.blueprints.Index;
+import com.tinkerpop.blueprints.Parameter;
+import com.tinkerpop.blueprints.Vertex;
+
+import edu.jhuapl.tinkerpop.AccumuloGraph;
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration;
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.InstanceType;
+import edu.jhuapl.tinkerpop.AccumuloGraphException;
+import edu.jhuapl.tinkerpop.AccumuloIndex;
+import edu.jhuapl.tinkerpop.Constants;
+import edu.jhuapl.tinkerpop.mutator.Mutator;
+import edu.jhuapl.tinkerpop.mutator.index.IndexValueMutator;
+import edu.jhuapl.tinkerpop.mutator.index.ReverseIndexMutator;
+
+/**
+ * MapReduce job which builds key indexes or named indexes
+ * from the element tables. Only the given property keys are
+ * read, and an index entry is written for each element having
+ * a value for one of them. Entries are written either through
+ * {@link AccumuloOutputFormat}, or, if a bulk load directory
+ * is given, as sorted files which are imported into the index
+ * tables once the job completes. Files are written by one
+ * reducer per tablet of the index table, or, if it has no splits,
+ * by the job's configured number of reducers.
+ * <p/>For key indexes, the keys are recorded as indexed before
+ * the job runs, so that concurrent writes are indexed as well
+ * (lookups may be incomplete until it finishes). Named indexes
+ * are created if they don't exist, and their entries are also
+ * recorded in the reverse index if the index is reverse indexed.
+ * <p/>Existing index entries are not removed. Run from the
+ * command line as:
+ * <pre>
+ * IndexBuilder [-index &lt;name&gt;] [-bulk &lt;dir&gt;] &lt;zookeepers&gt; &lt;instance&gt;
+ *     &lt;user&gt; &lt;password&gt; &lt;graph&gt; vertex|edge &lt;key&gt;[,&lt;key&gt;...]
+ * </pre>
+ */
+public class IndexBuilder extends Configured implements Tool {
+
+  private static final String PREFIX = IndexBuilder.class.getSimpleName()+".";
+  private static final String KEYS = PREFIX+"keys";
+  private static final String INDEX_NAME = PREFIX+"indexName";
+  private static final String INDEX_TABLE = PREFIX+"indexTable";
+  private static final String REVERSE_TABLE = PREFIX+"reverseTable";
+  private static final String REVERSE = PREFIX+"reverse";
+
+  /**
+   * Build the key index for the given keys.
+   * @param cfg
+   * @param elementClass
+   * @param bulkDirectory directory for bulk import files,
+   *   or null to write entries directly
+   * @param keys
+   * @return whether the job succeeded
+   * @throws Exception
+   */
+  public boolean buildKeyIndex(AccumuloGraphConfiguration cfg,
+      Class<? extends Element> elementClass, String bulkDirectory,
+      String... keys) throws Exception {
+    // Record the keys first, as createKeyIndex does, so that
+    // properties written while the job runs are indexed too.
+    AccumuloGraph graph = (AccumuloGraph) GraphFactory.open(cfg.getConfiguration());
+    try {
+      Set<String> indexed = graph.getIndexedKeys(elementClass);
+      for (String key : keys) {
+        if (!indexed.contains(key)) {
+          graph.createKeyIndex(key, elementClass,
+              new Parameter<String, Boolean>(Constants.REBUILD_INDEX, false));
+        }
+      }
+    } finally {
+      graph.shutdown();
+    }
+
+    String table = Vertex.class.equals(elementClass) ?
+        cfg.getVertexKeyIndexTableName() : cfg.getEdgeKeyIndexTableName();
+    return build(cfg, elementClass, null, table, null, bulkDirectory, keys);
+  }
+
+  /**
+   * Build the named index with the given name, indexing
+   * the given keys. The index is created if needed.
+   * @param cfg
+   * @param elementClass
+   * @param indexName
+   * @param bulkDirectory directory for bulk import files,
+   *   or null to write entries directly
+   * @param keys
+   * @return whether the job succeeded
+   * @throws Exception
+   */
+  public boolean buildNamedIndex(AccumuloGraphConfiguration cfg,
+      Class<? extends Element> elementClass, String indexName,
+      String bulkDirectory, String... keys) throws Exception {
+    AccumuloIndex<?> index;
+    AccumuloGraph graph = (AccumuloGraph) GraphFactory.open(cfg.getConfiguration());
+    try {
+      Index<? extends Element> existing = graph.getIndex(indexName, elementClass);
+      index = (AccumuloIndex<?>) (existing != null ? existing :
+        graph.createIndex(indexName, elementClass));
+    } finally {
+      graph.shutdown();
+    }
+
+    return build(cfg, elementClass, indexName, index.getTableName(),
+        index.isReverseIndexed() ? cfg.getReverseIndexTableName() : null,
+        bulkDirectory, keys);
+  }
+
+  private boolean build(AccumuloGraphConfiguration cfg,
+      Class<? extends Element> elementClass, String indexName,
+      String indexTable, String reverseTable, String bulkDirectory,
+      String[] keys) throws Exception {
+    if (bulkDirectory == null) {
+      Job job = createJob(cfg, elementClass, indexName, keys);
+      job.getConfiguration().set(INDEX_TABLE, indexTable);
+      if (reverseTable != null) {
+        job.getConfiguration().set(REVERSE_TABLE, reverseTable);
+      }
+
+      job.setMapperClass(LiveIndexMapper.class);
+      job.setNumReduceTasks(0);
+      job.setOutputKeyClass(Text.class);
+      job.setOutputValueClass(Mutation.class);
+      job.setOutputFormatClass(AccumuloOutputFormat.class);
+      AccumuloOutputFormat.setConnectorInfo(job, cfg.getUser(),
+          new PasswordToken(cfg.getPassword()));
+      if (cfg.getInstanceType().equals(InstanceType.Mock)) {
+        AccumuloOutputFormat.setMockInstance(job, cfg.getInstanceName());
+      } else {
+        AccumuloOutputFormat.setZooKeeperInstance(job, cfg.getInstanceName(),
+            cfg.getZooKeeperHosts());
+      }
+      AccumuloOutputFormat.setBatchWriterOptions(job, cfg.getBatchWriterConfig());
+      return job.waitForCompletion(true);
+    }
+
+    Path dir = new Path(bulkDirectory);
+    FileSystem fs = dir.getFileSystem(getBaseConf());
+    if (fs.exists(dir) && fs.listStatus(dir).length > 0) {
+      throw new AccumuloGraphException("Bulk load directory is not empty: " + dir);
+    }
+
+    // Files hold entries for a single table, so the reverse
+    // index entries are written by a second job.
+    if (!buildFiles(cfg, elementClass, indexName, keys, false,
+        indexTable, new Path(dir, "index"), fs)) {
+      return false;
+    }
+    if (reverseTable != null && !buildFiles(cfg, elementClass, indexName,
+        keys, true, reverseTable, new Path(dir, "reverse"), fs)) {
+      return false;
+    }
+
+    fs.delete(dir, true);
+    return true;
+  }
+
+  /**
+   * Write the index or reverse index entries as sorted
+   * files, and import them into the given table.
+   */
+  private boolean buildFiles(AccumuloGraphConfiguration cfg,
+      Class<? extends Element> elementClass, String indexName, String[] keys,
+      boolean reverse, String table, Path workDir, FileSystem fs)
+          throws Exception {
+    Job job = createJob(cfg, elementClass, indexName, keys);
+    job.getConfiguration().setBoolean(REVERSE, reverse);
+    // Only sorted files may be imported.
+    job.getConfiguration().setBoolean("mapreduce.fileoutputcommitter.marksuccessfuljobs", false);
+
+    job.setMapperClass(FileIndexMapper.class);
+    job.setMapOutputKeyClass(Key.class);
+    job.setMapOutputValueClass(Value.class);
+    job.setReducerClass(Reducer.class);
+    job.setOutputKeyClass(Key.class);
+    job.setOutputValueClass(Value.class);
+    job.setOutputFormatClass(AccumuloFileOutputFormat.class);
+
+    // Sort and write with one reducer per tablet of the table,
+    // so each file falls within a single tablet.
+    Collection<Text> splits = cfg.getConnector().tableOperations().listSplits(table);
+    if (!splits.isEmpty()) {
+      Path splitFile = new Path(workDir, "splits.txt");
+      PrintStream out = new PrintStream(fs.create(splitFile), false, "UTF-8");
+      try {
+        for (Text split : splits) {
+          out.println(new String(Base64.encodeBase64(TextUtil.getBytes(split)), "UTF-8"));
+        }
+      } finally {
+        out.close();
+      }
+
+      job.setPartitionerClass(TabletPartitioner.class);
+      RangePartitioner.setSplitFile(job, fs.makeQualified(splitFile).toString());
+      job.setNumReduceTasks(splits.size() + 1);
+    }
+
+    Path files = new Path(workDir, "files");
+    Path failures = new Path(workDir, "failures");
+    AccumuloFileOutputFormat.setOutputPath(job, files);
+    if (!job.waitForCompletion(true)) {
+      return false;
+    }
+
+    fs.mkdirs(failures);
+    importDirectory(cfg, table, fs.makeQualified(files),
+        fs.makeQualified(failures));
+    FileStatus[] failed = fs.listStatus(failures);
+    if (failed != null && failed.length > 0) {
+      throw new AccumuloGraphException("Failed to import files into "
+          + table + "; see " + failures);
+    }
+    return true;
+  }
+
+  private void importDirectory(AccumuloGraphConfiguration cfg, String table,
+      Path files, Path failures) throws AccumuloException,
+      AccumuloSecurityException, TableNotFoundException, IOException {
+    cfg.getConnector().tableOperations().importDirectory(table,
+        files.toString(), failures.toString(), false);
+  }
+
+  private Job createJob(AccumuloGraphConfiguration cfg,
+      Class<? extends Element> elementClass, String indexName,
+      String[] keys) throws IOException, AccumuloSecurityException {
+    Job job = Job.getInstance(getBaseConf(), getClass().getSimpleName()
+        + "_" + cfg.getGraphName() + "_" + System.currentTimeMillis());
+    job.setJarByClass(getClass());
+
+    if (Vertex.class.equals(elementClass)) {
+      job.setInputFormatClass(VertexInputFormat.class);
+      VertexInputFormat.setAccumuloGraphConfiguration(job, cfg);
+      VertexInputFormat.setProperties(job, keys);
+    } else if (Edge.class.equals(elementClass)) {
+      job.setInputFormatClass(EdgeInputFormat.class);
+      EdgeInputFormat.setAccumuloGraphConfiguration(job, cfg);
+      EdgeInputFormat.setProperties(job, keys);
+    } else {
+      throw new IllegalArgumentException("elementClass must be Vertex or Edge");
+    }
+
+    job.getConfiguration().setStrings(KEYS, keys);
+    if (indexName != null) {
+      job.getConfiguration().set(INDEX_NAME, indexName);
+    }
+    return job;
+  }
+
+  private Configuration getBaseConf() {
+    return getConf() != null ? getConf() : new Configuration();
+  }
+
+  @Override
+  public int run(String[] args) throws Exception {
+    String indexName = null;
+    String bulkDirectory = null;
+
+    int i = 0;
+    for (; i + 1 < args.length && args[i].startsWith("-"); i += 2) {
+      if (args[i].equals("-index")) {
+        indexName = args[i + 1];
+      } else if (args[i].equals("-bulk")) {
+        bulkDirectory = args[i + 1];
+      } else {
+        return usage();
+      }
+    }
+    if (args.length - i != 7) {
+      return usage();
+    }
+
+    AccumuloGraphConfiguration cfg = new AccumuloGraphConfiguration()
+        .setInstanceType(InstanceType.Distributed)
+        .setZooKeeperHosts(args[i]).setInstanceName(args[i + 1])
+        .setUser(args[i + 2]).setPassword(args[i + 3])
+        .setGraphName(args[i + 4]);
+
+    Class<? extends Element> elementClass;
+    if (args[i + 5].equals("vertex")) {
+      elementClass = Vertex.class;
+    } else if (args[i + 5].equals("edge")) {
+      elementClass = Edge.class;
+    } else {
+      return usage();
+    }
+    String[] keys = args[i + 6].split(",");
+
+    boolean success = indexName != null ?
+        buildNamedIndex(cfg, elementClass, indexName, bulkDirectory, keys) :
+          buildKeyIndex(cfg, elementClass, bulkDirectory, keys);
+    return success ? 0 : 1;
+  }
+
+  private int usage() {
+    System.err.println("Usage: " + getClass().getSimpleName()
+        + " [-index <name>] [-bulk <dir>] <zookeepers> <instance>"
+        + " <user> <password> <graph> vertex|edge <key>[,<key>...]");
+    return 2;
+  }
+
+  public static void main(String[] args) throws Exception {
+    System.exit(ToolRunner.run(new IndexBuilder(), args));
+  }
+
+  /**
+   * Partitions entries by row along the splits
+   * given to {@link RangePartitioner}.
+   */
+  public static class TabletPartitioner extends Partitioner<Key, Value>
+      implements Configurable {
+
+    private final RangePartitioner ranges = new RangePartitioner();
+
+    @Override
+    public int getPartition(Key key, Value value, int numPartitions) {
+      return ranges.getPartition(key.getRow(), value, numPartitions);
+    }
+
+    @Override
+    public Configuration getConf() {
+      return ranges.getConf();
+    }
+
+    @Override
+    public void setConf(Configuration conf) {
+      ranges.setConf(conf);
+    }
+  }
+
+  /**
+   * Base mapper, which passes each of the element's
+   * values for the indexed keys to {@link #write}.
+   */
+  abstract static class IndexMapper<K, V> extends Mapper<Text, Element, K, V> {
+
+    String[] keys;
+    String indexName;
+
+    @Override
+    protected void setup(Context context) throws IOException, InterruptedException {
+      keys = context.getConfiguration().getStrings(KEYS);
+      indexName = context.getConfiguration().get(INDEX_NAME);
+    }
+
+    @Override
+    protected void map(Text id, Element element, Context context)
+        throws IOException, InterruptedException {
+      for (String key : keys) {
+        Object value = element.getProperty(key);
+        if (value != null) {
+          write(context, element, key, value);
+        }
+      }
+    }
+
+    abstract void write(Context context, Element element, String key,
+        Object value) throws IOException, InterruptedException;
+  }
+
+  /**
+   * Writes index and reverse index mutations
+   * for {@link AccumuloOutputFormat}.
+   */
+  static class LiveIndexMapper extends IndexMapper<Text, Mutation> {
+
+    Text indexTable;
+    Text reverseTable;
+
+    @Override
+    protected void setup(Context context) throws IOException, InterruptedException {
+      super.setup(context);
+      indexTable = new Text(context.getConfiguration().get(INDEX_TABLE));
+      String reverse = context.getConfiguration().get(REVERSE_TABLE);
+      reverseTable = reverse != null ? new Text(reverse) : null;
+    }
+
+    @Override
+    void write(Context context, Element element, String key, Object value)
+        throws IOException, InterruptedException {
+      for (Mutation m : new IndexValueMutator.Add(element, key, value).create()) {
+        context.write(indexTable, m);
+      }
+      if (reverseTable != null) {
+        for (Mutation m : new ReverseIndexMutator.Add(indexName,
+            element, key, value).create()) {
+          context.write(reverseTable, m);
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes either index or reverse index entries, to be
+   * sorted and written to files for bulk import.
+   */
+  static class FileIndexMapper extends IndexMapper<Key, Value> {
+
+    boolean reverse;
+    long timestamp;
+
+    @Override
+    protected void setup(Context context) throws IOException, InterruptedException {
+      super.setup(context);
+      reverse = context.getConfiguration().getBoolean(REVERSE, false);
+      timestamp = System.currentTimeMillis();
+    }
+
+    @Override
+    void write(Context context, Element element, String key, Object value)
+        throws IOException, InterruptedException {
+      Mutator mutator = reverse ?
+          new ReverseIndexMutator.Add(indexName, element, key, value) :
+            new IndexValueMutator.Add(element, key, value);
+      for (Mutation m : mutator.create()) {
+        for (ColumnUpdate update : m.getUpdates()) {
+          context.write(new Key(m.getRow(), update.getColumnFamily(),
+              update.getColumnQualifier(), update.getColumnVisibility(),
+              timestamp), new Value(update.getValue()));
+        }
+      }
+    }
+  }
+}
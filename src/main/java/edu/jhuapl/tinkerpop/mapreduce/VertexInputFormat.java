@@ -3,17 +3,23 @@ package edu.jhuapl.tinkerpop.mapreduce;
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map.Entry;
 
 import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.client.RowIterator;
 import org.apache.accumulo.core.client.mapreduce.InputFormatBase;
 import org.apache.accumulo.core.client.mock.MockInstance;
 import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.user.WholeRowIterator;
+import org.apache.accumulo.core.util.Pair;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.InputSplit;
 import org.apache.hadoop.mapreduce.Job;
@@ -28,12 +34,15 @@ import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration;
 import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.InstanceType;
 import edu.jhuapl.tinkerpop.AccumuloGraphException;
 import edu.jhuapl.tinkerpop.Constants;
+import edu.jhuapl.tinkerpop.iterators.EdgeLabelFilter;
+import edu.jhuapl.tinkerpop.parser.KeyBytes;
 
 public class VertexInputFormat extends InputFormatBase<Text,Vertex> {
   static AccumuloGraphConfiguration conf;
 
   private static final String PREFIX = VertexInputFormat.class.getSimpleName()+".";
   private static final String GRAPH_NAME = PREFIX+"graph.name";
+  private static final String WHOLE_ROWS = PREFIX+"wholeRows";
 
   @Override
   public RecordReader<Text,Vertex> createRecordReader(InputSplit split,
@@ -44,6 +53,7 @@ public class VertexInputFormat extends InputFormatBase<Text,Vertex> {
   private class VertexRecordReader extends RecordReaderBase<Text,Vertex> {
 
     RowIterator rowIterator;
+    boolean wholeRows;
     AccumuloGraph parent;
 
     VertexRecordReader() {}
@@ -52,7 +62,10 @@ public class VertexInputFormat extends InputFormatBase<Text,Vertex> {
     public void initialize(InputSplit inSplit, TaskAttemptContext attempt) throws IOException {
 
       super.initialize(inSplit, attempt);
-      rowIterator = new RowIterator(scannerIterator);
+      wholeRows = attempt.getConfiguration().getBoolean(WHOLE_ROWS, false);
+      if (!wholeRows) {
+        rowIterator = new RowIterator(scannerIterator);
+      }
 
       currentK = new Text();
 
@@ -77,36 +90,34 @@ public class VertexInputFormat extends InputFormatBase<Text,Vertex> {
 
     @Override
     public boolean nextKeyValue() throws IOException, InterruptedException {
-      if (rowIterator.hasNext()) {
-        Iterator<Entry<Key,Value>> it = rowIterator.next();
+      if (hasNextRow()) {
+        Iterator<Entry<Key,Value>> it = nextRow();
 
         MapReduceVertex vertex = new MapReduceVertex(parent);
+        String vid = null;
         while (it.hasNext()) {
           Entry<Key,Value> entry = it.next();
           numKeysRead++;
 
           currentKey = entry.getKey();
-          String vid = currentKey.getRow().toString();
-          String colf = currentKey.getColumnFamily().toString();
-          switch (colf) {
-            case Constants.LABEL:
-              currentK.set(vid);
-              vertex.prepareId(vid);
-              break;
-            case Constants.IN_EDGE:
-              String[] parts = currentKey.getColumnQualifier().toString().split(Constants.ID_DELIM);
-              String label = new String(entry.getValue().get());
-              vertex.prepareEdge(parts[1], parts[0], label, vid);
-              break;
-            case Constants.OUT_EDGE:
-              parts = currentKey.getColumnQualifier().toString().split(Constants.ID_DELIM);
-              label = new String(entry.getValue().get());
-              vertex.prepareEdge(parts[1], vid, label, parts[0]);
-              break;
-            default:
-              String propertyKey = currentKey.getColumnFamily().toString();
-              Object propertyValue = AccumuloByteSerializer.deserialize(entry.getValue().get());
-              vertex.prepareProperty(propertyKey, propertyValue);
+          if (vid == null) {
+            vid = KeyBytes.toString(currentKey.getRowData());
+          }
+          ByteSequence colf = currentKey.getColumnFamilyData();
+          ByteSequence colq = currentKey.getColumnQualifierData();
+          if (KeyBytes.equals(colf, Constants.LABEL_BYTES)) {
+            currentK.set(vid);
+            vertex.prepareId(vid);
+          } else if (KeyBytes.equals(colf, Constants.IN_EDGE_BYTES)) {
+            vertex.prepareEdge(KeyBytes.afterDelim(colq), KeyBytes.beforeDelim(colq),
+                KeyBytes.afterDelim(entry.getValue().get()), vid);
+          } else if (KeyBytes.equals(colf, Constants.OUT_EDGE_BYTES)) {
+            vertex.prepareEdge(KeyBytes.afterDelim(colq), vid,
+                KeyBytes.afterDelim(entry.getValue().get()), KeyBytes.beforeDelim(colq));
+          } else if (!KeyBytes.equals(colf, Constants.DEGREE_BYTES)) {
+            String propertyKey = KeyBytes.toString(colf);
+            Object propertyValue = AccumuloByteSerializer.deserialize(entry.getValue().get());
+            vertex.prepareProperty(propertyKey, propertyValue);
           }
         }
         currentV = vertex;
@@ -115,6 +126,19 @@ public class VertexInputFormat extends InputFormatBase<Text,Vertex> {
       return false;
     }
 
+    private boolean hasNextRow() {
+      return wholeRows ? scannerIterator.hasNext() : rowIterator.hasNext();
+    }
+
+    private Iterator<Entry<Key,Value>> nextRow() throws IOException {
+      if (wholeRows) {
+        Entry<Key,Value> entry = scannerIterator.next();
+        return WholeRowIterator.decodeRow(entry.getKey(),
+            entry.getValue()).entrySet().iterator();
+      }
+      return rowIterator.next();
+    }
+
   }
 
   public static void setAccumuloGraphConfiguration(Job job, AccumuloGraphConfiguration cfg) throws AccumuloSecurityException {
@@ -127,6 +151,48 @@ public class VertexInputFormat extends InputFormatBase<Text,Vertex> {
       VertexInputFormat.setZooKeeperInstance(job, cfg.getInstanceName(), cfg.getZooKeeperHosts());
     }
     job.getConfiguration().set(GRAPH_NAME, cfg.getGraphName());
+    if (cfg.getWholeRowScans()) {
+      setWholeRows(job);
+    }
+  }
+
+  /**
+   * Only read edges with one of the given labels
+   * for each vertex. Labels are matched on the tablet servers.
+   * @param job
+   * @param labels
+   */
+  public static void setEdgeLabels(Job job, String... labels) {
+    IteratorSetting is = new IteratorSetting(10, "edgeLabelFilter", EdgeLabelFilter.class);
+    EdgeLabelFilter.setLabels(is, labels);
+    VertexInputFormat.addIterator(job, is);
+  }
+
+  /**
+   * Group each row on the tablet servers, so each
+   * element is read as a single key/value pair.
+   * Applied after any other filters.
+   * @param job
+   */
+  public static void setWholeRows(Job job) {
+    VertexInputFormat.addIterator(job, new IteratorSetting(50, "wholeRow",
+        WholeRowIterator.class));
+    job.getConfiguration().setBoolean(WHOLE_ROWS, true);
+  }
+
+  /**
+   * Only read the given properties of each vertex,
+   * skipping its other properties and edges.
+   * @param job
+   * @param keys
+   */
+  public static void setProperties(Job job, String... keys) {
+    List<Pair<Text,Text>> columns = new ArrayList<Pair<Text,Text>>();
+    columns.add(new Pair<Text,Text>(new Text(Constants.LABEL), null));
+    for (String key : keys) {
+      columns.add(new Pair<Text,Text>(new Text(key), null));
+    }
+    VertexInputFormat.fetchColumns(job, columns);
   }
 
 }
@@ -14,18 +14,83 @@
  */
 package edu.jhuapl.tinkerpop.mutator.edge;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.Map.Entry;
+
 import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.iterators.LongCombiner;
 
 import com.google.common.collect.Lists;
+import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.Edge;
 
 import edu.jhuapl.tinkerpop.Constants;
+import edu.jhuapl.tinkerpop.mutator.Mutator;
 
 public class EdgeEndpointsMutator {
 
   private EdgeEndpointsMutator() {
   }
 
+  /**
+   * Return the degree counter column qualifier
+   * for the given direction and label.
+   * @param direction
+   * @param label
+   * @return
+   */
+  public static String getDegreeQualifier(Direction direction, String label) {
+    return direction.name() + Constants.ID_DELIM + label;
+  }
+
+  /**
+   * Add the given change to the vertex's degree counter
+   * for the given direction and label. Changes are summed
+   * by the combiner on the vertex table.
+   */
+  private static void putDegree(Mutation m, Direction direction,
+      String label, long change) {
+    putDegree(m, getDegreeQualifier(direction, label), change);
+  }
+
+  private static void putDegree(Mutation m, String qualifier, long change) {
+    m.put(Constants.DEGREE.getBytes(), qualifier.getBytes(),
+        LongCombiner.VAR_LEN_ENCODER.encode(change));
+  }
+
+  /**
+   * Adjusts a vertex's degree counters by the given
+   * changes, keyed by degree qualifier. Zero changes
+   * are skipped.
+   */
+  public static class AdjustDegrees implements Mutator {
+
+    private final String vertexId;
+    private final Map<String, Long> changes;
+
+    public AdjustDegrees(String vertexId, Map<String, Long> changes) {
+      this.vertexId = vertexId;
+      this.changes = changes;
+    }
+
+    @Override
+    public Iterable<Mutation> create() {
+      if (vertexId == null) {
+        return Collections.emptyList();
+      }
+
+      Mutation m = new Mutation(vertexId);
+      for (Entry<String, Long> change : changes.entrySet()) {
+        if (change.getValue() != 0) {
+          putDegree(m, change.getKey(), change.getValue());
+        }
+      }
+      return m.size() > 0 ? Collections.singletonList(m)
+          : Collections.<Mutation>emptyList();
+    }
+  }
+
   public static class Add extends BaseEdgeMutator {
 
     public Add(Edge edge) {
@@ -42,11 +107,13 @@ public class EdgeEndpointsMutator {
       in.put(Constants.IN_EDGE.getBytes(),
           (outVertexId + Constants.ID_DELIM + id).getBytes(),
           (Constants.ID_DELIM + label).getBytes());
+      putDegree(in, Direction.IN, label, 1);
 
       Mutation out = new Mutation(outVertexId);
       out.put(Constants.OUT_EDGE.getBytes(),
           (inVertexId + Constants.ID_DELIM + id).getBytes(),
           (Constants.ID_DELIM + label).getBytes());
+      putDegree(out, Direction.OUT, label, 1);
 
       return Lists.newArrayList(in, out);
     }
@@ -67,10 +134,12 @@ public class EdgeEndpointsMutator {
       Mutation in = new Mutation(inVertexId);
       in.putDelete(Constants.IN_EDGE.getBytes(),
           (outVertexId + Constants.ID_DELIM + id).getBytes());
+      putDegree(in, Direction.IN, label, -1);
 
       Mutation out = new Mutation(outVertexId);
       out.putDelete(Constants.OUT_EDGE.getBytes(),
           (inVertexId + Constants.ID_DELIM + id).getBytes());
+      putDegree(out, Direction.OUT, label, -1);
 
       return Lists.newArrayList(in, out);
     }
@@ -35,19 +35,26 @@ public class IndexMetadataMutator {
     private final String key;
     private final Class<? extends Element> elementClass;
     private final IndexMetadataEntryType entryType;
+    private final byte[] value;
 
     public Add(String key, Class<? extends Element> elementClass,
         IndexMetadataEntryType entryType) {
+      this(key, elementClass, entryType, Constants.EMPTY);
+    }
+
+    public Add(String key, Class<? extends Element> elementClass,
+        IndexMetadataEntryType entryType, byte[] value) {
       this.key = key;
       this.elementClass = elementClass;
       this.entryType = entryType;
+      this.value = value;
     }
 
     @Override
     public Iterable<Mutation> create() {
       Mutation m = new Mutation(key);
       m.put(entryType.name().getBytes(),
-          elementClass.getName().getBytes(), Constants.EMPTY);
+          elementClass.getName().getBytes(), value);
       return Lists.newArrayList(m);
     }
   }
@@ -73,4 +80,40 @@ public class IndexMetadataMutator {
       return Lists.newArrayList(m);
     }
   }
+
+  /**
+   * Replace the metadata version marker, so that other
+   * clients know to reload their cached metadata.
+   */
+  public static class Version implements Mutator {
+
+    private final String version;
+
+    public Version(String version) {
+      this.version = version;
+    }
+
+    @Override
+    public Iterable<Mutation> create() {
+      Mutation m = new Mutation(Constants.INDEX_METADATA_VERSION);
+      m.put(Constants.INDEX_METADATA_VERSION.getBytes(),
+          Constants.EMPTY, version.getBytes());
+      return Lists.newArrayList(m);
+    }
+  }
+
+  /**
+   * Record that index rows hold values in the
+   * current, order-preserving encoding.
+   */
+  public static class ValueFormat implements Mutator {
+
+    @Override
+    public Iterable<Mutation> create() {
+      Mutation m = new Mutation(Constants.INDEX_VALUE_FORMAT);
+      m.put(Constants.INDEX_VALUE_FORMAT.getBytes(), Constants.EMPTY,
+          Constants.SORTABLE_VALUE_FORMAT.getBytes());
+      return Lists.newArrayList(m);
+    }
+  }
 }
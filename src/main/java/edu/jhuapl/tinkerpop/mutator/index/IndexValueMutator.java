@@ -32,12 +32,16 @@ public class IndexValueMutator {
 
   public static class Add implements Mutator {
 
-    private final Element element;
+    private final String id;
     private final String key;
     private final Object value;
 
     public Add(Element element, String key, Object value) {
-      this.element = element;
+      this(element.getId().toString(), key, value);
+    }
+
+    public Add(String id, String key, Object value) {
+      this.id = id;
       this.key = key;
       this.value = value;
     }
@@ -46,8 +50,7 @@ public class IndexValueMutator {
     public Iterable<Mutation> create() {
       byte[] bytes = AccumuloByteSerializer.serialize(value);
       Mutation m = new Mutation(bytes);
-      m.put(key.getBytes(), element.getId().toString()
-          .getBytes(), Constants.EMPTY);
+      m.put(key.getBytes(), id.getBytes(), Constants.EMPTY);
       return Lists.newArrayList(m);
     }
   }
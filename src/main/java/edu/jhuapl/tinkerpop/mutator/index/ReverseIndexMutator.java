@@ -0,0 +1,96 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.mutator.index;
+
+import org.apache.accumulo.core.data.Mutation;
+
+import com.google.common.collect.Lists;
+import com.tinkerpop.blueprints.Element;
+
+import edu.jhuapl.tinkerpop.AccumuloByteSerializer;
+import edu.jhuapl.tinkerpop.Constants;
+import edu.jhuapl.tinkerpop.mutator.Mutator;
+
+/**
+ * Mutators for the reverse index table, which records
+ * the named index entries referencing each element.
+ * Entries are keyed by element id, with the index name
+ * as column family, and the property key and serialized
+ * value as column qualifier.
+ */
+public class ReverseIndexMutator {
+
+  private ReverseIndexMutator() { }
+
+  /**
+   * Column qualifier for the given key and value.
+   * @param key
+   * @param value
+   * @return
+   */
+  public static byte[] getQualifier(String key, Object value) {
+    byte[] keyBytes = (key + Constants.ID_DELIM).getBytes();
+    byte[] valueBytes = AccumuloByteSerializer.serialize(value);
+
+    byte[] cq = new byte[keyBytes.length + valueBytes.length];
+    System.arraycopy(keyBytes, 0, cq, 0, keyBytes.length);
+    System.arraycopy(valueBytes, 0, cq, keyBytes.length, valueBytes.length);
+    return cq;
+  }
+
+  public static class Add implements Mutator {
+
+    private final String indexName;
+    private final Element element;
+    private final String key;
+    private final Object value;
+
+    public Add(String indexName, Element element, String key, Object value) {
+      this.indexName = indexName;
+      this.element = element;
+      this.key = key;
+      this.value = value;
+    }
+
+    @Override
+    public Iterable<Mutation> create() {
+      Mutation m = new Mutation(element.getId().toString());
+      m.put(indexName.getBytes(), getQualifier(key, value), Constants.EMPTY);
+      return Lists.newArrayList(m);
+    }
+  }
+
+  public static class Delete implements Mutator {
+
+    private final String indexName;
+    private final Element element;
+    private final String key;
+    private final Object value;
+
+    public Delete(String indexName, Element element, String key, Object value) {
+      this.indexName = indexName;
+      this.element = element;
+      this.key = key;
+      this.value = value;
+    }
+
+    @Override
+    public Iterable<Mutation> create() {
+      Mutation m = new Mutation(element.getId().toString());
+      m.putDelete(indexName.getBytes(), getQualifier(key, value));
+      return Lists.newArrayList(m);
+    }
+  }
+}
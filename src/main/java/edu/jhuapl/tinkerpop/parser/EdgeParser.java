@@ -51,12 +51,10 @@ public class EdgeParser extends ElementParser<AccumuloEdge> {
    */
   private AccumuloEdge makeEdge(String id, Iterable<Entry<Key,Value>> entries) {
     for (Entry<Key, Value> entry : entries) {
-      String cf = entry.getKey().getColumnFamily().toString();
-      if (Constants.LABEL.equals(cf)) {
-        String cq = entry.getKey().getColumnQualifier().toString();
-        String[] parts = cq.split(Constants.ID_DELIM);
-        String inVertexId = parts[0];
-        String outVertexId = parts[1];
+      Key key = entry.getKey();
+      if (KeyBytes.equals(key.getColumnFamilyData(), Constants.LABEL_BYTES)) {
+        String inVertexId = KeyBytes.beforeDelim(key.getColumnQualifierData());
+        String outVertexId = KeyBytes.afterDelim(key.getColumnQualifierData());
         String label = AccumuloByteSerializer.deserialize(entry.getValue().get());
         return new AccumuloEdge(globals, id,
             new AccumuloVertex(globals, inVertexId),
@@ -53,7 +53,7 @@ public abstract class ElementIndexParser<T extends AccumuloElement>
 
       // While we're here, read the property key/value.
       String key = entry.getKey().getColumnFamily().toString();
-      Object value = AccumuloByteSerializer.deserialize(entry.getKey().getRow().getBytes());
+      Object value = AccumuloByteSerializer.deserialize(entry.getKey().getRowData().toArray());
       element.setPropertyInMemory(key, value);
 
       return element;
@@ -0,0 +1,137 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.parser;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.accumulo.core.data.ByteSequence;
+
+import edu.jhuapl.tinkerpop.Constants;
+
+/**
+ * Read parts of Accumulo keys and values in place,
+ * comparing and splitting their bytes directly rather
+ * than converting them to strings first.
+ */
+public final class KeyBytes {
+
+  private KeyBytes() { }
+
+  /**
+   * Test whether the given bytes equal the given constant.
+   * @param seq
+   * @param bytes
+   * @return
+   */
+  public static boolean equals(ByteSequence seq, byte[] bytes) {
+    return seq.length() == bytes.length && startsWith(seq, bytes);
+  }
+
+  /**
+   * Test whether the given bytes start with the given prefix.
+   * @param seq
+   * @param prefix
+   * @return
+   */
+  public static boolean startsWith(ByteSequence seq, byte[] prefix) {
+    if (seq.length() < prefix.length) {
+      return false;
+    }
+    byte[] data = seq.getBackingArray();
+    int offset = seq.offset();
+    for (int i = 0; i < prefix.length; i++) {
+      if (data[offset + i] != prefix[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Return the part of the given bytes before the
+   * first {@link Constants#ID_DELIM}, or all of them
+   * if there is no delimiter.
+   * @param seq
+   * @return
+   */
+  public static String beforeDelim(ByteSequence seq) {
+    int delim = indexOfDelim(seq.getBackingArray(),
+        seq.offset(), seq.length());
+    return decode(seq.getBackingArray(), seq.offset(),
+        (delim < 0 ? seq.offset() + seq.length() : delim) - seq.offset());
+  }
+
+  /**
+   * Return the part of the given bytes after the
+   * first {@link Constants#ID_DELIM}.
+   * @param seq
+   * @return
+   */
+  public static String afterDelim(ByteSequence seq) {
+    return afterDelim(seq.getBackingArray(), seq.offset(), seq.length());
+  }
+
+  /**
+   * Return the part of the given bytes after the
+   * first {@link Constants#ID_DELIM}.
+   * @param bytes
+   * @return
+   */
+  public static String afterDelim(byte[] bytes) {
+    return afterDelim(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Decode the given bytes as a string.
+   * @param seq
+   * @return
+   */
+  public static String toString(ByteSequence seq) {
+    return decode(seq.getBackingArray(), seq.offset(), seq.length());
+  }
+
+  private static String afterDelim(byte[] data, int offset, int length) {
+    int delim = indexOfDelim(data, offset, length);
+    if (delim < 0) {
+      throw new IllegalArgumentException("No delimiter in entry: "
+          + decode(data, offset, length));
+    }
+    int start = delim + Constants.ID_DELIM_BYTES.length;
+    return decode(data, start, offset + length - start);
+  }
+
+  /**
+   * Find the absolute position of the first delimiter
+   * in the given range of the array, or -1 if none.
+   */
+  private static int indexOfDelim(byte[] data, int offset, int length) {
+    byte[] delim = Constants.ID_DELIM_BYTES;
+    int last = offset + length - delim.length;
+    outer:
+    for (int i = offset; i <= last; i++) {
+      for (int j = 0; j < delim.length; j++) {
+        if (data[i + j] != delim[j]) {
+          continue outer;
+        }
+      }
+      return i;
+    }
+    return -1;
+  }
+
+  private static String decode(byte[] data, int offset, int length) {
+    return new String(data, offset, length, StandardCharsets.UTF_8);
+  }
+}
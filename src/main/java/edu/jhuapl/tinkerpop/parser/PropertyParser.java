@@ -18,6 +18,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
 
@@ -41,7 +42,7 @@ public class PropertyParser implements EntryParser<Map<String, Object>> {
       Key key = entry.getKey();
 
       if (!isMetaKey(key)) {
-        String attr = key.getColumnFamily().toString();
+        String attr = KeyBytes.toString(key.getColumnFamilyData());
         Object value = AccumuloByteSerializer.deserialize(entry.getValue().get());
         props.put(attr, value);
       }
@@ -58,9 +59,10 @@ public class PropertyParser implements EntryParser<Map<String, Object>> {
    * @return
    */
   private static boolean isMetaKey(Key key) {
-    String cf = key.getColumnFamily().toString();
-    return Constants.LABEL.equals(cf) ||
-        Constants.IN_EDGE.equals(cf) ||
-        Constants.OUT_EDGE.equals(cf);
+    ByteSequence cf = key.getColumnFamilyData();
+    return KeyBytes.equals(cf, Constants.LABEL_BYTES) ||
+        KeyBytes.equals(cf, Constants.IN_EDGE_BYTES) ||
+        KeyBytes.equals(cf, Constants.OUT_EDGE_BYTES) ||
+        KeyBytes.equals(cf, Constants.DEGREE_BYTES);
   }
 }
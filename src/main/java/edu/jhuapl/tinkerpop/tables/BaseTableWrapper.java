@@ -14,28 +14,55 @@
  */
 package edu.jhuapl.tinkerpop.tables;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.apache.accumulo.core.client.BatchDeleter;
 import org.apache.accumulo.core.client.BatchScanner;
 import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.ScannerBase;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.io.Text;
 
 import edu.jhuapl.tinkerpop.AccumuloGraphException;
 import edu.jhuapl.tinkerpop.GlobalInstances;
+import edu.jhuapl.tinkerpop.iterators.EntryCountingIterator;
 
 /**
  * Table wrapper with common functionality.
  */
 public abstract class BaseTableWrapper {
 
+  /**
+   * Priority of the counting iterator, after
+   * any filtering iterators.
+   */
+  private static final int COUNTING_PRIORITY = 50;
+
+  /**
+   * Maximum number of idle scanners of each
+   * kind kept for reuse.
+   */
+  private static final int MAX_POOLED_SCANNERS = 8;
+
   protected GlobalInstances globals;
   private String tableName;
 
+  private volatile BatchWriter writer;
+
+  private final Queue<Scanner> scanners = new ConcurrentLinkedQueue<Scanner>();
+  private final Queue<BatchScanner> batchScanners =
+      new ConcurrentLinkedQueue<BatchScanner>();
+
   public BaseTableWrapper(GlobalInstances globals, String tableName) {
     this.globals = globals;
     this.tableName = tableName;
@@ -62,14 +89,148 @@ public abstract class BaseTableWrapper {
     }
   }
 
-  protected BatchWriter getWriter() {
+  /**
+   * Split the whole table into ranges along tablet
+   * boundaries, one range per tablet.
+   * @return
+   */
+  protected List<Range> getTabletRanges() {
+    try {
+      List<Range> ranges = new ArrayList<Range>();
+      Text prev = null;
+      for (Text split : globals.getConfig().getConnector()
+          .tableOperations().listSplits(tableName)) {
+        ranges.add(new Range(prev, false, split, true));
+        prev = split;
+      }
+      ranges.add(new Range(prev, false, null, true));
+      return ranges;
+    } catch (Exception e) {
+      throw new AccumuloGraphException(e);
+    }
+  }
+
+  /**
+   * Split the given row ranges along tablet boundaries,
+   * so each range lies within a single tablet.
+   * @param ranges
+   * @return
+   */
+  public List<Range> getTabletRanges(Collection<Range> ranges) {
+    List<Range> merged = Range.mergeOverlapping(ranges);
+    List<Range> clipped = new ArrayList<Range>();
+    for (Range tablet : getTabletRanges()) {
+      for (Range range : merged) {
+        Range r = tablet.clip(range, true);
+        if (r != null) {
+          clipped.add(r);
+        }
+      }
+    }
+    return clipped;
+  }
+
+  /**
+   * Create a writer for this table, separate from the
+   * shared one, which can be flushed on its own.
+   */
+  protected BatchWriter createWriter() {
     try {
-      return globals.getMtbw().getBatchWriter(tableName);
+      return globals.getConfig().getConnector().createBatchWriter(tableName,
+          globals.getConfig().getBatchWriterConfig());
     } catch (Exception e) {
       throw new AccumuloGraphException(e);
     }
   }
 
+  /**
+   * Give a single instance of the writer for this table.
+   */
+  protected BatchWriter getWriter() {
+    if (writer == null) {
+      try {
+        writer = globals.getMtbw().getBatchWriter(tableName);
+      } catch (Exception e) {
+        throw new AccumuloGraphException(e);
+      }
+    }
+    return writer;
+  }
+
+  /**
+   * Return a scanner over the whole table, reusing an idle
+   * one if available. The scanner must be given back with
+   * {@link #releaseScanner(Scanner)} rather than closed,
+   * and not used afterwards.
+   * @return
+   */
+  protected Scanner borrowScanner() {
+    Scanner scan = scanners.poll();
+    if (scan == null) {
+      return getScanner();
+    }
+    scan.clearColumns();
+    scan.clearScanIterators();
+    scan.setRange(new Range());
+    return scan;
+  }
+
+  /**
+   * Give back a scanner from {@link #borrowScanner()}.
+   * @param scan
+   */
+  protected void releaseScanner(Scanner scan) {
+    if (scanners.size() < MAX_POOLED_SCANNERS) {
+      scanners.offer(scan);
+    } else {
+      scan.close();
+    }
+  }
+
+  /**
+   * Return a batch scanner over the whole table, reusing an
+   * idle one if available. The scanner must be given back with
+   * {@link #releaseBatchScanner(BatchScanner)} rather than closed,
+   * and only after its results have been read completely.
+   * @return
+   */
+  protected BatchScanner borrowBatchScanner() {
+    BatchScanner scan = batchScanners.poll();
+    if (scan == null) {
+      return getBatchScanner();
+    }
+    scan.clearColumns();
+    scan.clearScanIterators();
+    scan.setRanges(Collections.singletonList(new Range()));
+    return scan;
+  }
+
+  /**
+   * Give back a batch scanner from {@link #borrowBatchScanner()}.
+   * @param scan
+   */
+  protected void releaseBatchScanner(BatchScanner scan) {
+    if (batchScanners.size() < MAX_POOLED_SCANNERS) {
+      batchScanners.offer(scan);
+    } else {
+      scan.close();
+    }
+  }
+
+  /**
+   * Close any idle pooled scanners.
+   */
+  public void close() {
+    Scanner scan;
+    while ((scan = scanners.poll()) != null) {
+      scan.close();
+    }
+    BatchScanner batchScan;
+    while ((batchScan = batchScanners.poll()) != null) {
+      batchScan.close();
+    }
+  }
+
   protected BatchDeleter getDeleter() {
     try {
       return globals.getConfig().getConnector().createBatchDeleter(tableName,
@@ -80,6 +241,29 @@ public abstract class BaseTableWrapper {
     }
   }
 
+  /**
+   * Count the entries returned by the given scanner,
+   * on the tablet servers, and close the scanner.
+   * Any iterators already set on the scanner apply
+   * before counting.
+   * @param scan
+   * @return
+   */
+  protected long countEntries(ScannerBase scan) {
+    try {
+      scan.addScanIterator(new IteratorSetting(COUNTING_PRIORITY,
+          "entryCounter", EntryCountingIterator.class));
+
+      long count = 0;
+      for (Entry<Key, Value> entry : scan) {
+        count += EntryCountingIterator.getCount(entry.getValue());
+      }
+      return count;
+    } finally {
+      scan.close();
+    }
+  }
+
   public void dump() {
     System.out.println("Dump of table "+tableName+":");
     Scanner s = getScanner();
@@ -15,18 +15,21 @@
 package edu.jhuapl.tinkerpop.tables.core;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
-import java.util.regex.Pattern;
 
+import org.apache.accumulo.core.client.BatchDeleter;
 import org.apache.accumulo.core.client.BatchScanner;
 import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.client.Scanner;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
-import org.apache.accumulo.core.iterators.user.RegExFilter;
+import org.apache.accumulo.core.iterators.user.WholeRowIterator;
 import org.apache.accumulo.core.util.PeekingIterator;
 import org.apache.hadoop.io.Text;
 
@@ -41,9 +44,12 @@ import edu.jhuapl.tinkerpop.AccumuloVertex;
 import edu.jhuapl.tinkerpop.Constants;
 import edu.jhuapl.tinkerpop.GlobalInstances;
 import edu.jhuapl.tinkerpop.ScannerIterable;
+import edu.jhuapl.tinkerpop.iterators.PropertyPredicateFilter;
+import edu.jhuapl.tinkerpop.iterators.PropertyValueFilter;
 import edu.jhuapl.tinkerpop.mutator.Mutators;
 import edu.jhuapl.tinkerpop.mutator.edge.EdgeMutator;
 import edu.jhuapl.tinkerpop.parser.EdgeParser;
+import edu.jhuapl.tinkerpop.parser.KeyBytes;
 
 
 /**
@@ -74,6 +80,51 @@ public class EdgeTableWrapper extends ElementTableWrapper {
     globals.checkedFlush();
   }
 
+  /**
+   * Remove the given edges, including their properties,
+   * with a single multi-range delete.
+   * @param edges
+   */
+  public void deleteEdges(Collection<? extends Edge> edges) {
+    if (edges.isEmpty()) {
+      return;
+    }
+
+    BatchDeleter deleter = null;
+    try {
+      deleter = getDeleter();
+      Mutators.deleteElementRanges(deleter,
+          edges.toArray(new Edge[edges.size()]));
+    } finally {
+      if (deleter != null) {
+        deleter.close();
+      }
+    }
+  }
+
+  /**
+   * Read the edges with the given ids using a single
+   * batch scan, along with the given properties.
+   * If propertyKeys is null, read all properties.
+   * Edges which do not exist are omitted from the result.
+   * @param ids
+   * @param propertyKeys
+   * @return map of edge id to edge
+   */
+  public Map<String, Edge> readEdges(Collection<String> ids, String[] propertyKeys) {
+    Map<String, Edge> edges = new HashMap<String, Edge>();
+    if (ids.isEmpty()) {
+      return edges;
+    }
+
+    EdgeParser parser = new EdgeParser(globals);
+    for (Entry<String, List<Entry<Key, Value>>> row :
+      readRows(ids, propertyKeys).entrySet()) {
+      edges.put(row.getKey(), parser.parse(row.getKey(), row.getValue()));
+    }
+    return edges;
+  }
+
   public CloseableIterable<Edge> getEdges() {
     Scanner scan = getScanner();
     scan.fetchColumnFamily(new Text(Constants.LABEL));
@@ -84,6 +135,12 @@ public class EdgeTableWrapper extends ElementTableWrapper {
       }
     }
 
+    final boolean wholeRows = globals.getConfig().getWholeRowScans();
+    if (wholeRows) {
+      scan.addScanIterator(new IteratorSetting(10, "wholeRow",
+          WholeRowIterator.class));
+    }
+
     final EdgeParser parser = new EdgeParser(globals);
 
     return new ScannerIterable<Edge>(scan) {
@@ -91,6 +148,14 @@ public class EdgeTableWrapper extends ElementTableWrapper {
       public Edge next(PeekingIterator<Entry<Key, Value>> iterator) {
         // TODO could also check local cache before creating a new instance?
 
+        if (wholeRows) {
+          List<Entry<Key, Value>> entries = decodeRow(iterator.next());
+          AccumuloEdge edge = parser.parse(entries.get(0).getKey()
+              .getRow().toString(), entries);
+          globals.getCaches().cache(edge, Edge.class);
+          return edge;
+        }
+
         String rowId = iterator.peek().getKey().getRow().toString();
 
         List<Entry<Key, Value>> entries =
@@ -110,41 +175,139 @@ public class EdgeTableWrapper extends ElementTableWrapper {
     };
   }
 
+  /**
+   * Retrieve all edges, scanning tablets in parallel.
+   * Edges are returned in no particular order.
+   * @return
+   */
+  public CloseableIterable<Edge> getEdgesUnordered() {
+    BatchScanner scan = getUnorderedRowScanner();
+    final EdgeParser parser = new EdgeParser(globals);
+
+    return new ScannerIterable<Edge>(scan) {
+      @Override
+      public Edge next(PeekingIterator<Entry<Key, Value>> iterator) {
+        List<Entry<Key, Value>> entries = decodeRow(iterator.next());
+        String rowId = entries.get(0).getKey().getRow().toString();
+
+        AccumuloEdge edge = parser.parse(rowId, entries);
+        globals.getCaches().cache(edge, Edge.class);
+
+        return edge;
+      }
+    };
+  }
+
   public Iterable<Edge> getEdges(String key, Object value) {
     AccumuloGraphUtils.nullCheckProperty(key, value);
+    return getEdgesMatching(key, PropertyValueFilter.Op.EQUAL, value);
+  }
+
+  /**
+   * Retrieve edges whose value for the given key
+   * satisfies the given comparison. The comparison is
+   * evaluated on the tablet servers. If op is null,
+   * return all edges having the key.
+   * @param key
+   * @param op
+   * @param operands
+   * @return
+   */
+  public CloseableIterable<Edge> getEdgesMatching(String key,
+      PropertyValueFilter.Op op, Object... operands) {
     if (key.equalsIgnoreCase("label")) {
       key = Constants.LABEL;
     }
-    
-    BatchScanner scan = getBatchScanner();
-    scan.fetchColumnFamily(new Text(key));
 
-    byte[] val = AccumuloByteSerializer.serialize(value);
-    if (val[0] != AccumuloByteSerializer.SERIALIZABLE) {
-      IteratorSetting is = new IteratorSetting(10, "filter", RegExFilter.class);
-      RegExFilter.setRegexs(is, null, null, null, Pattern.quote(new String(val)), false);
-      scan.addScanIterator(is);
+    BatchScanner scan = getPropertyScanner(key, op, operands);
+
+    return new ScannerIterable<Edge>(scan) {
+
+      @Override
+      public Edge next(PeekingIterator<Entry<Key,Value>> iterator) {
+        Entry<Key, Value> kv = iterator.next();
+        Key k = kv.getKey();
+        String id = KeyBytes.toString(k.getRowData());
+
+        Edge cached = globals.getCaches().retrieve(id, Edge.class);
+        if (cached != null) {
+          return cached;
+        }
+
+        AccumuloEdge edge;
+        if (KeyBytes.equals(k.getColumnFamilyData(), Constants.LABEL_BYTES)) {
+          edge = new AccumuloEdge(globals, id,
+              new AccumuloVertex(globals, KeyBytes.beforeDelim(k.getColumnQualifierData())),
+              new AccumuloVertex(globals, KeyBytes.afterDelim(k.getColumnQualifierData())),
+              AccumuloByteSerializer.<String>deserialize(kv.getValue().get()));
+        } else {
+          edge = new AccumuloEdge(globals, id);
+          edge.setPropertyInMemory(KeyBytes.toString(k.getColumnFamilyData()),
+              AccumuloByteSerializer.deserialize(kv.getValue().get()));
+        }
+        globals.getCaches().cache(edge, Edge.class);
+
+        return edge;
+      }
+    };
+  }
+
+  /**
+   * Retrieve edges satisfying all the given predicates,
+   * evaluated on the tablet servers. Each matching edge's
+   * row is returned whole, and its properties are loaded
+   * into the returned edge.
+   * @param predicates
+   * @return
+   */
+  public CloseableIterable<Edge> getEdgesMatching(
+      Collection<PropertyPredicateFilter.Predicate> predicates) {
+    List<PropertyPredicateFilter.Predicate> mapped =
+        new ArrayList<PropertyPredicateFilter.Predicate>(predicates.size());
+    for (PropertyPredicateFilter.Predicate predicate : predicates) {
+      if (predicate.getKey().equalsIgnoreCase("label")) {
+        predicate = new PropertyPredicateFilter.Predicate(Constants.LABEL,
+            predicate.getOp(), predicate.getOperands());
+      }
+      mapped.add(predicate);
+    }
 
-      return new ScannerIterable<Edge>(scan) {
+    BatchScanner scan = getPredicateScanner(mapped);
 
-        @Override
-        public Edge next(PeekingIterator<Entry<Key,Value>> iterator) {
+    return new ScannerIterable<Edge>(scan) {
 
-          Key k = iterator.next().getKey();
+      @Override
+      public Edge next(PeekingIterator<Entry<Key,Value>> iterator) {
+        List<Entry<Key,Value>> entries = decodeRow(iterator.next());
+        String id = entries.get(0).getKey().getRow().toString();
 
-          if (k.getColumnFamily().toString().equals(Constants.LABEL)) {
-            String[] vals = k.getColumnQualifier().toString().split(Constants.ID_DELIM);
-            return new AccumuloEdge(globals, k.getRow().toString(),
-                new AccumuloVertex(globals, vals[0]),
-                new AccumuloVertex(globals, vals[1]), null);
-          }
-          return new AccumuloEdge(globals, k.getRow().toString());
+        Edge edge = globals.getCaches().retrieve(id, Edge.class);
+        if (edge == null) {
+          edge = new EdgeParser(globals).parse(id, entries);
         }
-      };
-    } else {
-      // TODO
-      throw new UnsupportedOperationException("Filtering on binary data not currently supported.");
+
+        loadRow((AccumuloEdge) edge, entries);
+        globals.getCaches().cache(edge, Edge.class);
+
+        return edge;
+      }
+    };
+  }
+
+  /**
+   * Count the edges in the table with one of the given
+   * labels, or all edges if none are given, on the
+   * tablet servers.
+   * @param labels
+   * @return
+   */
+  public long countEdges(String... labels) {
+    BatchScanner scan = getBatchScanner();
+    scan.fetchColumnFamily(new Text(Constants.LABEL));
+    if (labels.length > 0) {
+      applyEdgeLabelValueFilter(scan, labels);
     }
+    return countEntries(scan);
   }
 
   public void loadEndpointsAndLabel(AccumuloEdge edge) {
@@ -161,13 +324,12 @@ public class EdgeTableWrapper extends ElementTableWrapper {
 
       Entry<Key, Value> entry = iter.next();
 
-      String cq = entry.getKey().getColumnQualifier().toString();
-      String[] ids = cq.split(Constants.ID_DELIM);
-
+      Key key = entry.getKey();
       String label = AccumuloByteSerializer.deserialize(entry.getValue().get());
 
-      edge.setVertices(new AccumuloVertex(globals, ids[0]),
-          new AccumuloVertex(globals, ids[1]));
+      edge.setVertices(
+          new AccumuloVertex(globals, KeyBytes.beforeDelim(key.getColumnQualifierData())),
+          new AccumuloVertex(globals, KeyBytes.afterDelim(key.getColumnQualifierData())));
       edge.setLabel(label);
 
     } finally {
@@ -14,27 +14,41 @@
  */
 package edu.jhuapl.tinkerpop.tables.core;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Map.Entry;
 
-import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.BatchScanner;
 import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.ScannerBase;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
-import org.apache.accumulo.core.iterators.user.RegExFilter;
+import org.apache.accumulo.core.iterators.user.WholeRowIterator;
 import org.apache.hadoop.io.Text;
 
 import com.tinkerpop.blueprints.Element;
 import com.tinkerpop.blueprints.util.StringFactory;
 
 import edu.jhuapl.tinkerpop.AccumuloByteSerializer;
+import edu.jhuapl.tinkerpop.AccumuloElement;
+import edu.jhuapl.tinkerpop.AccumuloGraphException;
 import edu.jhuapl.tinkerpop.Constants;
 import edu.jhuapl.tinkerpop.GlobalInstances;
+import edu.jhuapl.tinkerpop.iterators.AdjacencyFilter;
+import edu.jhuapl.tinkerpop.iterators.EdgeLabelFilter;
+import edu.jhuapl.tinkerpop.iterators.PropertyPredicateFilter;
+import edu.jhuapl.tinkerpop.iterators.PropertyValueFilter;
 import edu.jhuapl.tinkerpop.mutator.property.ClearPropertyMutator;
 import edu.jhuapl.tinkerpop.mutator.property.WritePropertyMutator;
 import edu.jhuapl.tinkerpop.mutator.Mutators;
@@ -47,19 +61,8 @@ import edu.jhuapl.tinkerpop.tables.BaseTableWrapper;
  */
 public abstract class ElementTableWrapper extends BaseTableWrapper {
 
-  private BatchWriter writer;
-
   public ElementTableWrapper(GlobalInstances globals, String tableName) {
     super(globals, tableName);
-    writer = super.getWriter();
-  }
-
-  /**
-   * Give a single instance of the writer for this table.
-   */
-  @Override
-  protected BatchWriter getWriter() {
-    return writer;
   }
 
   /**
@@ -70,23 +73,25 @@ public abstract class ElementTableWrapper extends BaseTableWrapper {
    * @return
    */
   public <V> V readProperty(Element element, String key) {
-    Scanner s = getScanner();
+    Scanner s = borrowScanner();
+    try {
+      s.setRange(new Range(element.getId().toString()));
 
-    s.setRange(new Range(element.getId().toString()));
+      Text colf = StringFactory.LABEL.equals(key)
+          ? new Text(Constants.LABEL) : new Text(key);
+      s.fetchColumnFamily(colf);
 
-    Text colf = StringFactory.LABEL.equals(key)
-        ? new Text(Constants.LABEL) : new Text(key);
-    s.fetchColumnFamily(colf);
+      V value = null;
 
-    V value = null;
+      Iterator<Entry<Key, Value>> iter = s.iterator();
+      if (iter.hasNext()) {
+        value = AccumuloByteSerializer.deserialize(iter.next().getValue().get());
+      }
+      return value;
 
-    Iterator<Entry<Key, Value>> iter = s.iterator();
-    if (iter.hasNext()) {
-      value = AccumuloByteSerializer.deserialize(iter.next().getValue().get());
+    } finally {
+      releaseScanner(s);
     }
-    s.close();
-
-    return value;
   }
 
   /**
@@ -111,23 +116,136 @@ public abstract class ElementTableWrapper extends BaseTableWrapper {
    * @return
    */
   public Map<String, Object> readProperties(Element element, String[] propertyKeys) {
-    Scanner s = getScanner();
-    s.setRange(Range.exact((String) element.getId()));
+    Scanner s = borrowScanner();
+    try {
+      s.setRange(Range.exact((String) element.getId()));
 
-    // If propertyKeys is null, we read everything.
-    // Otherwise, limit to the given attributes.
-    if (propertyKeys != null) {
-      s.fetchColumnFamily(new Text(Constants.LABEL));
+      // If propertyKeys is null, we read everything.
+      // Otherwise, limit to the given attributes.
+      if (propertyKeys != null) {
+        s.fetchColumnFamily(new Text(Constants.LABEL));
+
+        for (String key : propertyKeys) {
+          s.fetchColumnFamily(new Text(key));
+        }
+      }
+
+      return new PropertyParser().parse(s);
+
+    } finally {
+      releaseScanner(s);
+    }
+  }
+
+  /**
+   * Read the given properties for each of the given element
+   * ids, using a single batch scan.
+   * If propertyKeys is null, read all properties.
+   * Elements which do not exist are omitted from the result.
+   * @param ids
+   * @param propertyKeys
+   * @return map of element id to properties
+   */
+  public Map<String, Map<String, Object>> readProperties(Collection<String> ids,
+      String[] propertyKeys) {
+    Map<String, Map<String, Object>> result = new HashMap<String, Map<String, Object>>();
+    if (ids.isEmpty()) {
+      return result;
+    }
+
+    PropertyParser parser = new PropertyParser();
+    for (Entry<String, List<Entry<Key, Value>>> row :
+      readRows(ids, propertyKeys).entrySet()) {
+      result.put(row.getKey(), parser.parse(row.getValue()));
+    }
+
+    return result;
+  }
 
-      for (String key : propertyKeys) {
-        s.fetchColumnFamily(new Text(key));
+  /**
+   * Read the given properties for all the given elements
+   * using a single batch scan, and store them in memory
+   * in each element. Any configured preloaded properties
+   * are read as well. If propertyKeys is null, read
+   * all properties.
+   * @param elements
+   * @param propertyKeys
+   */
+  public void loadProperties(Collection<? extends Element> elements,
+      String[] propertyKeys) {
+    if (elements.isEmpty()) {
+      return;
+    }
+
+    Set<String> keys = null;
+    if (propertyKeys != null) {
+      keys = new HashSet<String>(Arrays.asList(propertyKeys));
+      String[] preload = globals.getConfig().getPreloadedProperties();
+      if (preload != null) {
+        keys.addAll(Arrays.asList(preload));
       }
     }
 
-    Map<String, Object> props = new PropertyParser().parse(s);
-    s.close();
+    List<String> ids = new ArrayList<String>(elements.size());
+    for (Element element : elements) {
+      ids.add(element.getId().toString());
+    }
+
+    Map<String, Map<String, Object>> props = readProperties(ids,
+        keys != null ? keys.toArray(new String[keys.size()]) : null);
+
+    for (Element element : elements) {
+      Map<String, Object> elementProps = props.get(element.getId().toString());
+      Iterable<String> loaded = keys != null ? keys : elementProps != null ?
+          elementProps.keySet() : Collections.<String>emptySet();
+      ((AccumuloElement) element).loadPropertiesInMemory(loaded, elementProps);
+    }
+  }
+
+  /**
+   * Read the entries of the given rows using a single batch scan,
+   * grouped by row id. If propertyKeys is null, read entire rows.
+   * Otherwise, read the label entries and the given properties.
+   * @param ids
+   * @param propertyKeys
+   * @return
+   */
+  protected Map<String, List<Entry<Key, Value>>> readRows(Collection<String> ids,
+      String[] propertyKeys) {
+    List<Range> ranges = new ArrayList<Range>(ids.size());
+    for (String id : new HashSet<String>(ids)) {
+      ranges.add(Range.exact(id));
+    }
+
+    BatchScanner scan = borrowBatchScanner();
+    try {
+      scan.setRanges(ranges);
+
+      if (propertyKeys != null) {
+        scan.fetchColumnFamily(new Text(Constants.LABEL));
+
+        for (String key : propertyKeys) {
+          scan.fetchColumnFamily(new Text(key));
+        }
+      }
+
+      Map<String, List<Entry<Key, Value>>> rows =
+          new HashMap<String, List<Entry<Key, Value>>>();
+      for (Entry<Key, Value> entry : scan) {
+        String row = entry.getKey().getRow().toString();
+        List<Entry<Key, Value>> entries = rows.get(row);
+        if (entries == null) {
+          entries = new ArrayList<Entry<Key, Value>>();
+          rows.put(row, entries);
+        }
+        entries.add(entry);
+      }
+
+      return rows;
 
-    return props;
+    } finally {
+      releaseBatchScanner(scan);
+    }
   }
 
   /**
@@ -136,17 +254,14 @@ public abstract class ElementTableWrapper extends BaseTableWrapper {
    * @return
    */
   public boolean elementExists(String id) {
-    Scanner scan = null;
+    Scanner scan = borrowScanner();
     try {
-      scan = getScanner();
       scan.setRange(Range.exact(id));
       scan.fetchColumnFamily(new Text(Constants.LABEL));
       return new PropertyParser().parse(scan) != null;
 
     } finally {
-      if (scan != null) {
-        scan.close();
-      }
+      releaseScanner(scan);
     }
   }
 
@@ -156,23 +271,26 @@ public abstract class ElementTableWrapper extends BaseTableWrapper {
    * @return
    */
   public Set<String> readPropertyKeys(Element element) {
-    Scanner s = getScanner();
+    Set<String> keys = new HashSet<String>();
 
-    s.setRange(new Range(element.getId().toString()));
+    Scanner s = borrowScanner();
+    try {
+      s.setRange(new Range(element.getId().toString()));
 
-    Set<String> keys = new HashSet<String>();
+      for (Entry<Key, Value> entry : s) {
+        String cf = entry.getKey().getColumnFamily().toString();
+        keys.add(cf);
+      }
 
-    for (Entry<Key, Value> entry : s) {
-      String cf = entry.getKey().getColumnFamily().toString();
-      keys.add(cf);
+    } finally {
+      releaseScanner(s);
     }
 
-    s.close();
-
     // Remove some special keys.
     keys.remove(Constants.IN_EDGE);
     keys.remove(Constants.LABEL);
     keys.remove(Constants.OUT_EDGE);
+    keys.remove(Constants.DEGREE);
 
     return keys;
   }
@@ -203,24 +321,125 @@ public abstract class ElementTableWrapper extends BaseTableWrapper {
 
   /**
    * Add custom iterator to the given scanner so that
-   * it will only return keys with value corresponding to an edge.
+   * it will only return edge entries with one of the given labels.
+   * Labels are matched on the tablet servers by {@link EdgeLabelFilter}.
    * @param scan
    * @param labels
    */
-  protected void applyEdgeLabelValueFilter(Scanner scan, String... labels) {
-    StringBuilder regex = new StringBuilder();
-    for (String lab : labels) {
-      if (regex.length() != 0)
-        regex.append("|");
-      regex.append(".*"+Constants.ID_DELIM+"\\Q").append(lab).append("\\E$");
+  protected void applyEdgeLabelValueFilter(ScannerBase scan, String... labels) {
+    IteratorSetting is = new IteratorSetting(10, "edgeValueFilter", EdgeLabelFilter.class);
+    EdgeLabelFilter.setLabels(is, labels);
+    scan.addScanIterator(is);
+  }
+
+  /**
+   * Create a scanner over the given property's column
+   * across the whole table. If op is non-null, only entries
+   * whose values satisfy the comparison are returned;
+   * the comparison is evaluated on the tablet servers.
+   * @param key
+   * @param op
+   * @param operands
+   * @return
+   */
+  protected BatchScanner getPropertyScanner(String key,
+      PropertyValueFilter.Op op, Object... operands) {
+    BatchScanner scan = getBatchScanner();
+    scan.fetchColumnFamily(new Text(key));
+
+    if (op != null) {
+      IteratorSetting is = new IteratorSetting(10, "propertyValueFilter",
+          PropertyValueFilter.class);
+      PropertyValueFilter.setComparison(is, op, operands);
+      scan.addScanIterator(is);
     }
 
-    IteratorSetting is = new IteratorSetting(10, "edgeValueFilter", RegExFilter.class);
-    RegExFilter.setRegexs(is, null, null, null, regex.toString(), false);
+    return scan;
+  }
+
+  /**
+   * Create a scanner over the given property's column
+   * in the given row ranges.
+   * @param key
+   * @param ranges
+   * @return
+   */
+  public BatchScanner getPropertyScanner(String key, Collection<Range> ranges) {
+    BatchScanner scan = getBatchScanner();
+    scan.setRanges(ranges);
+    scan.fetchColumnFamily(new Text(key));
+    return scan;
+  }
+
+  /**
+   * Create a scanner returning the whole rows of elements
+   * satisfying all the given predicates, evaluated on the
+   * tablet servers. Read each row with {@link #decodeRow(Entry)}.
+   * @param predicates
+   * @return
+   */
+  protected BatchScanner getPredicateScanner(
+      Collection<PropertyPredicateFilter.Predicate> predicates) {
+    BatchScanner scan = getBatchScanner();
+    // Drop adjacency entries before rows are grouped.
+    scan.addScanIterator(new IteratorSetting(5, "adjacencyFilter",
+        AdjacencyFilter.class));
+    IteratorSetting is = new IteratorSetting(10, "propertyPredicateFilter",
+        PropertyPredicateFilter.class);
+    PropertyPredicateFilter.setPredicates(is, predicates);
     scan.addScanIterator(is);
+    return scan;
   }
 
-  public void close() {
-    // TODO?
+  /**
+   * Create a scanner returning the whole rows of all
+   * elements, with their labels and any preloaded properties.
+   * The batch scanner reads the table's tablets concurrently,
+   * so rows come back in no particular order. Read each row
+   * with {@link #decodeRow(Entry)}.
+   * @return
+   */
+  protected BatchScanner getUnorderedRowScanner() {
+    BatchScanner scan = getBatchScanner();
+    scan.fetchColumnFamily(new Text(Constants.LABEL));
+
+    if (globals.getConfig().getPreloadedProperties() != null) {
+      for (String key : globals.getConfig().getPreloadedProperties()) {
+        scan.fetchColumnFamily(new Text(key));
+      }
+    }
+
+    scan.addScanIterator(new IteratorSetting(10, "wholeRow",
+        WholeRowIterator.class));
+    return scan;
+  }
+
+  /**
+   * Decode a row returned by {@link #getPredicateScanner(Collection)}
+   * or {@link #getUnorderedRowScanner()}.
+   * @param entry
+   * @return
+   */
+  protected static List<Entry<Key,Value>> decodeRow(Entry<Key,Value> entry) {
+    try {
+      return new ArrayList<Entry<Key,Value>>(WholeRowIterator.decodeRow(
+          entry.getKey(), entry.getValue()).entrySet());
+    } catch (IOException e) {
+      throw new AccumuloGraphException(e);
+    }
+  }
+
+  /**
+   * Store all the properties in the given row in memory
+   * in the given element.
+   * @param element
+   * @param entries
+   */
+  protected static void loadRow(AccumuloElement element,
+      Iterable<Entry<Key,Value>> entries) {
+    Map<String, Object> props = new PropertyParser().parse(entries);
+    if (props != null) {
+      element.loadPropertiesInMemory(props.keySet(), props);
+    }
   }
 }
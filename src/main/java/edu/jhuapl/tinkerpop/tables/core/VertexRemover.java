@@ -0,0 +1,198 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.tables.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Element;
+import com.tinkerpop.blueprints.Index;
+import com.tinkerpop.blueprints.Vertex;
+
+import edu.jhuapl.tinkerpop.AccumuloEdge;
+import edu.jhuapl.tinkerpop.AccumuloIndex;
+import edu.jhuapl.tinkerpop.AccumuloVertex;
+import edu.jhuapl.tinkerpop.Constants;
+import edu.jhuapl.tinkerpop.GlobalInstances;
+import edu.jhuapl.tinkerpop.parser.KeyBytes;
+import edu.jhuapl.tinkerpop.parser.PropertyParser;
+import edu.jhuapl.tinkerpop.tables.index.BaseIndexValuesTableWrapper;
+
+/**
+ * Removes batches of vertices along with their incident
+ * edges and index entries. The vertex rows are read with
+ * a single batch scan, which gives their properties and
+ * incident edges. All the resulting deletes are then
+ * submitted together: grouped mutations for index entries
+ * and the endpoints of surviving vertices, and multi-range
+ * deletes for the vertex and edge rows.
+ */
+public class VertexRemover {
+
+  private final GlobalInstances globals;
+
+  public VertexRemover(GlobalInstances globals) {
+    this.globals = globals;
+  }
+
+  /**
+   * Remove the vertices with the given ids.
+   * Vertices which do not exist are skipped.
+   * @param ids
+   * @return the number of vertices removed
+   */
+  public int remove(Collection<String> ids) {
+    if (ids.isEmpty()) {
+      return 0;
+    }
+
+    Map<String, List<Entry<Key, Value>>> rows =
+        globals.getVertexWrapper().readRows(ids, null);
+
+    PropertyParser parser = new PropertyParser();
+    List<Vertex> vertices = new ArrayList<Vertex>(rows.size());
+    Map<Element, Map<String, Object>> vertexProps =
+        new HashMap<Element, Map<String, Object>>();
+    Map<String, Edge> edges = new LinkedHashMap<String, Edge>();
+
+    for (Entry<String, List<Entry<Key, Value>>> row : rows.entrySet()) {
+      if (!exists(row.getValue())) {
+        continue;
+      }
+
+      AccumuloVertex vertex = new AccumuloVertex(globals, row.getKey());
+      vertices.add(vertex);
+      vertexProps.put(vertex, parser.parse(row.getValue()));
+
+      for (Entry<Key, Value> entry : row.getValue()) {
+        Key key = entry.getKey();
+        boolean in = KeyBytes.equals(key.getColumnFamilyData(),
+            Constants.IN_EDGE_BYTES);
+        if (!in && !KeyBytes.equals(key.getColumnFamilyData(),
+            Constants.OUT_EDGE_BYTES)) {
+          continue;
+        }
+
+        String edgeId = KeyBytes.afterDelim(key.getColumnQualifierData());
+        if (edges.containsKey(edgeId)) {
+          // Self-loop or edge between removed vertices.
+          continue;
+        }
+
+        String label = KeyBytes.afterDelim(entry.getValue().get());
+        AccumuloVertex other = new AccumuloVertex(globals,
+            KeyBytes.beforeDelim(key.getColumnQualifierData()));
+        edges.put(edgeId, in ?
+            new AccumuloEdge(globals, edgeId, vertex, other, label) :
+              new AccumuloEdge(globals, edgeId, other, vertex, label));
+      }
+    }
+
+    for (Vertex vertex : vertices) {
+      globals.getCaches().remove(vertex.getId(), Vertex.class);
+    }
+    for (String id : edges.keySet()) {
+      globals.getCaches().remove(id, Edge.class);
+    }
+
+    // Index entries.
+    removeFromKeyIndex(Vertex.class, vertexProps);
+    if (globals.getConfig().getAutoIndex() ||
+        !globals.getIndexMetadataWrapper().getIndexedKeys(Edge.class).isEmpty()) {
+      Map<Element, Map<String, Object>> edgeProps =
+          new HashMap<Element, Map<String, Object>>();
+      Map<String, Map<String, Object>> props = globals.getEdgeWrapper()
+          .readProperties(edges.keySet(), null);
+      for (Edge edge : edges.values()) {
+        edgeProps.put(edge, props.get(edge.getId()));
+      }
+      removeFromKeyIndex(Edge.class, edgeProps);
+    }
+
+    for (Index<? extends Element> index :
+      globals.getIndexMetadataWrapper().getIndices()) {
+      BaseIndexValuesTableWrapper wrapper =
+          ((AccumuloIndex<? extends Element>) index).getWrapper();
+      if (Vertex.class.equals(index.getIndexClass())) {
+        wrapper.removeElementsFromIndex(vertices);
+      } else {
+        wrapper.removeElementsFromIndex(edges.values());
+      }
+    }
+
+    // Endpoints on surviving vertices, and the rows themselves.
+    Set<String> vertexIds = new HashSet<String>();
+    for (Vertex vertex : vertices) {
+      vertexIds.add(vertex.getId().toString());
+    }
+    globals.getVertexWrapper().deleteEdgeEndpoints(edges.values(), vertexIds);
+    globals.checkedFlush();
+
+    globals.getEdgeWrapper().deleteEdges(edges.values());
+    globals.getVertexWrapper().deleteVertices(vertices);
+
+    return vertices.size();
+  }
+
+  private static boolean exists(List<Entry<Key, Value>> row) {
+    for (Entry<Key, Value> entry : row) {
+      if (Constants.LABEL.equals(entry.getKey().getColumnFamily().toString())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Remove indexed properties of the given elements
+   * from the key index for the element class.
+   * @param elementClass
+   * @param properties
+   */
+  private void removeFromKeyIndex(Class<? extends Element> elementClass,
+      Map<Element, Map<String, Object>> properties) {
+    boolean autoIndex = globals.getConfig().getAutoIndex();
+    Set<String> indexed = globals.getIndexMetadataWrapper()
+        .getIndexedKeys(elementClass);
+    if (!autoIndex && indexed.isEmpty()) {
+      return;
+    }
+
+    BaseIndexValuesTableWrapper wrapper =
+        globals.getKeyIndexTableWrapper(elementClass);
+    for (Entry<Element, Map<String, Object>> entry : properties.entrySet()) {
+      Map<String, Object> props = entry.getValue();
+      if (props == null) {
+        continue;
+      }
+      if (!autoIndex) {
+        props = new HashMap<String, Object>(props);
+        props.keySet().retainAll(indexed);
+      }
+      wrapper.removePropertiesFromIndex(entry.getKey(), props);
+    }
+  }
+}
@@ -16,24 +16,35 @@ package edu.jhuapl.tinkerpop.tables.core;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
-import java.util.regex.Pattern;
+import java.util.Set;
 
 import org.apache.accumulo.core.client.BatchDeleter;
 import org.apache.accumulo.core.client.BatchScanner;
 import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.client.MutationsRejectedException;
 import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.ScannerBase;
 import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
-import org.apache.accumulo.core.iterators.user.RegExFilter;
+import org.apache.accumulo.core.iterators.LongCombiner;
+import org.apache.accumulo.core.iterators.SortedKeyIterator;
+import org.apache.accumulo.core.iterators.user.WholeRowIterator;
 import org.apache.accumulo.core.util.PeekingIterator;
 import org.apache.hadoop.io.Text;
 
 import com.tinkerpop.blueprints.CloseableIterable;
 import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Element;
 import com.tinkerpop.blueprints.Vertex;
 
 import edu.jhuapl.tinkerpop.AccumuloByteSerializer;
@@ -45,10 +56,13 @@ import edu.jhuapl.tinkerpop.AccumuloVertex;
 import edu.jhuapl.tinkerpop.Constants;
 import edu.jhuapl.tinkerpop.GlobalInstances;
 import edu.jhuapl.tinkerpop.ScannerIterable;
+import edu.jhuapl.tinkerpop.iterators.PropertyPredicateFilter;
+import edu.jhuapl.tinkerpop.iterators.PropertyValueFilter;
 import edu.jhuapl.tinkerpop.mutator.vertex.AddVertexMutator;
 import edu.jhuapl.tinkerpop.mutator.Mutator;
 import edu.jhuapl.tinkerpop.mutator.Mutators;
 import edu.jhuapl.tinkerpop.mutator.edge.EdgeEndpointsMutator;
+import edu.jhuapl.tinkerpop.parser.KeyBytes;
 import edu.jhuapl.tinkerpop.parser.VertexParser;
 
 
@@ -57,6 +71,18 @@ import edu.jhuapl.tinkerpop.parser.VertexParser;
  */
 public class VertexTableWrapper extends ElementTableWrapper {
 
+  /**
+   * Number of adjacent elements whose preloaded
+   * properties are read in a single batch.
+   */
+  private static final int PREFETCH_SIZE = 1000;
+
+  /**
+   * Whether the table maintains degree counters;
+   * checked on first use.
+   */
+  private volatile Boolean degreeCounters;
+
   public VertexTableWrapper(GlobalInstances globals) {
     super(globals, globals.getConfig().getVertexTableName());
   }
@@ -108,24 +134,58 @@ public class VertexTableWrapper extends ElementTableWrapper {
     globals.checkedFlush();
   }
 
-  public CloseableIterable<Edge> getEdges(Vertex vertex, Direction direction,
-      String... labels) {
-    Scanner scan = getScanner();
-    scan.setRange(new Range(vertex.getId().toString()));
-    if (direction.equals(Direction.IN)) {
-      scan.fetchColumnFamily(new Text(Constants.IN_EDGE));
-    } else if (direction.equals(Direction.OUT)) {
-      scan.fetchColumnFamily(new Text(Constants.OUT_EDGE));
-    } else {
-      scan.fetchColumnFamily(new Text(Constants.IN_EDGE));
-      scan.fetchColumnFamily(new Text(Constants.OUT_EDGE));
+  /**
+   * Remove the given vertices with a single
+   * multi-range delete.
+   * @param vertices
+   */
+  public void deleteVertices(Collection<? extends Vertex> vertices) {
+    if (vertices.isEmpty()) {
+      return;
     }
 
-    if (labels.length > 0) {
-      applyEdgeLabelValueFilter(scan, labels);
+    BatchDeleter deleter = null;
+    try {
+      deleter = getDeleter();
+      Mutators.deleteElementRanges(deleter,
+          vertices.toArray(new Vertex[vertices.size()]));
+    } finally {
+      if (deleter != null) {
+        deleter.close();
+      }
     }
+  }
+
+  /**
+   * Delete endpoint information for the given edges,
+   * except on the rows of the given vertices, which are
+   * about to be deleted anyway. Does not flush.
+   * @param edges
+   * @param skippedVertexIds
+   */
+  public void deleteEdgeEndpoints(Collection<? extends Edge> edges,
+      Set<String> skippedVertexIds) {
+    List<Mutation> mutations = new ArrayList<Mutation>();
+    for (Edge edge : edges) {
+      for (Mutation m : new EdgeEndpointsMutator.Delete(edge).create()) {
+        if (!skippedVertexIds.contains(new String(m.getRow()))) {
+          mutations.add(m);
+        }
+      }
+    }
+
+    try {
+      getWriter().addMutations(mutations);
+    } catch (MutationsRejectedException e) {
+      throw new AccumuloGraphException(e);
+    }
+  }
 
-    return new ScannerIterable<Edge>(scan) {
+  public CloseableIterable<Edge> getEdges(Vertex vertex, Direction direction,
+      String... labels) {
+    Scanner scan = getAdjacencyScanner(vertex, direction, labels);
+
+    ScannerIterable<Edge> edges = new ScannerIterable<Edge>(scan) {
 
       @Override
       public Edge next(PeekingIterator<Entry<Key,Value>> iterator) {
@@ -134,30 +194,302 @@ public class VertexTableWrapper extends ElementTableWrapper {
         // instance?
 
         Entry<Key,Value> kv = iterator.next();
+        Key key = kv.getKey();
 
-        String[] parts = kv.getKey().getColumnQualifier().toString().split(Constants.ID_DELIM);
-        String label = (new String(kv.getValue().get())).split(Constants.ID_DELIM)[1];
+        String vertexId = KeyBytes.toString(key.getRowData());
+        String otherId = KeyBytes.beforeDelim(key.getColumnQualifierData());
+        String edgeId = KeyBytes.afterDelim(key.getColumnQualifierData());
+        String label = KeyBytes.afterDelim(kv.getValue().get());
 
         AccumuloEdge edge;
-        if (kv.getKey().getColumnFamily().toString().equalsIgnoreCase(Constants.IN_EDGE)) {
-          edge = new AccumuloEdge(globals, parts[1],
-              new AccumuloVertex(globals, kv.getKey().getRow().toString()),
-              new AccumuloVertex(globals, parts[0]), label);
+        if (KeyBytes.equals(key.getColumnFamilyData(), Constants.IN_EDGE_BYTES)) {
+          edge = new AccumuloEdge(globals, edgeId,
+              new AccumuloVertex(globals, vertexId),
+              new AccumuloVertex(globals, otherId), label);
         } else {
-          edge = new AccumuloEdge(globals, parts[1],
-              new AccumuloVertex(globals, parts[0]),
-              new AccumuloVertex(globals, kv.getKey().getRow().toString()), label);
+          edge = new AccumuloEdge(globals, edgeId,
+              new AccumuloVertex(globals, otherId),
+              new AccumuloVertex(globals, vertexId), label);
         }
         globals.getCaches().cache(edge, Edge.class);
 
         return edge;
       }
     };
+    return prefetchPreloaded(edges);
   }
 
   public Iterable<Vertex> getVertices(Vertex vertex, Direction direction, String... labels) {
+    Scanner scan = getAdjacencyScanner(vertex, direction, labels);
+
+    ScannerIterable<Vertex> vertices = new ScannerIterable<Vertex>(scan) {
+
+      @Override
+      public Vertex next(PeekingIterator<Entry<Key,Value>> iterator) {
+        // TODO better use of information readily available...
+        // TODO could also check local cache before creating a new
+        // instance?
+        String otherId = KeyBytes.beforeDelim(iterator.next()
+            .getKey().getColumnQualifierData());
+
+        AccumuloVertex vertex = new AccumuloVertex(globals, otherId);
+        globals.getCaches().cache(vertex, Vertex.class);
+
+        return vertex;
+      }
+    };
+    return prefetchPreloaded(vertices);
+  }
+
+  /**
+   * If preloaded properties are configured, load them
+   * in chunks for the elements of the given iterable
+   * rather than one element at a time.
+   * @param iterable
+   * @return
+   */
+  private <T extends Element> ScannerIterable<T> prefetchPreloaded(
+      ScannerIterable<T> iterable) {
+    String[] preload = globals.getConfig().getPreloadedProperties();
+    if (preload != null) {
+      iterable.setPrefetch(PREFETCH_SIZE, preload);
+    }
+    return iterable;
+  }
+
+  /**
+   * Count the vertices in the table,
+   * on the tablet servers.
+   * @return
+   */
+  public long countVertices() {
+    BatchScanner scan = getBatchScanner();
+    scan.fetchColumnFamily(new Text(Constants.LABEL));
+    return countEntries(scan);
+  }
+
+  /**
+   * Read the given vertex's degree in the given direction,
+   * for edges with one of the given labels (or any label, if
+   * none are given), from its maintained degree counters.
+   * Only the vertex's counter entries are read. If the table
+   * has no degree counters, the vertex's edges are counted.
+   * @param vertex
+   * @param direction
+   * @param labels
+   * @return
+   */
+  public long readDegree(Vertex vertex, Direction direction, String... labels) {
+    if (!hasDegreeCounters()) {
+      return countEdges(vertex, direction, Long.MAX_VALUE, labels);
+    }
+
+    Scanner scan = borrowScanner();
+    scan.setRange(Range.exact(vertex.getId().toString()));
+
+    Text cf = new Text(Constants.DEGREE);
+    boolean allLabels = labels.length == 0;
+    if (allLabels) {
+      scan.fetchColumnFamily(cf);
+    } else {
+      for (Direction dir : getDirections(direction)) {
+        for (String label : labels) {
+          scan.fetchColumn(cf, new Text(
+              EdgeEndpointsMutator.getDegreeQualifier(dir, label)));
+        }
+      }
+    }
+
+    byte[] prefix = (direction.name() + Constants.ID_DELIM).getBytes();
+    long degree = 0;
+    try {
+      for (Entry<Key,Value> entry : scan) {
+        if (allLabels && !direction.equals(Direction.BOTH) &&
+            !KeyBytes.startsWith(entry.getKey().getColumnQualifierData(), prefix)) {
+          continue;
+        }
+        degree += LongCombiner.VAR_LEN_ENCODER.decode(entry.getValue().get());
+      }
+    } finally {
+      releaseScanner(scan);
+    }
+    return degree;
+  }
+
+  /**
+   * Return whether this table maintains degree counters.
+   * Tables of graphs created before counters existed
+   * don't, until they are backfilled.
+   * @return
+   */
+  public boolean hasDegreeCounters() {
+    if (degreeCounters == null) {
+      try {
+        degreeCounters = AccumuloGraphUtils.hasDegreeCombiner(
+            globals.getConfig().getConnector().tableOperations(),
+            globals.getConfig().getVertexTableName());
+      } catch (Exception e) {
+        throw new AccumuloGraphException(e);
+      }
+    }
+    return degreeCounters;
+  }
+
+  /**
+   * Check again whether this table maintains
+   * degree counters on next use.
+   */
+  public void invalidateDegreeCounters() {
+    degreeCounters = null;
+  }
+
+  private static Direction[] getDirections(Direction direction) {
+    return direction.equals(Direction.BOTH) ?
+        new Direction[]{Direction.IN, Direction.OUT} : new Direction[]{direction};
+  }
+
+  /**
+   * Count the edges incident to the given vertex,
+   * stopping at the given limit. Only keys are returned
+   * from the tablet servers.
+   * @param vertex
+   * @param direction
+   * @param limit
+   * @param labels
+   * @return
+   */
+  public long countEdges(Vertex vertex, Direction direction,
+      long limit, String... labels) {
+    if (limit >= Integer.MAX_VALUE) {
+      // No effective limit, so count on the tablet servers.
+      return countEntries(getAdjacencyScanner(vertex, direction, labels));
+    }
+
+    Scanner scan = borrowScanner();
+    setAdjacencyRange(scan, vertex, direction, labels);
+    scan.addScanIterator(new IteratorSetting(20, "keysOnly", SortedKeyIterator.class));
+
+    long count = 0;
+    try {
+      Iterator<Entry<Key,Value>> iter = scan.iterator();
+      while (count < limit && iter.hasNext()) {
+        iter.next();
+        count++;
+      }
+    } finally {
+      releaseScanner(scan);
+    }
+    return count;
+  }
+
+  /**
+   * Read the ids of vertices adjacent to the given vertex,
+   * up to the given limit, without instantiating vertices.
+   * Only keys are returned from the tablet servers.
+   * @param vertex
+   * @param direction
+   * @param limit
+   * @param labels
+   * @return
+   */
+  public List<String> readAdjacentVertexIds(Vertex vertex, Direction direction,
+      int limit, String... labels) {
+    Scanner scan = borrowScanner();
+    setAdjacencyRange(scan, vertex, direction, labels);
+    scan.addScanIterator(new IteratorSetting(20, "keysOnly", SortedKeyIterator.class));
+
+    List<String> ids = new ArrayList<String>();
+    try {
+      Iterator<Entry<Key,Value>> iter = scan.iterator();
+      while (ids.size() < limit && iter.hasNext()) {
+        ids.add(KeyBytes.beforeDelim(iter.next().getKey()
+            .getColumnQualifierData()));
+      }
+    } finally {
+      releaseScanner(scan);
+    }
+    return ids;
+  }
+
+  /**
+   * Read the ids of all vertices adjacent to any of the
+   * given vertices, using a single batch scan over their
+   * edge endpoint entries. Only keys are returned from the
+   * tablet servers.
+   * @param vertexIds
+   * @param direction
+   * @param labels
+   * @return
+   */
+  public Set<String> readAdjacentVertexIds(Collection<String> vertexIds,
+      Direction direction, String... labels) {
+    Set<String> ids = new HashSet<String>();
+    if (vertexIds.isEmpty()) {
+      return ids;
+    }
+
+    List<Range> ranges = new ArrayList<Range>(vertexIds.size());
+    for (String id : vertexIds) {
+      ranges.add(Range.exact(id));
+    }
+
+    BatchScanner scan = borrowBatchScanner();
+    try {
+      scan.setRanges(ranges);
+      fetchAdjacencyColumns(scan, direction, labels);
+      scan.addScanIterator(new IteratorSetting(20, "keysOnly", SortedKeyIterator.class));
+
+      for (Entry<Key,Value> entry : scan) {
+        ids.add(KeyBytes.beforeDelim(entry.getKey()
+            .getColumnQualifierData()));
+      }
+    } finally {
+      releaseBatchScanner(scan);
+    }
+    return ids;
+  }
+
+  /**
+   * Create a scanner over the given vertex's edge
+   * endpoint entries, in the given direction,
+   * for edges with one of the given labels.
+   * @param vertex
+   * @param direction
+   * @param labels
+   * @return
+   */
+  private Scanner getAdjacencyScanner(Vertex vertex, Direction direction,
+      String... labels) {
     Scanner scan = getScanner();
+    setAdjacencyRange(scan, vertex, direction, labels);
+    return scan;
+  }
+
+  /**
+   * Restrict the given scanner to the given vertex's
+   * edge endpoint entries, as for
+   * {@link #getAdjacencyScanner(Vertex, Direction, String...)}.
+   * @param scan
+   * @param vertex
+   * @param direction
+   * @param labels
+   */
+  private void setAdjacencyRange(Scanner scan, Vertex vertex,
+      Direction direction, String... labels) {
     scan.setRange(new Range(vertex.getId().toString()));
+    fetchAdjacencyColumns(scan, direction, labels);
+  }
+
+  /**
+   * Restrict the given scanner to edge endpoint entries
+   * in the given direction, for edges with one of the
+   * given labels.
+   * @param scan
+   * @param direction
+   * @param labels
+   */
+  private void fetchAdjacencyColumns(ScannerBase scan, Direction direction,
+      String... labels) {
     if (direction.equals(Direction.IN)) {
       scan.fetchColumnFamily(new Text(Constants.IN_EDGE));
     } else if (direction.equals(Direction.OUT)) {
@@ -170,23 +502,29 @@ public class VertexTableWrapper extends ElementTableWrapper {
     if (labels != null && labels.length > 0) {
       applyEdgeLabelValueFilter(scan, labels);
     }
+  }
 
-    return new ScannerIterable<Vertex>(scan) {
-
-      @Override
-      public Vertex next(PeekingIterator<Entry<Key,Value>> iterator) {
-        // TODO better use of information readily available...
-        // TODO could also check local cache before creating a new
-        // instance?
-        String[] parts = iterator.next().getKey().getColumnQualifier()
-            .toString().split(Constants.ID_DELIM);
-
-        AccumuloVertex vertex = new AccumuloVertex(globals, parts[0]);
-        globals.getCaches().cache(vertex, Vertex.class);
+  /**
+   * Read the vertices with the given ids using a single
+   * batch scan, along with the given properties.
+   * If propertyKeys is null, read all properties.
+   * Vertices which do not exist are omitted from the result.
+   * @param ids
+   * @param propertyKeys
+   * @return map of vertex id to vertex
+   */
+  public Map<String, Vertex> readVertices(Collection<String> ids, String[] propertyKeys) {
+    Map<String, Vertex> vertices = new HashMap<String, Vertex>();
+    if (ids.isEmpty()) {
+      return vertices;
+    }
 
-        return vertex;
-      }
-    };
+    VertexParser parser = new VertexParser(globals);
+    for (Entry<String, List<Entry<Key, Value>>> row :
+      readRows(ids, propertyKeys).entrySet()) {
+      vertices.put(row.getKey(), parser.parse(row.getKey(), row.getValue()));
+    }
+    return vertices;
   }
 
   public CloseableIterable<Vertex> getVertices() {
@@ -205,6 +543,12 @@ public class VertexTableWrapper extends ElementTableWrapper {
       }
     }
 
+    final boolean wholeRows = globals.getConfig().getWholeRowScans();
+    if (wholeRows) {
+      scan.addScanIterator(new IteratorSetting(10, "wholeRow",
+          WholeRowIterator.class));
+    }
+
     final VertexParser parser = new VertexParser(globals);
 
     return new ScannerIterable<Vertex>(scan) {
@@ -212,6 +556,14 @@ public class VertexTableWrapper extends ElementTableWrapper {
       public Vertex next(PeekingIterator<Entry<Key, Value>> iterator) {
         // TODO could also check local cache before creating a new instance?
 
+        if (wholeRows) {
+          List<Entry<Key, Value>> entries = decodeRow(iterator.next());
+          AccumuloVertex vertex = parser.parse(entries.get(0).getKey()
+              .getRow().toString(), entries);
+          globals.getCaches().cache(vertex, Vertex.class);
+          return vertex;
+        }
+
         String rowId = iterator.peek().getKey().getRow().toString();
 
         List<Entry<Key, Value>> entries =
@@ -230,40 +582,99 @@ public class VertexTableWrapper extends ElementTableWrapper {
     };
   }
 
+  /**
+   * Retrieve all vertices, scanning tablets in parallel.
+   * Vertices are returned in no particular order.
+   * @return
+   */
+  public CloseableIterable<Vertex> getVerticesUnordered() {
+    BatchScanner scan = getUnorderedRowScanner();
+    final VertexParser parser = new VertexParser(globals);
+
+    return new ScannerIterable<Vertex>(scan) {
+      @Override
+      public Vertex next(PeekingIterator<Entry<Key, Value>> iterator) {
+        List<Entry<Key, Value>> entries = decodeRow(iterator.next());
+        String rowId = entries.get(0).getKey().getRow().toString();
+
+        AccumuloVertex vertex = parser.parse(rowId, entries);
+        globals.getCaches().cache(vertex, Vertex.class);
+
+        return vertex;
+      }
+    };
+  }
+
   public Iterable<Vertex> getVertices(String key, Object value) {
     AccumuloGraphUtils.validateProperty(key, value);
+    return getVerticesMatching(key, PropertyValueFilter.Op.EQUAL, value);
+  }
 
-    byte[] val = AccumuloByteSerializer.serialize(value);
-    if (val[0] != AccumuloByteSerializer.SERIALIZABLE) {
-      BatchScanner scan = getBatchScanner();
-      scan.fetchColumnFamily(new Text(key));
+  /**
+   * Retrieve vertices whose value for the given key
+   * satisfies the given comparison. The comparison is
+   * evaluated on the tablet servers. If op is null,
+   * return all vertices having the key.
+   * The matched value is loaded into each returned vertex.
+   * @param key
+   * @param op
+   * @param operands
+   * @return
+   */
+  public CloseableIterable<Vertex> getVerticesMatching(String key,
+      PropertyValueFilter.Op op, Object... operands) {
+    BatchScanner scan = getPropertyScanner(key, op, operands);
 
-      IteratorSetting is = new IteratorSetting(10, "filter", RegExFilter.class);
-      RegExFilter.setRegexs(is, null, null, null, Pattern.quote(new String(val)), false);
-      scan.addScanIterator(is);
+    return new ScannerIterable<Vertex>(scan) {
 
-      return new ScannerIterable<Vertex>(scan) {
+      @Override
+      public Vertex next(PeekingIterator<Entry<Key,Value>> iterator) {
+        Entry<Key, Value> kv = iterator.next();
+        String key = kv.getKey().getColumnFamily().toString();
+        Object value = AccumuloByteSerializer.deserialize(kv.getValue().get());
 
-        @Override
-        public Vertex next(PeekingIterator<Entry<Key,Value>> iterator) {
-          Entry<Key, Value> kv = iterator.next();
-          String key = kv.getKey().getColumnFamily().toString();
-          Object value = AccumuloByteSerializer.deserialize(kv.getValue().get());
+        Vertex v = globals.getCaches().retrieve(kv.getKey().getRow().toString(), Vertex.class);
+        if (v == null) {
+          v = new AccumuloVertex(globals, kv.getKey().getRow().toString());
+        }
 
-          Vertex v = globals.getCaches().retrieve(kv.getKey().getRow().toString(), Vertex.class);
-          if (v == null) {
-            v = new AccumuloVertex(globals, kv.getKey().getRow().toString());
-          }
+        ((AccumuloElement) v).setPropertyInMemory(key, value);
+        globals.getCaches().cache(v, Vertex.class);
 
-          ((AccumuloElement) v).setPropertyInMemory(key, value);
-          globals.getCaches().cache(v, Vertex.class);
+        return v;
+      }
+    };
+  }
 
-          return v;
+  /**
+   * Retrieve vertices satisfying all the given predicates,
+   * evaluated on the tablet servers. Each matching vertex's
+   * row is returned whole, and its properties are loaded
+   * into the returned vertex.
+   * @param predicates
+   * @return
+   */
+  public CloseableIterable<Vertex> getVerticesMatching(
+      Collection<PropertyPredicateFilter.Predicate> predicates) {
+    BatchScanner scan = getPredicateScanner(predicates);
+
+    return new ScannerIterable<Vertex>(scan) {
+
+      @Override
+      public Vertex next(PeekingIterator<Entry<Key,Value>> iterator) {
+        List<Entry<Key,Value>> entries = decodeRow(iterator.next());
+        String id = entries.get(0).getKey().getRow().toString();
+
+        Vertex v = globals.getCaches().retrieve(id, Vertex.class);
+        if (v == null) {
+          v = new AccumuloVertex(globals, id);
         }
-      };
-    } else {
-      // TODO
-      throw new UnsupportedOperationException("Filtering on binary data not currently supported.");
-    }
+
+        loadRow((AccumuloElement) v, entries);
+        globals.getCaches().cache(v, Vertex.class);
+
+        return v;
+      }
+    };
   }
 }
@@ -14,19 +14,28 @@
  */
 package edu.jhuapl.tinkerpop.tables.index;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.regex.Pattern;
 
 import org.apache.accumulo.core.client.BatchDeleter;
+import org.apache.accumulo.core.client.BatchScanner;
 import org.apache.accumulo.core.client.BatchWriter;
 import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.client.MutationsRejectedException;
 import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.ScannerBase;
 import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.iterators.user.RegExFilter;
+import org.apache.accumulo.core.security.ColumnVisibility;
 import org.apache.accumulo.core.util.PeekingIterator;
 import org.apache.hadoop.io.Text;
 
@@ -34,12 +43,14 @@ import com.tinkerpop.blueprints.CloseableIterable;
 import com.tinkerpop.blueprints.Element;
 import com.tinkerpop.blueprints.IndexableGraph;
 import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.util.WrappingCloseableIterable;
 
 import edu.jhuapl.tinkerpop.AccumuloByteSerializer;
 import edu.jhuapl.tinkerpop.AccumuloElement;
 import edu.jhuapl.tinkerpop.AccumuloGraphException;
 import edu.jhuapl.tinkerpop.AccumuloGraphUtils;
 import edu.jhuapl.tinkerpop.GlobalInstances;
+import edu.jhuapl.tinkerpop.IndexQuery;
 import edu.jhuapl.tinkerpop.ScannerIterable;
 import edu.jhuapl.tinkerpop.mutator.Mutators;
 import edu.jhuapl.tinkerpop.mutator.index.IndexValueMutator;
@@ -54,6 +65,16 @@ import edu.jhuapl.tinkerpop.tables.BaseTableWrapper;
  */
 public abstract class BaseIndexValuesTableWrapper extends BaseTableWrapper {
 
+  /**
+   * Tags of the text value encodings, which index
+   * entries no longer use.
+   */
+  private static final int[] TEXT_TAGS = {
+    AccumuloByteSerializer.BYTE, AccumuloByteSerializer.SHORT,
+    AccumuloByteSerializer.INTEGER, AccumuloByteSerializer.LONG,
+    AccumuloByteSerializer.FLOAT, AccumuloByteSerializer.DOUBLE,
+    AccumuloByteSerializer.BOOLEAN, AccumuloByteSerializer.DATE};
+
   protected final Class<? extends Element> elementType;
 
   protected BaseIndexValuesTableWrapper(GlobalInstances globals,
@@ -99,16 +120,13 @@ public abstract class BaseIndexValuesTableWrapper extends BaseTableWrapper {
       boolean force) {
     AccumuloGraphUtils.validateProperty(key, value);
     if (force || globals.getConfig().getAutoIndex() ||
-        globals.getIndexMetadataWrapper()
-        .getIndexedKeys(elementType).contains(key)) {
-      BatchWriter writer = getWriter();
-
+        globals.getIndexMetadataWrapper().isIndexedKey(elementType, key)) {
       Object oldValue = element.getProperty(key);
       if (oldValue != null && !oldValue.equals(value)) {
-        Mutators.apply(writer, new IndexValueMutator.Delete(element, key, oldValue));
+        deleteEntry(element, key, oldValue);
       }
 
-      Mutators.apply(writer, new IndexValueMutator.Add(element, key, value));
+      addEntry(element, key, value);
       globals.checkedFlush();
     }
   }
@@ -121,23 +139,68 @@ public abstract class BaseIndexValuesTableWrapper extends BaseTableWrapper {
    */
   public void removePropertyFromIndex(Element element, String key, Object value) {
     if (value != null) {
-      Mutators.apply(getWriter(), new IndexValueMutator.Delete(element, key, value));
+      deleteEntry(element, key, value);
       globals.checkedFlush();
     }
   }
 
+  /**
+   * Remove the given properties of an element from the
+   * index. Does not flush.
+   * @param element
+   * @param properties
+   */
+  public void removePropertiesFromIndex(Element element,
+      Map<String, Object> properties) {
+    for (Entry<String, Object> property : properties.entrySet()) {
+      deleteEntry(element, property.getKey(), property.getValue());
+    }
+  }
+
+  /**
+   * Write the index entry for the given element property.
+   * @param element
+   * @param key
+   * @param value
+   */
+  protected void addEntry(Element element, String key, Object value) {
+    Mutators.apply(getWriter(), new IndexValueMutator.Add(element, key, value));
+  }
+
+  /**
+   * Delete the index entry for the given element property.
+   * @param element
+   * @param key
+   * @param value
+   */
+  protected void deleteEntry(Element element, String key, Object value) {
+    Mutators.apply(getWriter(), new IndexValueMutator.Delete(element, key, value));
+  }
+
   /**
    * Get elements with the key/value pair.
    * @param key
    * @param value
    * @return
    */
-  @SuppressWarnings("unchecked")
   public <T extends Element> CloseableIterable<T> readElementsFromIndex(String key, Object value) {
-    Scanner scan = getScanner();
-    byte[] id = AccumuloByteSerializer.serialize(value);
-    scan.setRange(Range.exact(new Text(id)));
-    scan.fetchColumnFamily(new Text(key));
+    return readElementsFromIndex(key, IndexQuery.exact(value));
+  }
+
+  /**
+   * Get elements with the given key, and values
+   * matching the given query.
+   * @param key
+   * @param query
+   * @return
+   */
+  @SuppressWarnings("unchecked")
+  public <T extends Element> CloseableIterable<T> readElementsFromIndex(String key, IndexQuery query) {
+    if (query.getRanges().isEmpty()) {
+      return new WrappingCloseableIterable<T>(Collections.<T>emptyList());
+    }
+
+    ScannerBase scan = getIndexScanner(key, query);
 
     final ElementIndexParser<? extends AccumuloElement> parser =
         Vertex.class.equals(elementType) ? new VertexIndexParser(globals) :
@@ -151,6 +214,47 @@ public abstract class BaseIndexValuesTableWrapper extends BaseTableWrapper {
         };
   }
 
+  /**
+   * Count the elements with the given key, and values
+   * matching the given query, on the tablet servers.
+   * @param key
+   * @param query
+   * @return
+   */
+  public long countElementsInIndex(String key, IndexQuery query) {
+    if (query.getRanges().isEmpty()) {
+      return 0;
+    }
+    return countEntries(getIndexScanner(key, query));
+  }
+
+  /**
+   * Create a scanner over the index entries for the given
+   * key matching the given query. A single range is read
+   * in order with a scanner, and multiple ranges with
+   * a batch scanner.
+   * @param key
+   * @param query
+   * @return
+   */
+  protected ScannerBase getIndexScanner(String key, IndexQuery query) {
+    List<Range> ranges = query.getRanges();
+
+    ScannerBase scan;
+    if (ranges.size() == 1) {
+      Scanner scanner = getScanner();
+      scanner.setRange(ranges.get(0));
+      scan = scanner;
+    } else {
+      BatchScanner scanner = getBatchScanner();
+      scanner.setRanges(ranges);
+      scan = scanner;
+    }
+    scan.fetchColumnFamily(new Text(key));
+
+    return scan;
+  }
+
   /**
    * Remove the given element's properties from the index.
    * @param element
@@ -176,4 +280,63 @@ public abstract class BaseIndexValuesTableWrapper extends BaseTableWrapper {
       }
     }
   }
+
+  /**
+   * Rewrite index entries whose values are in the text
+   * encoding used before index rows were made order-preserving,
+   * so that they match lookups and range queries again.
+   * Each entry is copied to the row of its re-serialized value
+   * and deleted from the old row, through a separate writer.
+   * @return number of entries rewritten
+   */
+  public long migrateTextEncodedValues() {
+    List<Range> ranges = new ArrayList<Range>();
+    for (int tag : TEXT_TAGS) {
+      ranges.add(new Range(new Text(new byte[]{(byte) tag}), true,
+          new Text(new byte[]{(byte) (tag + 1)}), false));
+    }
+
+    long count = 0;
+    BatchScanner scan = getBatchScanner();
+    BatchWriter writer = createWriter();
+    try {
+      scan.setRanges(ranges);
+      for (Entry<Key, Value> entry : scan) {
+        Key key = entry.getKey();
+        byte[] row = key.getRowData().toArray();
+        Object value = AccumuloByteSerializer.deserialize(row);
+        ColumnVisibility vis = key.getColumnVisibilityParsed();
+
+        Mutation add = new Mutation(AccumuloByteSerializer.serialize(value));
+        add.put(key.getColumnFamily(), key.getColumnQualifier(),
+            vis, entry.getValue());
+        writer.addMutation(add);
+
+        Mutation delete = new Mutation(row);
+        delete.putDelete(key.getColumnFamily(), key.getColumnQualifier(), vis);
+        writer.addMutation(delete);
+        count++;
+      }
+    } catch (MutationsRejectedException e) {
+      throw new AccumuloGraphException(e);
+    } finally {
+      scan.close();
+      try {
+        writer.close();
+      } catch (MutationsRejectedException e) {
+        throw new AccumuloGraphException(e);
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Remove the given elements' properties from the index.
+   * @param elements
+   */
+  public void removeElementsFromIndex(Collection<? extends Element> elements) {
+    for (Element element : elements) {
+      removeElementFromIndex(element);
+    }
+  }
 }
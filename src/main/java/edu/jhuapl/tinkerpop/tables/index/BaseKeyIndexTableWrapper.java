@@ -14,64 +14,147 @@
  */
 package edu.jhuapl.tinkerpop.tables.index;
 
-import com.tinkerpop.blueprints.CloseableIterable;
-import com.tinkerpop.blueprints.Edge;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.apache.accumulo.core.client.BatchScanner;
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.MutationsRejectedException;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+
 import com.tinkerpop.blueprints.Element;
-import com.tinkerpop.blueprints.Vertex;
 
+import edu.jhuapl.tinkerpop.AccumuloByteSerializer;
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration;
 import edu.jhuapl.tinkerpop.AccumuloGraphException;
 import edu.jhuapl.tinkerpop.GlobalInstances;
-import edu.jhuapl.tinkerpop.tables.core.EdgeTableWrapper;
+import edu.jhuapl.tinkerpop.mutator.Mutators;
+import edu.jhuapl.tinkerpop.mutator.index.IndexValueMutator;
+import edu.jhuapl.tinkerpop.parser.KeyBytes;
 import edu.jhuapl.tinkerpop.tables.core.ElementTableWrapper;
-import edu.jhuapl.tinkerpop.tables.core.VertexTableWrapper;
 
 /**
  * Base class for key index tables.
  */
 public abstract class BaseKeyIndexTableWrapper extends BaseIndexValuesTableWrapper {
 
+  /**
+   * Receives progress from {@link BaseKeyIndexTableWrapper#rebuildIndex(String,
+   * Class, Collection, RebuildListener)}.
+   */
+  public interface RebuildListener {
+
+    /**
+     * Called once the index entries for all elements in the given
+     * row range have been written. An interrupted rebuild can be
+     * resumed over the ranges not yet completed.
+     * @param range
+     * @param entries number of index entries written for the range
+     */
+    void rangeCompleted(Range range, long entries);
+  }
+
   protected BaseKeyIndexTableWrapper(GlobalInstances globals,
       Class<? extends Element> elementType, String tableName) {
     super(globals, elementType, tableName);
   }
 
   /**
-   * Rebuild this index for the given table.
-   * @param table
+   * Rebuild this index for the given key over all elements.
    * @param key
+   * @param elementClass
    */
   public void rebuildIndex(String key, Class<? extends Element> elementClass) {
+    rebuildIndex(key, elementClass, null, null);
+  }
+
+  /**
+   * Rebuild this index for the given key over elements in the given
+   * row ranges, or all elements if null. Only the key's column is
+   * scanned, in batches of tablets (see
+   * {@link AccumuloGraphConfiguration#setIndexRebuildBatchSize(int)}),
+   * and entries are written straight to the index through a separate
+   * writer, without reading existing entries.
+   * <p/>Ranges are split along tablet boundaries, and each piece is
+   * reported to the listener, if given, once its entries are flushed.
+   * @param key
+   * @param elementClass
+   * @param ranges
+   * @param listener
+   */
+  public void rebuildIndex(String key, Class<? extends Element> elementClass,
+      Collection<Range> ranges, RebuildListener listener) {
     ElementTableWrapper wrapper = globals.getElementWrapper(elementClass);
-    if (wrapper instanceof VertexTableWrapper) {
-      CloseableIterable<Vertex> iter = ((VertexTableWrapper) wrapper).getVertices();
-      for (Vertex v : iter) {
-        rebuild(wrapper, v, key);
-      }
-      iter.close();
+    List<Range> tablets = wrapper.getTabletRanges(ranges != null ? ranges :
+      Collections.singletonList(new Range()));
+    if (tablets.isEmpty()) {
+      return;
     }
-    else if (wrapper instanceof EdgeTableWrapper) {
-      CloseableIterable<Edge> iter = ((EdgeTableWrapper) wrapper).getEdges();
-      for (Edge e : iter) {
-        rebuild(wrapper, e, key);
+
+    int batchSize = globals.getConfig().getIndexRebuildBatchSize();
+    BatchScanner scan = wrapper.getPropertyScanner(key, tablets);
+    BatchWriter writer = createWriter();
+    try {
+      for (int i = 0; i < tablets.size(); i += batchSize) {
+        List<Range> batch = tablets.subList(i, Math.min(i + batchSize, tablets.size()));
+        long[] counts = new long[batch.size()];
+
+        scan.setRanges(batch);
+        for (Entry<Key, Value> entry : scan) {
+          String id = KeyBytes.toString(entry.getKey().getRowData());
+          Object value = AccumuloByteSerializer.deserialize(entry.getValue().get());
+          Mutators.apply(writer, new IndexValueMutator.Add(id, key, value));
+
+          if (listener != null) {
+            int j = indexOf(batch, entry.getKey());
+            if (j >= 0) {
+              counts[j]++;
+            }
+          }
+        }
+
+        // Make sure entries are written before reporting.
+        writer.flush();
+        if (listener != null) {
+          for (int j = 0; j < counts.length; j++) {
+            listener.rangeCompleted(batch.get(j), counts[j]);
+          }
+        }
+      }
+    } catch (MutationsRejectedException e) {
+      throw new AccumuloGraphException(e);
+    } finally {
+      scan.close();
+      try {
+        writer.close();
+      } catch (MutationsRejectedException e) {
+        throw new AccumuloGraphException(e);
       }
-      iter.close();
-    }
-    else {
-      throw new AccumuloGraphException("Unexpected table wrapper: "+wrapper.getClass());
     }
-    globals.checkedFlush();
   }
 
   /**
-   * Add given element to index for the given key.
-   * @param element
-   * @param key
+   * Find the range containing the given key in a sorted
+   * list of disjoint ranges, or -1 if there is none.
    */
-  private void rebuild(ElementTableWrapper wrapper,
-      Element element, String key) {
-    Object value = wrapper.readProperty(element, key);
-    if (value != null) {
-      setPropertyForIndex(element, key, value);
+  private static int indexOf(List<Range> ranges, Key key) {
+    int low = 0;
+    int high = ranges.size() - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      Range range = ranges.get(mid);
+      if (range.beforeStartKey(key)) {
+        high = mid - 1;
+      } else if (range.afterEndKey(key)) {
+        low = mid + 1;
+      } else {
+        return mid;
+      }
     }
+    return -1;
   }
 }
@@ -15,20 +15,21 @@
 package edu.jhuapl.tinkerpop.tables.index;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Map.Entry;
 
-import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.ScannerBase;
 import org.apache.accumulo.core.data.Key;
-import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.util.PeekingIterator;
-import org.apache.hadoop.io.Text;
 
+import com.tinkerpop.blueprints.CloseableIterable;
 import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.util.WrappingCloseableIterable;
 
-import edu.jhuapl.tinkerpop.AccumuloByteSerializer;
 import edu.jhuapl.tinkerpop.AccumuloEdge;
 import edu.jhuapl.tinkerpop.GlobalInstances;
+import edu.jhuapl.tinkerpop.IndexQuery;
 import edu.jhuapl.tinkerpop.ScannerIterable;
 import edu.jhuapl.tinkerpop.parser.EdgeIndexParser;
 
@@ -50,11 +51,21 @@ public class EdgeKeyIndexTableWrapper extends BaseKeyIndexTableWrapper {
    * @return
    */
   public Iterable<Edge> getEdges(String key, Object value) {
-    Scanner s = getScanner();
+    return getEdges(key, IndexQuery.exact(value));
+  }
+
+  /**
+   * Use the index to retrieve edges with the
+   * given key, and values matching the given query.
+   * @param key
+   * @param query
+   */
+  public CloseableIterable<Edge> getEdges(String key, IndexQuery query) {
+    if (query.getRanges().isEmpty()) {
+      return new WrappingCloseableIterable<Edge>(Collections.<Edge>emptyList());
+    }
 
-    Text row = new Text(AccumuloByteSerializer.serialize(value));
-    s.setRange(Range.exact(row));
-    s.fetchColumnFamily(new Text(key));
+    ScannerBase s = getIndexScanner(key, query);
 
     final EdgeIndexParser parser = new EdgeIndexParser(globals);
 
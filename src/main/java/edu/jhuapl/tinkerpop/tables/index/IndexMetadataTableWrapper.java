@@ -17,20 +17,36 @@ package edu.jhuapl.tinkerpop.tables.index;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.apache.accumulo.core.client.MutationsRejectedException;
 import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.TableExistsException;
+import org.apache.accumulo.core.client.admin.TableOperations;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
 import org.apache.hadoop.io.Text;
 
+import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Element;
 import com.tinkerpop.blueprints.Index;
 import com.tinkerpop.blueprints.IndexableGraph;
 import com.tinkerpop.blueprints.KeyIndexableGraph;
+import com.tinkerpop.blueprints.Vertex;
 import com.tinkerpop.blueprints.util.ExceptionFactory;
 
+import edu.jhuapl.tinkerpop.AccumuloGraphException;
 import edu.jhuapl.tinkerpop.AccumuloIndex;
+import edu.jhuapl.tinkerpop.Constants;
 import edu.jhuapl.tinkerpop.Constants.IndexMetadataEntryType;
 import edu.jhuapl.tinkerpop.GlobalInstances;
+import edu.jhuapl.tinkerpop.mutator.Mutator;
 import edu.jhuapl.tinkerpop.mutator.Mutators;
 import edu.jhuapl.tinkerpop.mutator.index.IndexMetadataMutator;
 import edu.jhuapl.tinkerpop.parser.IndexedItem;
@@ -41,9 +57,23 @@ import edu.jhuapl.tinkerpop.tables.BaseTableWrapper;
  * Stores metadata, in particular the indexed keys
  * for {@link KeyIndexableGraph}, and the list of
  * named indexes for {@link IndexableGraph}.
+ * <p/>The metadata is cached in memory. Changes made
+ * through this wrapper rewrite a version marker in the
+ * table, and reload the cache. Once the
+ * cache is older than the configured timeout, the marker
+ * is read back and the cache reloaded only if another
+ * client has changed it.
  */
 public class IndexMetadataTableWrapper extends BaseTableWrapper {
 
+  private volatile Metadata metadata;
+
+  /**
+   * Index handles, reused across calls.
+   */
+  private final Map<String, AccumuloIndex<? extends Element>> indexes =
+      new ConcurrentHashMap<String, AccumuloIndex<? extends Element>>();
+
   public IndexMetadataTableWrapper(GlobalInstances globals) {
     super(globals, globals.getConfig().getIndexMetadataTableName());
   }
@@ -52,12 +82,12 @@ public class IndexMetadataTableWrapper extends BaseTableWrapper {
   //////// Methods for KeyIndexableGraph ////////
 
   public void writeKeyMetadataEntry(String key, Class<? extends Element> clazz) {
-    Mutators.apply(getWriter(), new IndexMetadataMutator.Add(key, clazz,
+    update(new IndexMetadataMutator.Add(key, clazz,
         IndexMetadataEntryType.__INDEX_KEY__));
   }
 
   public void clearKeyMetadataEntry(String key, Class<? extends Element> clazz) {
-    Mutators.apply(getWriter(), new IndexMetadataMutator.Delete(key, clazz,
+    update(new IndexMetadataMutator.Delete(key, clazz,
         IndexMetadataEntryType.__INDEX_KEY__));
   }
 
@@ -66,105 +96,318 @@ public class IndexMetadataTableWrapper extends BaseTableWrapper {
       throw ExceptionFactory.classForElementCannotBeNull();
     }
 
-    IndexedItemsListParser parser = new IndexedItemsListParser(elementClass);
-
-    Scanner scan = null;
-    try {
-      scan = getScanner();
-      scan.fetchColumnFamily(new Text(IndexMetadataEntryType.__INDEX_KEY__.name()));
-
-      Set<String> keys = new HashSet<String>();
-      for (IndexedItem item : parser.parse(scan)) {
-        keys.add(item.getKey());
-      }
-
+    Metadata md = getMetadata();
+    if (Vertex.class.equals(elementClass)) {
+      return new HashSet<String>(md.vertexKeys);
+    } else if (Edge.class.equals(elementClass)) {
+      return new HashSet<String>(md.edgeKeys);
+    } else if (Element.class.equals(elementClass)) {
+      Set<String> keys = new HashSet<String>(md.vertexKeys);
+      keys.addAll(md.edgeKeys);
       return keys;
+    } else {
+      throw new IllegalArgumentException("elementClass must be Vertex, Edge or Element");
+    }
+  }
 
-    } finally {
-      if (scan != null) {
-        scan.close();
-      }
+  /**
+   * Whether the given key is indexed for the element class.
+   * Unlike {@link #getIndexedKeys(Class)}, this does not
+   * copy the key set.
+   * @param elementClass
+   * @param key
+   * @return
+   */
+  public boolean isIndexedKey(Class<? extends Element> elementClass, String key) {
+    Metadata md = getMetadata();
+    if (Vertex.class.equals(elementClass)) {
+      return md.vertexKeys.contains(key);
+    } else if (Edge.class.equals(elementClass)) {
+      return md.edgeKeys.contains(key);
+    } else {
+      return getIndexedKeys(elementClass).contains(key);
     }
   }
 
 
   //////// Methods for IndexableGraph ////////
 
-  @SuppressWarnings({"rawtypes", "unchecked"})
   public Iterable<Index<? extends Element>> getIndices() {
     List<Index<? extends Element>> indexes = new ArrayList<Index<? extends Element>>();
 
-    IndexedItemsListParser parser = new IndexedItemsListParser();
+    Metadata md = getMetadata();
+    for (Entry<String, Class<? extends Element>> entry :
+      md.indexNames.entrySet()) {
+      indexes.add(getHandle(entry.getKey(), entry.getValue(),
+          md.reverseIndexed.contains(entry.getKey())));
+    }
+
+    return indexes;
+  }
 
-    Scanner scan = null;
+  @SuppressWarnings("unchecked")
+  public <T extends Element> Index<T> getIndex(String indexName,
+      Class<T> indexClass) {
+    Metadata md = getMetadata();
+    Class<? extends Element> clazz = md.indexNames.get(indexName);
+    if (clazz == null) {
+      return null;
+    }
+    else if (clazz.equals(indexClass)) {
+      return (Index<T>) getHandle(indexName, indexClass,
+          md.reverseIndexed.contains(indexName));
+    }
+    else {
+      throw ExceptionFactory.indexDoesNotSupportClass(indexName, indexClass);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  public <T extends Element> Index<T> createIndex(String indexName,
+      Class<T> indexClass) {
+    if (getMetadata().indexNames.containsKey(indexName)) {
+      throw ExceptionFactory.indexAlreadyExists(indexName);
+    }
+
+    String table = globals.getConfig().getNamedIndexTableName(indexName);
     try {
-      scan = getScanner();
-      scan.fetchColumnFamily(new Text(IndexMetadataEntryType.__INDEX_NAME__.name()));
+      TableOperations tableOps = globals.getConfig()
+          .getConnector().tableOperations();
+      if (!tableOps.exists(table)) {
+        tableOps.create(table);
+      }
+    } catch (TableExistsException e) {
+      // Created concurrently, which is fine.
+    } catch (Exception e) {
+      throw new AccumuloGraphException(e);
+    }
+
+    // New indexes record their entries in the reverse index,
+    // unless this graph predates the reverse index table.
+    boolean reverseIndexed = globals.getReverseIndexWrapper().tableExists();
+
+    writeIndexNameEntry(indexName, indexClass, reverseIndexed);
+    return (Index<T>) getHandle(indexName, indexClass, reverseIndexed);
+  }
+
+  /**
+   * Return the cached handle for the given index,
+   * replacing it if the index has changed.
+   * @param indexName
+   * @param indexClass
+   * @param reverseIndexed
+   * @return
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private AccumuloIndex<? extends Element> getHandle(String indexName,
+      Class<? extends Element> indexClass, boolean reverseIndexed) {
+    AccumuloIndex<? extends Element> index = indexes.get(indexName);
+    if (index == null || !index.getIndexClass().equals(indexClass) ||
+        index.isReverseIndexed() != reverseIndexed) {
+      index = new AccumuloIndex(globals, indexName, indexClass, reverseIndexed);
+      indexes.put(indexName, index);
+    }
+    return index;
+  }
+
+  private void writeIndexNameEntry(String indexName,
+      Class<? extends Element> indexClass, boolean reverseIndexed) {
+    update(new IndexMetadataMutator.Add(indexName, indexClass,
+        IndexMetadataEntryType.__INDEX_NAME__, reverseIndexed ?
+            Constants.REVERSE_INDEXED.getBytes() : Constants.EMPTY));
+  }
+
+  public void clearIndexNameEntry(String indexName,
+      Class<? extends Element> indexClass) {
+    update(new IndexMetadataMutator.Delete(indexName, indexClass,
+        IndexMetadataEntryType.__INDEX_NAME__));
+    indexes.remove(indexName);
+  }
+
 
-      for (IndexedItem item : parser.parse(scan)) {
-        indexes.add(new AccumuloIndex(globals,
-            item.getKey(), item.getElementClass()));
+  //////// Index value format ////////
+
+  /**
+   * Whether this graph has indexes that may still hold
+   * values in the text encoding used before index rows
+   * were made order-preserving. Such indexes must be
+   * migrated before they are queried.
+   * @return
+   */
+  public boolean hasTextEncodedIndexes() {
+    Metadata md = getMetadata();
+    return !Constants.SORTABLE_VALUE_FORMAT.equals(md.valueFormat) &&
+        (!md.vertexKeys.isEmpty() || !md.edgeKeys.isEmpty() ||
+            !md.indexNames.isEmpty());
+  }
+
+  /**
+   * Record that all index rows use the current encoding.
+   */
+  public void writeValueFormat() {
+    update();
+  }
+
+
+  //////// Metadata cache ////////
+
+  /**
+   * Discard the cached metadata and index handles,
+   * so that they are reloaded on next access.
+   */
+  public void invalidateCache() {
+    metadata = null;
+    indexes.clear();
+  }
+
+  /**
+   * Return the cached metadata, first revalidating
+   * it against the version marker if it has expired.
+   * @return
+   */
+  private Metadata getMetadata() {
+    long timeout = globals.getConfig().getIndexMetadataCacheTimeout();
+
+    Metadata md = metadata;
+    if (md != null && System.currentTimeMillis() - md.validated < timeout) {
+      return md;
+    }
+
+    synchronized (this) {
+      md = metadata;
+      long now = System.currentTimeMillis();
+      if (md != null && now - md.validated < timeout) {
+        return md;
       }
 
-      return indexes;
+      if (md != null && md.version.equals(readVersion())) {
+        md.validated = now;
+      } else {
+        md = readMetadata();
+        metadata = md;
+      }
+      return md;
+    }
+  }
 
-    } finally {
-      if (scan != null) {
-        scan.close();
+  /**
+   * Write the given entry changes along with a new version
+   * marker and the current value format, then reload the
+   * cached metadata. The cache is
+   * reloaded rather than patched, since it may be missing
+   * changes made by other clients since it was validated,
+   * and the new version marker would hide them.
+   * @param mutators
+   */
+  private synchronized void update(Mutator... mutators) {
+    for (Mutator mutator : mutators) {
+      Mutators.apply(getWriter(), mutator);
+    }
+    Mutators.apply(getWriter(), new IndexMetadataMutator.Version(
+        UUID.randomUUID().toString()));
+    Mutators.apply(getWriter(), new IndexMetadataMutator.ValueFormat());
+    try {
+      globals.getMtbw().flush();
+    } catch (MutationsRejectedException e) {
+      throw new AccumuloGraphException(e);
+    }
+
+    metadata = readMetadata();
+  }
+
+  /**
+   * Read the current version marker, or the empty
+   * string if none has been written.
+   * @return
+   */
+  private String readVersion() {
+    Scanner scan = borrowScanner();
+    try {
+      scan.setRange(new Range(Constants.INDEX_METADATA_VERSION));
+      scan.fetchColumnFamily(new Text(Constants.INDEX_METADATA_VERSION));
+
+      for (Entry<Key, Value> entry : scan) {
+        return entry.getValue().toString();
       }
+      return "";
+
+    } finally {
+      releaseScanner(scan);
     }
   }
 
-  public <T extends Element> Index<T> getIndex(String indexName,
-      Class<T> indexClass) {
-    IndexedItemsListParser parser = new IndexedItemsListParser();
+  /**
+   * Load all metadata, including the version marker,
+   * with a single scan of the table.
+   * @return
+   */
+  private Metadata readMetadata() {
+    String version = "";
+    String valueFormat = "";
+    List<Entry<Key, Value>> keyEntries = new ArrayList<Entry<Key, Value>>();
+    List<Entry<Key, Value>> nameEntries = new ArrayList<Entry<Key, Value>>();
 
-    Scanner scan = null;
+    Scanner scan = borrowScanner();
     try {
-      scan = getScanner();
-      scan.fetchColumnFamily(new Text(IndexMetadataEntryType.__INDEX_NAME__.name()));
-
-      for (IndexedItem item : parser.parse(scan)) {
-        if (item.getKey().equals(indexName)) {
-          if (item.getElementClass().equals(indexClass)) {
-            return new AccumuloIndex<T>(globals, indexName,
-                indexClass);
-          }
-          else {
-            throw ExceptionFactory.indexDoesNotSupportClass(indexName, indexClass);
-          }
+      for (Entry<Key, Value> entry : scan) {
+        String cf = entry.getKey().getColumnFamily().toString();
+        if (Constants.INDEX_METADATA_VERSION.equals(cf)) {
+          version = entry.getValue().toString();
+        } else if (Constants.INDEX_VALUE_FORMAT.equals(cf)) {
+          valueFormat = entry.getValue().toString();
+        } else if (IndexMetadataEntryType.__INDEX_KEY__.name().equals(cf)) {
+          keyEntries.add(entry);
+        } else if (IndexMetadataEntryType.__INDEX_NAME__.name().equals(cf)) {
+          nameEntries.add(entry);
         }
       }
-      return null;
-
     } finally {
-      if (scan != null) {
-        scan.close();
+      releaseScanner(scan);
+    }
+
+    Metadata md = new Metadata(version, valueFormat);
+    IndexedItemsListParser parser = new IndexedItemsListParser();
+    for (IndexedItem item : parser.parse(keyEntries)) {
+      if (Vertex.class.equals(item.getElementClass())) {
+        md.vertexKeys.add(item.getKey());
+      } else {
+        md.edgeKeys.add(item.getKey());
       }
     }
-  }
-  
-  public <T extends Element> Index<T> createIndex(String indexName,
-      Class<T> indexClass) {
-    for (Index<?> index : getIndices()) {
-      if (index.getIndexName().equals(indexName)) {
-        throw ExceptionFactory.indexAlreadyExists(indexName);
+    for (IndexedItem item : parser.parse(nameEntries)) {
+      md.indexNames.put(item.getKey(), item.getElementClass());
+    }
+    for (Entry<Key, Value> entry : nameEntries) {
+      if (Constants.REVERSE_INDEXED.equals(entry.getValue().toString())) {
+        md.reverseIndexed.add(entry.getKey().getRow().toString());
       }
     }
 
-    writeIndexNameEntry(indexName, indexClass);
-    return new AccumuloIndex<T>(globals, indexName, indexClass);
+    return md;
   }
 
-  private void writeIndexNameEntry(String indexName,
-      Class<? extends Element> indexClass) {
-    Mutators.apply(getWriter(), new IndexMetadataMutator.Add(indexName,
-        indexClass, IndexMetadataEntryType.__INDEX_NAME__));
-  }
+  /**
+   * In-memory copy of the metadata table. Instances are
+   * not modified once published, except for the time
+   * they were last validated.
+   */
+  private static class Metadata {
+    final String version;
+    final String valueFormat;
+    final Set<String> vertexKeys;
+    final Set<String> edgeKeys;
+    final Map<String, Class<? extends Element>> indexNames;
+    final Set<String> reverseIndexed;
+    volatile long validated;
 
-  public void clearIndexNameEntry(String indexName,
-      Class<? extends Element> indexClass) {
-    Mutators.apply(getWriter(), new IndexMetadataMutator.Delete(indexName,
-        indexClass, IndexMetadataEntryType.__INDEX_NAME__));
+    Metadata(String version, String valueFormat) {
+      this.version = version;
+      this.valueFormat = valueFormat;
+      vertexKeys = new HashSet<String>();
+      edgeKeys = new HashSet<String>();
+      indexNames = new TreeMap<String, Class<? extends Element>>();
+      reverseIndexed = new HashSet<String>();
+      validated = System.currentTimeMillis();
+    }
   }
 }
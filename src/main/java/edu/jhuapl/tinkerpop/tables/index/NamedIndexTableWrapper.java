@@ -14,6 +14,11 @@
  */
 package edu.jhuapl.tinkerpop.tables.index;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
 import com.tinkerpop.blueprints.Element;
 import com.tinkerpop.blueprints.IndexableGraph;
 
@@ -21,12 +26,85 @@ import edu.jhuapl.tinkerpop.GlobalInstances;
 
 /**
  * Wrapper around a named index table (for {@link IndexableGraph}).
+ * If the index is reverse indexed, its entries are also recorded
+ * in the {@link ReverseIndexTableWrapper}, so that removing an
+ * element does not require scanning the index table.
  */
 public class NamedIndexTableWrapper extends BaseIndexValuesTableWrapper {
 
+  private final String indexName;
+  private final boolean reverseIndexed;
+
   public NamedIndexTableWrapper(GlobalInstances globals,
       Class<? extends Element> elementType, String indexName) {
+    this(globals, elementType, indexName, false);
+  }
+
+  public NamedIndexTableWrapper(GlobalInstances globals,
+      Class<? extends Element> elementType, String indexName,
+      boolean reverseIndexed) {
     super(globals, elementType,
         globals.getConfig().getNamedIndexTableName(indexName));
+    this.indexName = indexName;
+    this.reverseIndexed = reverseIndexed;
+  }
+
+  public boolean isReverseIndexed() {
+    return reverseIndexed;
+  }
+
+  @Override
+  protected void addEntry(Element element, String key, Object value) {
+    super.addEntry(element, key, value);
+    if (reverseIndexed) {
+      globals.getReverseIndexWrapper().addEntry(indexName, element, key, value);
+    }
+  }
+
+  @Override
+  protected void deleteEntry(Element element, String key, Object value) {
+    super.deleteEntry(element, key, value);
+    if (reverseIndexed) {
+      globals.getReverseIndexWrapper().deleteEntry(indexName, element, key, value);
+    }
+  }
+
+  @Override
+  public void removeElementFromIndex(Element element) {
+    if (!reverseIndexed) {
+      super.removeElementFromIndex(element);
+      return;
+    }
+
+    for (Entry<String, Object> entry : globals.getReverseIndexWrapper()
+        .readEntries(indexName, element)) {
+      deleteEntry(element, entry.getKey(), entry.getValue());
+    }
+    globals.checkedFlush();
+  }
+
+  /**
+   * Remove the given elements' entries from the index.
+   * The reverse index entries for all the elements are
+   * read with a single batch scan. Does not flush.
+   */
+  @Override
+  public void removeElementsFromIndex(Collection<? extends Element> elements) {
+    if (!reverseIndexed) {
+      super.removeElementsFromIndex(elements);
+      return;
+    }
+
+    Map<String, List<Entry<String, Object>>> entries =
+        globals.getReverseIndexWrapper().readEntries(indexName, elements);
+    for (Element element : elements) {
+      List<Entry<String, Object>> elementEntries =
+          entries.get(element.getId().toString());
+      if (elementEntries != null) {
+        for (Entry<String, Object> entry : elementEntries) {
+          deleteEntry(element, entry.getKey(), entry.getValue());
+        }
+      }
+    }
   }
 }
@@ -0,0 +1,193 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.tables.index;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.accumulo.core.client.BatchDeleter;
+import org.apache.accumulo.core.client.BatchScanner;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.io.Text;
+
+import com.google.common.primitives.Bytes;
+import com.tinkerpop.blueprints.Element;
+
+import edu.jhuapl.tinkerpop.AccumuloByteSerializer;
+import edu.jhuapl.tinkerpop.AccumuloGraphException;
+import edu.jhuapl.tinkerpop.Constants;
+import edu.jhuapl.tinkerpop.GlobalInstances;
+import edu.jhuapl.tinkerpop.mutator.Mutators;
+import edu.jhuapl.tinkerpop.mutator.index.ReverseIndexMutator;
+import edu.jhuapl.tinkerpop.tables.BaseTableWrapper;
+
+/**
+ * Wrapper around the reverse index table, which records
+ * for each element the named index entries referencing it.
+ * This allows an element to be removed from a named index
+ * with targeted deletes, rather than a scan of the index.
+ */
+public class ReverseIndexTableWrapper extends BaseTableWrapper {
+
+  private volatile Boolean tableExists;
+
+  public ReverseIndexTableWrapper(GlobalInstances globals) {
+    super(globals, globals.getConfig().getReverseIndexTableName());
+  }
+
+  /**
+   * Whether the reverse index table exists. Graphs
+   * created before it was introduced, and opened without
+   * the create option, won't have it.
+   * @return
+   */
+  public boolean tableExists() {
+    if (tableExists == null) {
+      try {
+        tableExists = globals.getConfig().getConnector().tableOperations()
+            .exists(globals.getConfig().getReverseIndexTableName());
+      } catch (Exception e) {
+        throw new AccumuloGraphException(e);
+      }
+    }
+    return tableExists;
+  }
+
+  public void addEntry(String indexName, Element element,
+      String key, Object value) {
+    Mutators.apply(getWriter(), new ReverseIndexMutator.Add(indexName,
+        element, key, value));
+  }
+
+  public void deleteEntry(String indexName, Element element,
+      String key, Object value) {
+    Mutators.apply(getWriter(), new ReverseIndexMutator.Delete(indexName,
+        element, key, value));
+  }
+
+  /**
+   * Read the key/value pairs under which the given
+   * element is recorded in the given named index.
+   * @param indexName
+   * @param element
+   * @return
+   */
+  public List<Entry<String, Object>> readEntries(String indexName,
+      Element element) {
+    List<Entry<String, Object>> entries = new ArrayList<Entry<String, Object>>();
+
+    Scanner scan = borrowScanner();
+    try {
+      scan.setRange(Range.exact(element.getId().toString()));
+      scan.fetchColumnFamily(new Text(indexName));
+
+      for (Entry<Key, Value> entry : scan) {
+        entries.add(parseEntry(entry));
+      }
+    } finally {
+      releaseScanner(scan);
+    }
+
+    return entries;
+  }
+
+  /**
+   * Read the key/value pairs under which each of the given
+   * elements is recorded in the given named index, using
+   * a single batch scan.
+   * @param indexName
+   * @param elements
+   * @return map of element id to key/value pairs
+   */
+  public Map<String, List<Entry<String, Object>>> readEntries(String indexName,
+      Collection<? extends Element> elements) {
+    Map<String, List<Entry<String, Object>>> result =
+        new HashMap<String, List<Entry<String, Object>>>();
+    if (elements.isEmpty()) {
+      return result;
+    }
+
+    List<Range> ranges = new ArrayList<Range>(elements.size());
+    for (Element element : elements) {
+      ranges.add(Range.exact(element.getId().toString()));
+    }
+
+    BatchScanner scan = borrowBatchScanner();
+    try {
+      scan.setRanges(ranges);
+      scan.fetchColumnFamily(new Text(indexName));
+
+      for (Entry<Key, Value> entry : scan) {
+        String id = entry.getKey().getRow().toString();
+        List<Entry<String, Object>> entries = result.get(id);
+        if (entries == null) {
+          entries = new ArrayList<Entry<String, Object>>();
+          result.put(id, entries);
+        }
+        entries.add(parseEntry(entry));
+      }
+    } finally {
+      releaseBatchScanner(scan);
+    }
+
+    return result;
+  }
+
+  /**
+   * Remove all entries for the given named index.
+   * @param indexName
+   */
+  public void clearIndex(String indexName) {
+    BatchDeleter deleter = null;
+    try {
+      deleter = getDeleter();
+      deleter.setRanges(Collections.singleton(new Range()));
+      deleter.fetchColumnFamily(new Text(indexName));
+      deleter.delete();
+    } catch (Exception e) {
+      throw new AccumuloGraphException(e);
+    } finally {
+      if (deleter != null) {
+        deleter.close();
+      }
+    }
+  }
+
+  private static Entry<String, Object> parseEntry(Entry<Key, Value> entry) {
+    Text cq = entry.getKey().getColumnQualifier();
+    byte[] bytes = Arrays.copyOf(cq.getBytes(), cq.getLength());
+
+    int split = Bytes.indexOf(bytes, Constants.ID_DELIM_BYTES);
+    if (split < 0) {
+      throw new AccumuloGraphException("Malformed reverse index entry: "
+          + entry.getKey());
+    }
+
+    String key = new String(bytes, 0, split);
+    Object value = AccumuloByteSerializer.deserialize(
+        Arrays.copyOfRange(bytes, split + Constants.ID_DELIM_BYTES.length, bytes.length));
+    return new SimpleImmutableEntry<String, Object>(key, value);
+  }
+}
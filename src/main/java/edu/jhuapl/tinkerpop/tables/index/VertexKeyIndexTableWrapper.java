@@ -15,20 +15,21 @@
 package edu.jhuapl.tinkerpop.tables.index;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Map.Entry;
 
-import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.ScannerBase;
 import org.apache.accumulo.core.data.Key;
-import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.util.PeekingIterator;
-import org.apache.hadoop.io.Text;
 
+import com.tinkerpop.blueprints.CloseableIterable;
 import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.util.WrappingCloseableIterable;
 
-import edu.jhuapl.tinkerpop.AccumuloByteSerializer;
 import edu.jhuapl.tinkerpop.AccumuloVertex;
 import edu.jhuapl.tinkerpop.GlobalInstances;
+import edu.jhuapl.tinkerpop.IndexQuery;
 import edu.jhuapl.tinkerpop.ScannerIterable;
 import edu.jhuapl.tinkerpop.parser.VertexIndexParser;
 
@@ -49,11 +50,21 @@ public class VertexKeyIndexTableWrapper extends BaseKeyIndexTableWrapper {
    * @param value
    */
   public Iterable<Vertex> getVertices(String key, Object value) {
-    Scanner s = getScanner();
+    return getVertices(key, IndexQuery.exact(value));
+  }
+
+  /**
+   * Use the index to retrieve vertices with the
+   * given key, and values matching the given query.
+   * @param key
+   * @param query
+   */
+  public CloseableIterable<Vertex> getVertices(String key, IndexQuery query) {
+    if (query.getRanges().isEmpty()) {
+      return new WrappingCloseableIterable<Vertex>(Collections.<Vertex>emptyList());
+    }
 
-    Text row = new Text(AccumuloByteSerializer.serialize(value));
-    s.setRange(Range.exact(row));
-    s.fetchColumnFamily(new Text(key));
+    ScannerBase s = getIndexScanner(key, query);
 
     final VertexIndexParser parser = new VertexIndexParser(globals);
 
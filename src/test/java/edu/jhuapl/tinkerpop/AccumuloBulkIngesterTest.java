@@ -15,12 +15,18 @@
 package edu.jhuapl.tinkerpop;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.File;
 import java.util.Iterator;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.Edge;
@@ -28,6 +34,9 @@ import com.tinkerpop.blueprints.Vertex;
 
 public class AccumuloBulkIngesterTest {
 
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
   @Test
   public void testBulkIngester() throws Exception {
     AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils.generateGraphConfig("propertyBuilder").setClear(true);
@@ -61,4 +70,108 @@ public class AccumuloBulkIngesterTest {
     graph.shutdown();
   }
 
+  @Test
+  public void testKeyIndexes() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils.generateGraphConfig("bulkKeyIndexes").setClear(true);
+    AccumuloGraph graph = new AccumuloGraph(cfg);
+    graph.createKeyIndex("name", Vertex.class);
+    graph.createKeyIndex("weight", Edge.class);
+    graph.shutdown();
+
+    AccumuloBulkIngester ingester = new AccumuloBulkIngester(cfg.clone().setClear(false));
+    ingester.addVertex("A").add("name", "alice").add("age", 30).finish();
+    ingester.addVertex("B");
+    ingester.addVertexProperty("B", "name", "bob");
+    ingester.addEdge("E", "A", "B", "knows").add("weight", 5).finish();
+    ingester.shutdown(false);
+
+    graph = new AccumuloGraph(cfg.clone().setClear(false));
+    assertEquals("A", graph.getVertices("name", "alice").iterator().next().getId());
+    assertEquals("B", graph.getVertices("name", "bob").iterator().next().getId());
+    assertEquals("E", graph.getEdges("weight", 5).iterator().next().getId());
+
+    // Unindexed keys are not written to the index.
+    assertFalse(graph.getGlobals().getVertexKeyIndexWrapper()
+        .readElementsFromIndex("age", 30).iterator().hasNext());
+    assertEquals(30, graph.getVertex("A").getProperty("age"));
+    graph.shutdown();
+  }
+
+  @Test
+  public void testRebuildKeyIndexes() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils.generateGraphConfig("bulkRebuildKeyIndexes")
+        .setClear(true).setBulkRebuildKeyIndexes(true);
+    AccumuloGraph graph = new AccumuloGraph(cfg);
+    graph.createKeyIndex("name", Vertex.class);
+    graph.shutdown();
+
+    AccumuloBulkIngester ingester = new AccumuloBulkIngester(cfg.clone().setClear(false));
+    ingester.addVertex("A").add("name", "alice").add("nick", "al").finish();
+    ingester.addVertexProperty("A", "name", "alicia");
+
+    // Keys indexed after the ingester starts are covered too.
+    graph = new AccumuloGraph(cfg.clone().setClear(false));
+    graph.createKeyIndex("nick", Vertex.class);
+    graph.shutdown();
+    ingester.shutdown(false);
+
+    graph = new AccumuloGraph(cfg.clone().setClear(false));
+    assertFalse(graph.getVertices("name", "alice").iterator().hasNext());
+    assertEquals("A", graph.getVertices("name", "alicia").iterator().next().getId());
+    assertEquals("A", graph.getVertices("nick", "al").iterator().next().getId());
+    graph.shutdown();
+  }
+
+  @Test
+  public void testBulkLoadDirectory() throws Exception {
+    File dir = new File(folder.getRoot(), "bulk");
+    // Small enough to spill several sorted runs.
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils.generateGraphConfig("bulkLoadDirectory")
+        .setClear(true).setBulkLoadDirectory(dir.getPath()).setMaxWriteMemory(4096);
+
+    AccumuloBulkIngester ingester = new AccumuloBulkIngester(cfg);
+    ingester.addVertex("hub").add("name", "hub").finish();
+    for (int i = 0; i < 50; i++) {
+      ingester.addVertex("v" + i).add("index", i).finish();
+      ingester.addEdge("e" + i, "hub", "v" + i, "edge").add("weight", i).finish();
+    }
+
+    // Nothing is visible until shutdown.
+    AccumuloGraph graph = new AccumuloGraph(cfg.clone().setClear(false));
+    assertNull(graph.getVertex("hub"));
+    graph.shutdown();
+
+    ingester.shutdown(false);
+    assertFalse(dir.exists());
+
+    graph = new AccumuloGraph(cfg.clone().setClear(false));
+    AccumuloVertex hub = (AccumuloVertex) graph.getVertex("hub");
+    assertNotNull(hub);
+    assertEquals("hub", hub.getProperty("name"));
+    assertEquals(50, hub.getDegree(Direction.OUT));
+
+    for (int i = 0; i < 50; i++) {
+      Vertex v = graph.getVertex("v" + i);
+      assertEquals(i, v.getProperty("index"));
+      Edge e = graph.getEdge("e" + i);
+      assertEquals("edge", e.getLabel());
+      assertEquals(i, e.getProperty("weight"));
+      assertEquals(v, e.getVertex(Direction.IN));
+    }
+    graph.shutdown();
+  }
+
+  @Test
+  public void testBulkLoadDirectoryNotEmpty() throws Exception {
+    File dir = folder.newFolder("bulk");
+    new File(dir, "leftover").createNewFile();
+
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils.generateGraphConfig("bulkLoadDirectoryNotEmpty")
+        .setClear(true).setBulkLoadDirectory(dir.getPath());
+    try {
+      new AccumuloBulkIngester(cfg);
+      fail();
+    } catch (AccumuloGraphException e) { }
+  }
+
 }
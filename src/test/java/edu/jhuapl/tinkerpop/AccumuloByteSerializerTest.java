@@ -0,0 +1,139 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class AccumuloByteSerializerTest {
+
+  @Test
+  public void testRoundTrip() {
+    Object[] values = new Object[] {
+        (byte) 0, Byte.MIN_VALUE, Byte.MAX_VALUE,
+        (short) -7, Short.MIN_VALUE, Short.MAX_VALUE,
+        0, -1, Integer.MIN_VALUE, Integer.MAX_VALUE,
+        0L, -123456789L, Long.MIN_VALUE, Long.MAX_VALUE,
+        0f, -0f, 1.5f, -1.5f, Float.MIN_VALUE, Float.NEGATIVE_INFINITY, Float.NaN,
+        0d, -0d, 2.25d, -2.25d, Double.MAX_VALUE, Double.NEGATIVE_INFINITY, Double.NaN,
+        true, false, new Date(0), new Date(-1000), new Date(),
+        'x', "string", ""
+    };
+
+    for (Object value : values) {
+      assertEquals(value, AccumuloByteSerializer.deserialize(
+          AccumuloByteSerializer.serialize(value)));
+    }
+  }
+
+  @Test
+  public void testFixedWidth() {
+    assertEquals(2, AccumuloByteSerializer.serialize((byte) 1).length);
+    assertEquals(3, AccumuloByteSerializer.serialize((short) 1).length);
+    assertEquals(5, AccumuloByteSerializer.serialize(Integer.MIN_VALUE).length);
+    assertEquals(9, AccumuloByteSerializer.serialize(Long.MIN_VALUE).length);
+    assertEquals(5, AccumuloByteSerializer.serialize(1f).length);
+    assertEquals(9, AccumuloByteSerializer.serialize(1d).length);
+    assertEquals(2, AccumuloByteSerializer.serialize(true).length);
+    assertEquals(9, AccumuloByteSerializer.serialize(new Date()).length);
+  }
+
+  @Test
+  public void testOrdering() {
+    Random rand = new Random(42);
+
+    List<Object> ints = new ArrayList<Object>();
+    List<Object> longs = new ArrayList<Object>();
+    List<Object> doubles = new ArrayList<Object>();
+    List<Object> floats = new ArrayList<Object>();
+    List<Object> dates = new ArrayList<Object>();
+    for (int i = 0; i < 1000; i++) {
+      ints.add(rand.nextInt());
+      longs.add(rand.nextLong());
+      doubles.add((rand.nextDouble() - 0.5) * Math.pow(10, rand.nextInt(20) - 10));
+      floats.add((float) ((rand.nextDouble() - 0.5) * Math.pow(10, rand.nextInt(20) - 10)));
+      dates.add(new Date(rand.nextLong() / 1000));
+    }
+    ints.add(Integer.MIN_VALUE);
+    ints.add(Integer.MAX_VALUE);
+    ints.add(0);
+    doubles.add(Double.NEGATIVE_INFINITY);
+    doubles.add(Double.POSITIVE_INFINITY);
+    floats.add(Float.NEGATIVE_INFINITY);
+    floats.add(Float.POSITIVE_INFINITY);
+
+    assertOrderPreserved(ints);
+    assertOrderPreserved(longs);
+    assertOrderPreserved(doubles);
+    assertOrderPreserved(floats);
+    assertOrderPreserved(dates);
+    assertOrderPreserved(Arrays.<Object>asList(
+        (short) 300, (short) -300, (short) 0, Short.MIN_VALUE, Short.MAX_VALUE));
+    assertOrderPreserved(Arrays.<Object>asList(
+        (byte) 5, (byte) -5, (byte) 0, Byte.MIN_VALUE, Byte.MAX_VALUE));
+    assertOrderPreserved(Arrays.<Object>asList(true, false));
+  }
+
+  @Test
+  public void testLegacyTextEncoding() {
+    assertEquals((byte) 12, AccumuloByteSerializer.deserialize("b12".getBytes()));
+    assertEquals((short) -5, AccumuloByteSerializer.deserialize("s-5".getBytes()));
+    assertEquals(42, AccumuloByteSerializer.deserialize("i42".getBytes()));
+    assertEquals(-42L, AccumuloByteSerializer.deserialize("l-42".getBytes()));
+    assertEquals(1.5f, AccumuloByteSerializer.deserialize("f1.5".getBytes()));
+    assertEquals(-2.5d, AccumuloByteSerializer.deserialize("d-2.5".getBytes()));
+    assertEquals(true, AccumuloByteSerializer.deserialize("ot".getBytes()));
+    assertEquals(new Date(1000), AccumuloByteSerializer.deserialize("t1000".getBytes()));
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private static void assertOrderPreserved(List<Object> values) {
+    List<Object> byValue = new ArrayList<Object>(values);
+    Collections.sort((List) byValue);
+
+    List<byte[]> bytes = new ArrayList<byte[]>();
+    for (Object value : values) {
+      bytes.add(AccumuloByteSerializer.serialize(value));
+    }
+    Collections.sort(bytes, new Comparator<byte[]>() {
+      @Override
+      public int compare(byte[] a, byte[] b) {
+        for (int i = 0; i < Math.min(a.length, b.length); i++) {
+          int cmp = (a[i] & 0xFF) - (b[i] & 0xFF);
+          if (cmp != 0) {
+            return cmp;
+          }
+        }
+        return a.length - b.length;
+      }
+    });
+
+    List<Object> byBytes = new ArrayList<Object>();
+    for (byte[] b : bytes) {
+      byBytes.add(AccumuloByteSerializer.deserialize(b));
+    }
+
+    assertEquals(byValue, byBytes);
+  }
+}
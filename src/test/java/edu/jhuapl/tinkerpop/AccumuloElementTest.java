@@ -16,10 +16,20 @@ package edu.jhuapl.tinkerpop;
 
 import static org.junit.Assert.*;
 
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.apache.accumulo.core.client.admin.TableOperations;
+import org.apache.hadoop.io.Text;
 import org.junit.Test;
 
+import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Element;
 import com.tinkerpop.blueprints.Graph;
+import com.tinkerpop.blueprints.Index;
 import com.tinkerpop.blueprints.Vertex;
 
 /**
@@ -92,6 +102,286 @@ public class AccumuloElementTest {
     graph.shutdown();
   }
 
+  @Test
+  public void testServerSideCounts() {
+    AccumuloGraph graph = (AccumuloGraph) AccumuloGraphTestUtils
+        .makeGraph("testServerSideCounts");
+
+    assertEquals(0, graph.countVertices());
+    assertEquals(0, graph.countEdges());
+
+    for (int i = 0; i < 10; i++) {
+      Vertex v = graph.addVertex(id(i));
+      v.setProperty("prop", i);
+    }
+    for (int i = 1; i < 10; i++) {
+      graph.addEdge("e" + i, graph.getVertex(id(0)), graph.getVertex(id(i)),
+          i % 3 == 0 ? "three" : "other");
+    }
+
+    assertEquals(10, graph.countVertices());
+    assertEquals(9, graph.countEdges());
+    assertEquals(3, graph.countEdges("three"));
+    assertEquals(9, graph.countEdges("three", "other"));
+    assertEquals(0, graph.countEdges("missing"));
+    assertEquals(9, graph.getVertex(id(0)).query().count());
+
+    Index<Vertex> index = graph.createIndex("index", Vertex.class);
+    for (int i = 0; i < 10; i++) {
+      index.put("parity", i % 2, graph.getVertex(id(i)));
+    }
+    assertEquals(5, index.count("parity", 0));
+    assertEquals(0, index.count("parity", 2));
+
+    graph.shutdown();
+  }
+
+  @Test
+  public void testPooledScannerReuse() {
+    AccumuloGraph graph = (AccumuloGraph) AccumuloGraphTestUtils
+        .makeGraph("testPooledScannerReuse");
+
+    Vertex hub = graph.addVertex(id(0));
+    for (int i = 1; i < 5; i++) {
+      Vertex v = graph.addVertex(id(i));
+      v.setProperty("prop", i);
+      graph.addEdge("e" + i, hub, v, i % 2 == 0 ? "even" : "odd");
+    }
+
+    // Alternate reads that configure scanners differently, so
+    // reused scanners must not carry columns or iterators over.
+    for (int round = 0; round < 3; round++) {
+      for (int i = 1; i < 5; i++) {
+        Vertex v = graph.getVertex(id(i));
+        assertEquals(i, v.getProperty("prop"));
+        assertNull(v.getProperty("missing"));
+        assertEquals(1, count(v.getVertices(Direction.IN)));
+      }
+      assertEquals(2, count(hub.getEdges(Direction.OUT, "even")));
+      assertEquals(4, count(hub.getEdges(Direction.OUT)));
+      assertEquals(2, hub.query().labels("odd").count());
+    }
+
+    assertSame(graph.getGlobals().getVertexWrapper(),
+        graph.getGlobals().getVertexWrapper());
+
+    graph.shutdown();
+  }
+
+  @Test
+  public void testIndexMetadataCache() {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils
+        .generateGraphConfig("testIndexMetadataCache");
+    AccumuloGraph checking = new AccumuloGraph(cfg.clone()
+        .setIndexMetadataCacheTimeout(0));
+    AccumuloGraph caching = new AccumuloGraph(cfg.clone()
+        .setIndexMetadataCacheTimeout(Integer.MAX_VALUE));
+
+    assertTrue(checking.getIndexedKeys(Vertex.class).isEmpty());
+    assertTrue(caching.getIndexedKeys(Vertex.class).isEmpty());
+
+    // Local changes are visible immediately, and
+    // other clients see them on revalidation.
+    caching.createKeyIndex("name", Vertex.class);
+    assertTrue(caching.getIndexedKeys(Vertex.class).contains("name"));
+    assertTrue(checking.getIndexedKeys(Vertex.class).contains("name"));
+    assertTrue(checking.getIndexedKeys(Edge.class).isEmpty());
+
+    checking.createIndex("index", Vertex.class);
+    assertNotNull(checking.getIndex("index", Vertex.class));
+    assertNull(caching.getIndex("index", Vertex.class));
+    caching.getGlobals().getIndexMetadataWrapper().invalidateCache();
+    assertNotNull(caching.getIndex("index", Vertex.class));
+
+    caching.dropKeyIndex("name", Vertex.class);
+    caching.dropIndex("index");
+    assertTrue(checking.getIndexedKeys(Vertex.class).isEmpty());
+    assertEquals(0, count(checking.getIndices()));
+
+    checking.shutdown();
+    caching.shutdown();
+  }
+
+  @Test
+  public void testIndexMetadataConcurrentUpdate() {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils
+        .generateGraphConfig("testIndexMetadataConcurrentUpdate")
+        .setIndexMetadataCacheTimeout(Integer.MAX_VALUE);
+    AccumuloGraph a = new AccumuloGraph(cfg.clone());
+    AccumuloGraph b = new AccumuloGraph(cfg.clone());
+    assertTrue(a.getIndexedKeys(Vertex.class).isEmpty());
+
+    // A's own change must not hide B's earlier one.
+    b.createKeyIndex("name", Vertex.class);
+    a.createKeyIndex("weight", Edge.class);
+    assertTrue(a.getIndexedKeys(Vertex.class).contains("name"));
+    assertTrue(a.getIndexedKeys(Edge.class).contains("weight"));
+
+    a.addVertex("A").setProperty("name", "alice");
+    assertEquals(1, count(b.getVertices("name", "alice")));
+
+    a.shutdown();
+    b.shutdown();
+  }
+
+  @Test
+  public void testIndexHandles() throws Exception {
+    AccumuloGraph graph = (AccumuloGraph) AccumuloGraphTestUtils
+        .makeGraph("testIndexHandles");
+
+    Index<Vertex> index = graph.createIndex("index", Vertex.class);
+    assertSame(index, graph.getIndex("index", Vertex.class));
+    assertSame(index, graph.getIndices().iterator().next());
+
+    Vertex v = graph.addVertex(id(0));
+    index.put("key", "value", v);
+    assertEquals(1, count(index.get("key", "value")));
+
+    // A dropped and recreated index gets a new handle.
+    graph.dropIndex("index");
+    Index<Vertex> recreated = graph.createIndex("index", Vertex.class);
+    assertNotSame(index, recreated);
+    assertEquals(0, count(recreated.get("key", "value")));
+
+    // The table is only checked once the index is used.
+    graph.getGlobals().getConfig().getConnector().tableOperations()
+        .delete(((AccumuloIndex<Vertex>) recreated).getTableName());
+    graph.getGlobals().getIndexMetadataWrapper().invalidateCache();
+    Index<Vertex> missing = graph.getIndex("index", Vertex.class);
+    assertNotNull(missing);
+    try {
+      missing.get("key", "value");
+      fail();
+    } catch (AccumuloGraphException e) { }
+
+    graph.shutdown();
+  }
+
+  @Test
+  public void testReverseIndex() {
+    AccumuloGraph graph = (AccumuloGraph) AccumuloGraphTestUtils
+        .makeGraph("testReverseIndex");
+
+    Index<Vertex> index = graph.createIndex("index", Vertex.class);
+    assertTrue(((AccumuloIndex<Vertex>) index).isReverseIndexed());
+
+    Vertex a = graph.addVertex(id(0));
+    Vertex b = graph.addVertex(id(1));
+    index.put("name", "x", a);
+    index.put("name", "y", a);
+    index.put("score", 10, a);
+    index.put("name", "x", b);
+    assertEquals(3, graph.getGlobals().getReverseIndexWrapper()
+        .readEntries("index", a).size());
+
+    index.remove("name", "y", a);
+    assertEquals(2, graph.getGlobals().getReverseIndexWrapper()
+        .readEntries("index", a).size());
+
+    a.remove();
+    assertEquals(1, count(index.get("name", "x")));
+    assertEquals(0, count(index.get("score", 10)));
+    assertTrue(graph.getGlobals().getReverseIndexWrapper()
+        .readEntries("index", a).isEmpty());
+
+    graph.dropIndex("index");
+    assertTrue(graph.getGlobals().getReverseIndexWrapper()
+        .readEntries("index", b).isEmpty());
+
+    graph.shutdown();
+  }
+
+  @Test
+  public void testUnorderedIteration() throws Exception {
+    AccumuloGraph graph = (AccumuloGraph) AccumuloGraphTestUtils
+        .makeGraph("testUnorderedIteration");
+
+    assertEquals(0, count(graph.getVerticesUnordered()));
+    assertEquals(0, count(graph.getEdgesUnordered()));
+
+    for (int i = 0; i < 20; i++) {
+      Vertex v = graph.addVertex(id(i));
+      v.setProperty("prop", i);
+    }
+    for (int i = 1; i < 20; i++) {
+      graph.addEdge("e" + i, graph.getVertex(id(0)),
+          graph.getVertex(id(i)), "label");
+    }
+
+    // Split the tables so there are several tablets to scan.
+    SortedSet<Text> splits = new TreeSet<Text>();
+    splits.add(new Text(id(5)));
+    splits.add(new Text(id(15)));
+    splits.add(new Text("e5"));
+    TableOperations tableOps = graph.getGlobals().getConfig()
+        .getConnector().tableOperations();
+    tableOps.addSplits(graph.getGlobals().getConfig()
+        .getVertexTableName(), splits);
+    tableOps.addSplits(graph.getGlobals().getConfig()
+        .getEdgeTableName(), splits);
+
+    assertEquals(ids(graph.getVertices()), ids(graph.getVerticesUnordered()));
+    assertEquals(ids(graph.getEdges()), ids(graph.getEdgesUnordered()));
+    assertEquals(20, count(graph.getVerticesUnordered()));
+    assertEquals(19, count(graph.getEdgesUnordered()));
+
+    for (Vertex v : graph.getVerticesUnordered()) {
+      assertEquals(Integer.valueOf(v.getId().toString()), v.getProperty("prop"));
+    }
+    for (Edge e : graph.getEdgesUnordered()) {
+      assertEquals("label", e.getLabel());
+      assertEquals(id(0), e.getVertex(Direction.OUT).getId());
+    }
+
+    graph.shutdown();
+  }
+
+  @Test
+  public void testWholeRowScans() {
+    AccumuloGraph graph = new AccumuloGraph(AccumuloGraphTestUtils
+        .generateGraphConfig("testWholeRowScans").setWholeRowScans(true)
+        .setPreloadedProperties(new String[] {"prop"}));
+
+    for (int i = 0; i < 10; i++) {
+      Vertex v = graph.addVertex(id(i));
+      v.setProperty("prop", i);
+      v.setProperty("other", "x");
+    }
+    for (int i = 1; i < 10; i++) {
+      Edge e = graph.addEdge("e" + i, graph.getVertex(id(0)),
+          graph.getVertex(id(i)), "label");
+      e.setProperty("prop", i);
+    }
+
+    int i = 0;
+    for (Vertex v : graph.getVertices()) {
+      assertEquals(id(i), v.getId());
+      assertEquals(i, v.getProperty("prop"));
+      assertEquals("x", v.getProperty("other"));
+      i++;
+    }
+    assertEquals(10, i);
+    assertEquals(10, count(graph.getVerticesInRange(null, null)));
+    assertEquals(5, count(graph.getVerticesInRange(id(5), null)));
+
+    assertEquals(9, count(graph.getEdges()));
+    for (Edge e : graph.getEdges()) {
+      assertEquals("label", e.getLabel());
+      assertEquals(Integer.valueOf(e.getId().toString().substring(1)),
+          e.getProperty("prop"));
+    }
+
+    graph.shutdown();
+  }
+
+  private static Set<Object> ids(Iterable<? extends Element> elements) {
+    Set<Object> ids = new HashSet<Object>();
+    for (Element element : elements) {
+      ids.add(element.getId());
+    }
+    return ids;
+  }
+
   private static String id(int idNum) {
     return String.format("%08d", idNum);
   }
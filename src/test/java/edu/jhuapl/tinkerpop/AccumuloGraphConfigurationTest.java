@@ -169,6 +169,27 @@ public class AccumuloGraphConfigurationTest {
     graph.shutdown();
   }
 
+  @Test
+  public void testMissingReverseIndexTable() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils.generateGraphConfig("missingReverseIndex");
+    new AccumuloGraph(cfg).shutdown();
+
+    // Graphs created before the reverse index table lack it.
+    cfg.getConnector().tableOperations().delete(cfg.getReverseIndexTableName());
+    cfg = cfg.clone().setCreate(false);
+
+    AccumuloGraph graph = new AccumuloGraph(cfg);
+    assertTrue(graph.isEmpty());
+    graph.addVertex("A");
+    assertFalse(graph.isEmpty());
+    graph.shutdown();
+
+    AccumuloBulkIngester ingester = new AccumuloBulkIngester(cfg);
+    ingester.addVertex("B").finish();
+    ingester.shutdown(true);
+    assertFalse(cfg.getConnector().tableOperations().exists(cfg.getReverseIndexTableName()));
+  }
+
   @Test
   public void testPrint() throws Exception {
     AccumuloGraphConfiguration cfg =
@@ -0,0 +1,165 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.tinkerpop.blueprints.Compare;
+import com.tinkerpop.blueprints.Contains;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Element;
+import com.tinkerpop.blueprints.GraphFactory;
+import com.tinkerpop.blueprints.Vertex;
+
+public class AccumuloGraphQueryTest {
+
+  private AccumuloGraph graph;
+
+  @Before
+  public void setup() {
+    graph = (AccumuloGraph) GraphFactory.open(AccumuloGraphTestUtils
+        .generateGraphConfig("queryTest").setClear(true)
+        .setPropertyCacheTimeout(null, 100000).getConfiguration());
+    graph.createKeyIndex("name", Vertex.class);
+
+    for (int i = 0; i < 10; i++) {
+      Vertex v = graph.addVertex("v" + i);
+      v.setProperty("name", "name" + (i % 2));
+      v.setProperty("age", i);
+      if (i < 5) {
+        v.setProperty("young", true);
+      }
+    }
+
+    for (int i = 0; i < 9; i++) {
+      Edge e = graph.addEdge("e" + i, graph.getVertex("v" + i),
+          graph.getVertex("v" + (i + 1)), i % 3 == 0 ? "knows" : "likes");
+      e.setProperty("weight", i);
+    }
+  }
+
+  @Test
+  public void testIndexedEquality() {
+    assertEquals(ids("v0", "v2", "v4", "v6", "v8"),
+        ids(graph.query().has("name", "name0").vertices()));
+    assertEquals(ids("v0", "v2", "v4"),
+        ids(graph.query().has("name", "name0").has("young").vertices()));
+  }
+
+  @Test
+  public void testUnindexedComparisons() {
+    assertEquals(ids("v3"), ids(graph.query().has("age", 3).vertices()));
+    assertEquals(ids("v7", "v8", "v9"),
+        ids(graph.query().has("age", Compare.GREATER_THAN, 6).vertices()));
+    assertEquals(ids("v2", "v3", "v4"),
+        ids(graph.query().interval("age", 2, 5).vertices()));
+    assertEquals(ids("v1", "v5"),
+        ids(graph.query().has("age", Contains.IN, Arrays.asList(1, 5, 42)).vertices()));
+    assertEquals(ids("v0", "v1", "v2", "v3", "v4"),
+        ids(graph.query().has("young").vertices()));
+    assertEquals(ids("v5", "v6", "v7", "v8", "v9"),
+        ids(graph.query().hasNot("young").vertices()));
+    assertEquals(ids("v1", "v2", "v3", "v4", "v5", "v6", "v7", "v8", "v9"),
+        ids(graph.query().hasNot("age", 0).vertices()));
+
+    // Values of other types don't match.
+    assertEquals(ids(), ids(graph.query().has("age", 3L).vertices()));
+  }
+
+  @Test
+  public void testIndexedRanges() {
+    graph.createKeyIndex("age", Vertex.class);
+
+    assertEquals(ids("v7", "v8", "v9"),
+        ids(graph.query().has("age", Compare.GREATER_THAN, 6).vertices()));
+    assertEquals(ids("v2", "v3", "v4"),
+        ids(graph.query().interval("age", 2, 5).vertices()));
+    assertEquals(ids("v2", "v4"),
+        ids(graph.query().interval("age", 2, 5).has("name", "name0").vertices()));
+    assertEquals(ids("v0", "v1"),
+        ids(graph.query().has("age", Compare.LESS_THAN_EQUAL, 1).vertices()));
+    assertEquals(ids("v1", "v5"),
+        ids(graph.query().has("age", Contains.IN, Arrays.asList(1, 5, 42)).vertices()));
+    assertEquals(ids(), ids(graph.query().interval("age", 5, 2).vertices()));
+  }
+
+  @Test
+  public void testRowPredicates() {
+    graph.getVertex("v9").setProperty("tags", new HashSet<String>(Arrays.asList("a", "b")));
+
+    assertEquals(ids("v3", "v4"),
+        ids(graph.query().has("age", Compare.GREATER_THAN, 2).has("young").vertices()));
+    assertEquals(ids("v5", "v7"),
+        ids(graph.query().has("age", Compare.GREATER_THAN, 4)
+            .has("age", Compare.LESS_THAN, 9).has("age", Compare.NOT_EQUAL, 6)
+            .has("age", Contains.NOT_IN, Arrays.asList(8)).vertices()));
+    // Elements without the key match inequality.
+    assertEquals(ids("v5", "v6", "v7", "v8", "v9"),
+        ids(graph.query().has("young", Compare.NOT_EQUAL, true)
+            .has("age", Compare.GREATER_THAN, 1).vertices()));
+    // Serializable values are compared by their bytes.
+    assertEquals(ids("v9"),
+        ids(graph.query().has("tags", new HashSet<String>(Arrays.asList("a", "b")))
+            .has("age", Compare.GREATER_THAN, 1).vertices()));
+
+    // Matching rows are loaded whole.
+    for (Vertex v : graph.query().has("age", Compare.LESS_THAN, 2).has("young").vertices()) {
+      assertEquals(true, ((AccumuloElement) v).getPropertyInMemory("young"));
+      assertNotNull(((AccumuloElement) v).getPropertyInMemory("name"));
+    }
+  }
+
+  @Test
+  public void testEdges() {
+    assertEquals(ids("e0", "e3", "e6"),
+        ids(graph.query().has("label", "knows").edges()));
+    assertEquals(ids("e3", "e6"),
+        ids(graph.query().has("label", "knows")
+            .has("weight", Compare.GREATER_THAN_EQUAL, 3).edges()));
+    assertEquals(ids("e7", "e8"),
+        ids(graph.query().has("weight", Compare.GREATER_THAN, 6).edges()));
+
+    for (Edge e : graph.query().has("label", "likes").edges()) {
+      assertEquals("likes", e.getLabel());
+    }
+  }
+
+  @Test
+  public void testLimit() {
+    assertEquals(3, ids(graph.query().has("young").limit(3).vertices()).size());
+    assertEquals(2, ids(graph.query().has("name", "name1").limit(2).vertices()).size());
+    assertEquals(4, ids(graph.query().limit(4).edges()).size());
+    assertEquals(0, ids(graph.query().limit(0).vertices()).size());
+  }
+
+  private static Set<String> ids(String... ids) {
+    return new HashSet<String>(Arrays.asList(ids));
+  }
+
+  private static Set<String> ids(Iterable<? extends Element> elements) {
+    Set<String> ids = new HashSet<String>();
+    for (Element element : elements) {
+      ids.add(element.getId().toString());
+    }
+    return ids;
+  }
+}
@@ -0,0 +1,106 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.tinkerpop.blueprints.Compare;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Element;
+import com.tinkerpop.blueprints.GraphFactory;
+import com.tinkerpop.blueprints.Vertex;
+
+public class AccumuloVertexQueryTest {
+
+  private AccumuloGraph graph;
+  private Vertex hub;
+
+  @Before
+  public void setup() {
+    graph = (AccumuloGraph) GraphFactory.open(AccumuloGraphTestUtils
+        .generateGraphConfig("vertexQueryTest").setClear(true).getConfiguration());
+
+    hub = graph.addVertex("hub");
+    for (int i = 0; i < 10; i++) {
+      Vertex v = graph.addVertex("v" + i);
+      Edge e = i % 2 == 0 ? graph.addEdge("out" + i, hub, v, "even") :
+        graph.addEdge("in" + i, v, hub, "odd");
+      e.setProperty("weight", i);
+    }
+  }
+
+  @Test
+  public void testDirectionAndLabels() {
+    assertEquals(ids("out0", "out2", "out4", "out6", "out8"),
+        ids(hub.query().direction(Direction.OUT).edges()));
+    assertEquals(ids("in1", "in3", "in5", "in7", "in9"),
+        ids(hub.query().labels("odd").edges()));
+    assertEquals(ids(), ids(hub.query().direction(Direction.IN).labels("even").edges()));
+    assertEquals(ids("v1", "v3", "v5", "v7", "v9"),
+        ids(hub.query().direction(Direction.IN).vertices()));
+  }
+
+  @Test
+  public void testProperties() {
+    assertEquals(ids("out6", "out8", "in7", "in9"),
+        ids(hub.query().has("weight", Compare.GREATER_THAN, 5).edges()));
+    assertEquals(ids("v6", "v8"),
+        ids(hub.query().has("weight", Compare.GREATER_THAN, 5)
+            .has("label", "even").vertices()));
+    assertEquals(ids("out0"), ids(hub.query().has("weight", 0).edges()));
+    assertEquals(ids(), ids(hub.query().has("missing").edges()));
+  }
+
+  @Test
+  public void testCountAndIds() {
+    assertEquals(10, hub.query().count());
+    assertEquals(5, hub.query().direction(Direction.OUT).count());
+    assertEquals(3, hub.query().labels("odd").limit(3).count());
+    assertEquals(2, hub.query().has("weight", Compare.LESS_THAN, 2).count());
+
+    @SuppressWarnings("unchecked")
+    List<Object> ids = (List<Object>) hub.query().labels("even").vertexIds();
+    assertEquals(new HashSet<Object>(Arrays.<Object>asList("v0", "v2", "v4", "v6", "v8")),
+        new HashSet<Object>(ids));
+  }
+
+  @Test
+  public void testLimit() {
+    assertEquals(4, ids(hub.query().limit(4).edges()).size());
+    assertEquals(2, ids(hub.query().has("weight", Compare.GREATER_THAN, 1)
+        .limit(2).vertices()).size());
+  }
+
+  private static Set<String> ids(String... ids) {
+    return new HashSet<String>(Arrays.asList(ids));
+  }
+
+  private static Set<String> ids(Iterable<? extends Element> elements) {
+    Set<String> ids = new HashSet<String>();
+    for (Element element : elements) {
+      ids.add(element.getId().toString());
+    }
+    return ids;
+  }
+}
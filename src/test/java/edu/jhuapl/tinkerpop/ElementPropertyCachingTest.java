@@ -16,12 +16,17 @@ package edu.jhuapl.tinkerpop;
 
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Test;
 
 import com.google.common.collect.Sets;
+import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.Element;
 import com.tinkerpop.blueprints.Graph;
 import com.tinkerpop.blueprints.GraphFactory;
+import com.tinkerpop.blueprints.Vertex;
 
 /**
  * Tests related to {@link Element}-based property
@@ -261,6 +266,58 @@ public class ElementPropertyCachingTest {
     graph.shutdown();
   }
 
+  @Test
+  public void testLoadProperties() {
+    AccumuloGraphConfiguration cfg =
+        AccumuloGraphTestUtils.generateGraphConfig("loadProperties");
+    cfg.setPropertyCacheTimeout(CACHED, TIMEOUT);
+
+    AccumuloGraph graph = (AccumuloGraph) open(cfg);
+    load(graph);
+
+    List<Vertex> vertices = Arrays.asList(graph.getVertex("A"),
+        graph.getVertex("B"), graph.getVertex("C"));
+    graph.loadProperties(vertices, CACHED);
+
+    AccumuloVertex a = (AccumuloVertex) vertices.get(0);
+    AccumuloVertex b = (AccumuloVertex) vertices.get(1);
+    AccumuloVertex c = (AccumuloVertex) vertices.get(2);
+    assertEquals(null, a.getPropertyInMemory(CACHED));
+    assertEquals(null, b.getPropertyInMemory(NON_CACHED));
+    assertEquals(true, c.getPropertyInMemory(CACHED));
+    assertEquals(true, c.getProperty(CACHED));
+
+    // Keys without a timeout are not kept.
+    graph.loadProperties(vertices);
+    assertEquals(null, b.getPropertyInMemory(NON_CACHED));
+    assertEquals(true, b.getProperty(NON_CACHED));
+
+    graph.shutdown();
+  }
+
+  @Test
+  public void testPrefetchAdjacentProperties() {
+    AccumuloGraphConfiguration cfg =
+        AccumuloGraphTestUtils.generateGraphConfig("prefetchAdjacentProperties");
+    cfg.setPropertyCacheTimeout(CACHED, TIMEOUT);
+    cfg.setPreloadedProperties(new String[]{CACHED});
+
+    Graph graph = open(cfg);
+    load(graph);
+    graph.addEdge("E1", graph.getVertex("A"), graph.getVertex("B"), "L");
+    graph.addEdge("E2", graph.getVertex("A"), graph.getVertex("C"), "L");
+
+    int count = 0;
+    for (Vertex v : graph.getVertex("A").getVertices(Direction.OUT)) {
+      Object expected = "C".equals(v.getId()) ? true : null;
+      assertEquals(expected, ((AccumuloVertex) v).getPropertyInMemory(CACHED));
+      count++;
+    }
+    assertEquals(2, count);
+
+    graph.shutdown();
+  }
+
   private static Graph open(AccumuloGraphConfiguration cfg) {
     return GraphFactory.open(cfg);
   }
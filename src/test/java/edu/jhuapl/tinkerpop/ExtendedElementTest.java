@@ -16,12 +16,40 @@ package edu.jhuapl.tinkerpop;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.accumulo.core.client.BatchDeleter;
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.admin.TableOperations;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
+import org.apache.hadoop.io.Text;
 import org.junit.Test;
 
+import com.google.common.collect.Sets;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Graph;
 import com.tinkerpop.blueprints.GraphFactory;
+import com.tinkerpop.blueprints.Index;
 import com.tinkerpop.blueprints.Vertex;
 
+import edu.jhuapl.tinkerpop.mutator.Mutators;
+import edu.jhuapl.tinkerpop.mutator.edge.EdgeEndpointsMutator;
+import edu.jhuapl.tinkerpop.tables.index.BaseKeyIndexTableWrapper.RebuildListener;
+
 /**
  * Tests related to implementation-specific elements.
  */
@@ -104,4 +132,365 @@ public class ExtendedElementTest {
 
     graph.shutdown();
   }
+
+  @Test
+  public void testMultiGet() throws Exception {
+    AccumuloGraphConfiguration cfg =
+        AccumuloGraphTestUtils.generateGraphConfig("multiGet")
+        .setPreloadedProperties(new String[] {"name"})
+        .setPropertyCacheTimeout(null, 100000);
+    AccumuloGraph graph = (AccumuloGraph) makeGraph(cfg);
+
+    for (int i = 0; i < 5; i++) {
+      graph.addVertex("v" + i).setProperty("name", "name" + i);
+    }
+    graph.addEdge("e0", graph.getVertex("v0"), graph.getVertex("v1"), "knows");
+    graph.addEdge("e1", graph.getVertex("v1"), graph.getVertex("v2"), "likes");
+
+    List<String> ids = new ArrayList<String>();
+    for (Vertex v : graph.getVertices(Arrays.asList("v3", "missing", "v0", "v4"))) {
+      ids.add(v.getId().toString());
+      assertEquals("name" + v.getId().toString().substring(1),
+          ((AccumuloElement) v).getPropertyInMemory("name"));
+    }
+    assertEquals(Arrays.asList("v3", "v0", "v4"), ids);
+
+    ids.clear();
+    for (Edge e : graph.getEdges(Arrays.asList("e1", "e0", "missing"))) {
+      ids.add(e.getId().toString());
+    }
+    assertEquals(Arrays.asList("e1", "e0"), ids);
+    assertEquals("likes", graph.getEdges(Arrays.asList("e1")).iterator().next().getLabel());
+
+    graph.shutdown();
+  }
+
+  @Test
+  public void testExpand() throws Exception {
+    AccumuloGraph graph = (AccumuloGraph) makeGraph(
+        AccumuloGraphTestUtils.generateGraphConfig("expand"));
+
+    // v0 -> v1 -> v2 -> v3, v0 -> v2, v1 -> v4 (other label)
+    for (int i = 0; i < 5; i++) {
+      graph.addVertex("v" + i);
+    }
+    graph.addEdge("e0", graph.getVertex("v0"), graph.getVertex("v1"), "knows");
+    graph.addEdge("e1", graph.getVertex("v1"), graph.getVertex("v2"), "knows");
+    graph.addEdge("e2", graph.getVertex("v2"), graph.getVertex("v3"), "knows");
+    graph.addEdge("e3", graph.getVertex("v0"), graph.getVertex("v2"), "knows");
+    graph.addEdge("e4", graph.getVertex("v1"), graph.getVertex("v4"), "likes");
+
+    List<Vertex> seeds = Arrays.asList(graph.getVertex("v0"));
+    assertEquals(Sets.newHashSet("v1", "v2"), ids(graph.expand(seeds, Direction.OUT, 1)));
+    assertEquals(Sets.newHashSet("v1", "v2", "v3", "v4"),
+        ids(graph.expand(seeds, Direction.OUT, 2)));
+    assertEquals(Sets.newHashSet("v1", "v2", "v3"),
+        ids(graph.expand(seeds, Direction.OUT, 3, "knows")));
+    assertEquals(Sets.newHashSet(), ids(graph.expand(seeds, Direction.IN, 3)));
+    assertEquals(Sets.newHashSet(), ids(graph.expand(seeds, Direction.OUT, 0)));
+
+    // Vertices are returned once each, nearest first.
+    List<String> ordered = new ArrayList<String>();
+    for (Vertex v : graph.expand(Arrays.asList(graph.getVertex("v3")), Direction.BOTH, 3)) {
+      ordered.add(v.getId().toString());
+    }
+    assertEquals(4, ordered.size());
+    assertEquals("v2", ordered.get(0));
+    assertEquals("v4", ordered.get(3));
+
+    graph.shutdown();
+  }
+
+  @Test
+  public void testEdgeLabelFilter() throws Exception {
+    AccumuloGraph graph = (AccumuloGraph) makeGraph(
+        AccumuloGraphTestUtils.generateGraphConfig("edgeLabelFilter"));
+
+    Vertex a = graph.addVertex("A");
+    graph.addEdge("E1", a, graph.addVertex("B"), "knows");
+    graph.addEdge("E2", a, graph.addVertex("C"), "unknows");
+    graph.addEdge("E3", a, graph.addVertex("D"), "kn.*");
+    graph.addEdge("E4", graph.getVertex("D"), a, "knows");
+
+    assertEquals(Sets.newHashSet("B"), ids(a.getVertices(Direction.OUT, "knows")));
+    assertEquals(Sets.newHashSet("D"), ids(a.getVertices(Direction.OUT, "kn.*")));
+    assertEquals(Sets.newHashSet("B", "C"),
+        ids(a.getVertices(Direction.OUT, "knows", "unknows")));
+    assertEquals(Sets.newHashSet("B", "D"), ids(a.getVertices(Direction.BOTH, "knows")));
+    assertEquals(Sets.newHashSet(), ids(a.getVertices(Direction.OUT, "know")));
+
+    graph.shutdown();
+  }
+
+  @Test
+  public void testDegree() throws Exception {
+    AccumuloGraph graph = (AccumuloGraph) makeGraph(
+        AccumuloGraphTestUtils.generateGraphConfig("degree"));
+
+    AccumuloVertex a = (AccumuloVertex) graph.addVertex("A");
+    AccumuloVertex b = (AccumuloVertex) graph.addVertex("B");
+    AccumuloVertex c = (AccumuloVertex) graph.addVertex("C");
+    assertEquals(0, a.getDegree(Direction.BOTH));
+
+    graph.addEdge("E1", a, b, "knows");
+    graph.addEdge("E2", a, c, "knows");
+    graph.addEdge("E3", a, c, "likes");
+    graph.addEdge("E4", b, a, "likes");
+
+    assertEquals(3, a.getDegree(Direction.OUT));
+    assertEquals(1, a.getDegree(Direction.IN));
+    assertEquals(4, a.getDegree(Direction.BOTH));
+    assertEquals(2, a.getDegree(Direction.OUT, "knows"));
+    assertEquals(2, a.getDegree(Direction.BOTH, "likes"));
+    assertEquals(3, a.getDegree(Direction.BOTH, "likes", "other", "knows")
+        - a.getDegree(Direction.IN, "likes"));
+    assertEquals(2, c.getDegree(Direction.IN));
+
+    graph.getEdge("E2").remove();
+    assertEquals(1, a.getDegree(Direction.OUT, "knows"));
+    assertEquals(1, c.getDegree(Direction.IN));
+
+    a.remove();
+    assertEquals(0, b.getDegree(Direction.BOTH));
+    assertEquals(0, c.getDegree(Direction.BOTH));
+
+    // Counters still combine after the tables are recreated.
+    graph.clear();
+    a = (AccumuloVertex) graph.addVertex("A");
+    b = (AccumuloVertex) graph.addVertex("B");
+    graph.addEdge("E1", a, b, "knows");
+    graph.addEdge("E2", a, b, "knows");
+    assertEquals(2, a.getDegree(Direction.OUT, "knows"));
+
+    graph.shutdown();
+  }
+
+  @Test
+  public void testDegreeBackfill() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils.generateGraphConfig("degreeBackfill");
+    AccumuloGraph graph = (AccumuloGraph) makeGraph(cfg);
+    Vertex a = graph.addVertex("A");
+    graph.addEdge("E1", a, graph.addVertex("B"), "knows");
+    graph.addEdge("E2", a, graph.addVertex("C"), "knows");
+    graph.addEdge("E3", graph.getVertex("C"), a, "likes");
+    graph.shutdown();
+
+    // Make it look like a graph created before degree counters.
+    TableOperations tableOps = cfg.getConnector().tableOperations();
+    tableOps.removeIterator(cfg.getVertexTableName(), "degreeCounter",
+        EnumSet.allOf(IteratorScope.class));
+    BatchDeleter deleter = cfg.getConnector().createBatchDeleter(cfg.getVertexTableName(),
+        cfg.getAuthorizations(), 1, cfg.getBatchWriterConfig());
+    deleter.setRanges(Collections.singletonList(new Range()));
+    deleter.fetchColumnFamily(new Text(Constants.DEGREE));
+    deleter.delete();
+    deleter.close();
+
+    // Without counters, edges are counted.
+    graph = (AccumuloGraph) makeGraph(cfg.clone().setCreate(false));
+    assertEquals(2, ((AccumuloVertex) graph.getVertex("A")).getDegree(Direction.OUT, "knows"));
+    assertEquals(1, ((AccumuloVertex) graph.getVertex("A")).getDegree(Direction.IN));
+    graph.shutdown();
+
+    // Counters are backfilled when opened with the create option.
+    graph = (AccumuloGraph) makeGraph(cfg);
+    assertTrue(graph.getGlobals().getVertexWrapper().hasDegreeCounters());
+    AccumuloVertex av = (AccumuloVertex) graph.getVertex("A");
+    assertEquals(2, av.getDegree(Direction.OUT, "knows"));
+    assertEquals(3, av.getDegree(Direction.BOTH));
+    graph.addEdge("E4", av, graph.getVertex("B"), "likes");
+    assertEquals(3, av.getDegree(Direction.OUT));
+
+    // Counters out of step with the edges are repaired.
+    Mutators.apply(graph.getGlobals().getMtbw().getBatchWriter(cfg.getVertexTableName()),
+        new EdgeEndpointsMutator.AdjustDegrees("A", Collections.singletonMap(
+            EdgeEndpointsMutator.getDegreeQualifier(Direction.OUT, "knows"), 5L)));
+    graph.getGlobals().getMtbw().flush();
+    assertEquals(7, av.getDegree(Direction.OUT, "knows"));
+    graph.rebuildDegrees();
+    assertEquals(2, av.getDegree(Direction.OUT, "knows"));
+    assertEquals(1, ((AccumuloVertex) graph.getVertex("B")).getDegree(Direction.IN, "likes"));
+    graph.shutdown();
+  }
+
+  @Test
+  public void testIndexValueMigration() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils.generateGraphConfig("indexValueMigration");
+    AccumuloGraph graph = (AccumuloGraph) makeGraph(cfg);
+    graph.createKeyIndex("age", Vertex.class);
+    Index<Vertex> index = graph.createIndex("people", Vertex.class);
+    graph.addVertex("A").setProperty("age", 30);
+    graph.addVertex("B").setProperty("age", 40);
+    index.put("age", 30, graph.getVertex("A"));
+    graph.shutdown();
+
+    // Make it look like a graph indexed with the text encoding.
+    String namedTable = cfg.getNamedIndexTableName("people");
+    for (String table : Arrays.asList(cfg.getVertexKeyIndexTableName(), namedTable)) {
+      BatchDeleter deleter = cfg.getConnector().createBatchDeleter(table,
+          cfg.getAuthorizations(), 1, cfg.getBatchWriterConfig());
+      deleter.setRanges(Collections.singletonList(new Range()));
+      deleter.delete();
+      deleter.close();
+    }
+    writeTextEncodedEntry(cfg, cfg.getVertexKeyIndexTableName(), "i30", "A");
+    writeTextEncodedEntry(cfg, cfg.getVertexKeyIndexTableName(), "i40", "B");
+    writeTextEncodedEntry(cfg, namedTable, "i30", "A");
+    BatchWriter writer = cfg.getConnector().createBatchWriter(
+        cfg.getIndexMetadataTableName(), cfg.getBatchWriterConfig());
+    Mutation m = new Mutation(Constants.INDEX_VALUE_FORMAT);
+    m.putDelete(Constants.INDEX_VALUE_FORMAT, "");
+    writer.addMutation(m);
+    writer.close();
+
+    // Such graphs are not opened without migrating them.
+    try {
+      new AccumuloGraph(cfg.clone().setCreate(false));
+      fail();
+    } catch (AccumuloGraphException e) { }
+
+    // Entries are rewritten when opened with the create option.
+    graph = new AccumuloGraph(cfg);
+    assertEquals(Sets.newHashSet(graph.getVertex("A")),
+        Sets.newHashSet(graph.getVertices("age", 30)));
+    assertEquals(Sets.newHashSet(graph.getVertex("B")),
+        Sets.newHashSet(graph.getVertices("age", 40)));
+    assertEquals(Sets.newHashSet(graph.getVertex("A")),
+        Sets.newHashSet(graph.getIndex("people", Vertex.class).get("age", 30)));
+
+    Scanner scan = cfg.getConnector().createScanner(
+        cfg.getVertexKeyIndexTableName(), cfg.getAuthorizations());
+    int entries = 0;
+    for (Entry<Key, Value> entry : scan) {
+      assertEquals(AccumuloByteSerializer.SORTABLE_INTEGER,
+          entry.getKey().getRowData().byteAt(0));
+      entries++;
+    }
+    assertEquals(2, entries);
+    graph.shutdown();
+
+    // And the graph can then be opened without the create option.
+    graph = new AccumuloGraph(cfg.clone().setCreate(false));
+    assertEquals(Sets.newHashSet(graph.getVertex("B")),
+        Sets.newHashSet(graph.getVertices("age", 40)));
+    graph.shutdown();
+  }
+
+  private void writeTextEncodedEntry(AccumuloGraphConfiguration cfg,
+      String table, String value, String id) throws Exception {
+    BatchWriter writer = cfg.getConnector().createBatchWriter(table,
+        cfg.getBatchWriterConfig());
+    Mutation m = new Mutation(value);
+    m.put("age", id, new Value(Constants.EMPTY));
+    writer.addMutation(m);
+    writer.close();
+  }
+
+  @Test
+  public void testRemoveVertices() throws Exception {
+    AccumuloGraph graph = (AccumuloGraph) makeGraph(
+        AccumuloGraphTestUtils.generateGraphConfig("removeVertices"));
+    graph.createKeyIndex("name", Vertex.class);
+    graph.createKeyIndex("weight", Edge.class);
+    Index<Vertex> vertexIndex = graph.createIndex("vertexIndex", Vertex.class);
+    Index<Edge> edgeIndex = graph.createIndex("edgeIndex", Edge.class);
+
+    String[] names = {"A", "B", "C", "D"};
+    for (String name : names) {
+      Vertex v = graph.addVertex(name);
+      v.setProperty("name", name);
+      vertexIndex.put("name", name, v);
+    }
+    String[][] edges = {{"A", "B"}, {"B", "C"}, {"C", "C"}, {"C", "D"}, {"D", "A"}};
+    for (String[] e : edges) {
+      Edge edge = graph.addEdge(e[0] + e[1], graph.getVertex(e[0]),
+          graph.getVertex(e[1]), "link");
+      edge.setProperty("weight", 1);
+      edgeIndex.put("weight", 1, edge);
+    }
+
+    graph.removeVertices(Arrays.asList(graph.getVertex("B"),
+        graph.getVertex("C"), new AccumuloVertex(graph.getGlobals(), "missing")));
+
+    assertEquals(Sets.newHashSet("A", "D"), ids(graph.getVertices()));
+    assertNull(graph.getEdge("AB"));
+    assertNull(graph.getEdge("CC"));
+    assertNotNull(graph.getEdge("DA"));
+    assertEquals(1, count(graph.getEdges()));
+
+    AccumuloVertex a = (AccumuloVertex) graph.getVertex("A");
+    AccumuloVertex d = (AccumuloVertex) graph.getVertex("D");
+    assertEquals(0, count(a.getEdges(Direction.OUT)));
+    assertEquals(0, count(d.getEdges(Direction.IN)));
+    assertEquals(0, a.getDegree(Direction.OUT));
+    assertEquals(1, a.getDegree(Direction.IN));
+    assertEquals(0, d.getDegree(Direction.IN));
+
+    assertEquals(0, count(graph.getVertices("name", "B")));
+    assertEquals(1, count(graph.getVertices("name", "A")));
+    assertEquals(0, count(vertexIndex.get("name", "C")));
+    assertEquals(1, count(vertexIndex.get("name", "D")));
+    assertEquals(1, count(graph.getEdges("weight", 1)));
+    assertEquals(1, count(edgeIndex.get("weight", 1)));
+
+    graph.shutdown();
+  }
+
+  @Test
+  public void testRebuildKeyIndex() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils.generateGraphConfig("rebuildKeyIndex")
+        .setIndexRebuildBatchSize(1);
+    AccumuloGraph graph = (AccumuloGraph) makeGraph(cfg);
+    for (int i = 0; i < 10; i++) {
+      graph.addVertex("v" + i).setProperty("name", "name" + i);
+    }
+    graph.addVertex("unnamed");
+    graph.getGlobals().getConfig().getConnector().tableOperations().addSplits(
+        cfg.getVertexTableName(), new TreeSet<Text>(Arrays.asList(new Text("v4"))));
+
+    graph.createKeyIndex("name", Vertex.class);
+    for (int i = 0; i < 10; i++) {
+      assertEquals("v" + i, graph.getVertices("name", "name" + i).iterator().next().getId());
+    }
+
+    final List<Range> ranges = new ArrayList<Range>();
+    final List<Long> counts = new ArrayList<Long>();
+    graph.rebuildKeyIndex("name", Vertex.class,
+        Collections.singletonList(new Range("v2", "v6")), new RebuildListener() {
+      @Override
+      public void rangeCompleted(Range range, long entries) {
+        ranges.add(range);
+        counts.add(entries);
+      }
+    });
+
+    // The range is split at the tablet boundary.
+    assertEquals(Arrays.asList(new Range("v2", true, "v4", true),
+        new Range("v4", false, "v6", true)), ranges);
+    assertEquals(Arrays.asList(3L, 2L), counts);
+    assertEquals(1, count(graph.getVertices("name", "name3")));
+
+    try {
+      graph.rebuildKeyIndex("unindexed", Vertex.class, null, null);
+      fail();
+    } catch (IllegalArgumentException e) { }
+
+    graph.shutdown();
+  }
+
+  private static int count(Iterable<?> iter) {
+    int count = 0;
+    for (@SuppressWarnings("unused") Object obj : iter) {
+      count++;
+    }
+    return count;
+  }
+
+  private static Set<String> ids(Iterable<Vertex> vertices) {
+    Set<String> ids = new HashSet<String>();
+    for (Vertex v : vertices) {
+      assertTrue(ids.add(v.getId().toString()));
+    }
+    return ids;
+  }
 }
@@ -0,0 +1,112 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.tinkerpop.blueprints.Element;
+import com.tinkerpop.blueprints.GraphFactory;
+import com.tinkerpop.blueprints.Index;
+import com.tinkerpop.blueprints.Vertex;
+
+public class IndexQueryTest {
+
+  private AccumuloGraph graph;
+  private Index<Vertex> index;
+
+  @Before
+  public void setup() {
+    graph = (AccumuloGraph) GraphFactory.open(AccumuloGraphTestUtils
+        .generateGraphConfig("indexQueryTest").setClear(true).getConfiguration());
+    index = graph.createIndex("things", Vertex.class);
+
+    String[] names = {"apple", "apricot", "banana", "blueberry", "cherry"};
+    for (int i = 0; i < names.length; i++) {
+      Vertex v = graph.addVertex(names[i]);
+      index.put("name", names[i], v);
+      index.put("score", i * 10 - 20, v);
+      index.put("time", new Date(1000L * i), v);
+    }
+  }
+
+  @Test
+  public void testRanges() {
+    assertEquals(ids("apple", "apricot"),
+        ids(index.query("score", IndexQuery.lessThan(0))));
+    assertEquals(ids("apple", "apricot", "banana"),
+        ids(index.query("score", IndexQuery.atMost(0))));
+    assertEquals(ids("cherry"),
+        ids(index.query("score", IndexQuery.greaterThan(10))));
+    assertEquals(ids("blueberry", "cherry"),
+        ids(index.query("score", IndexQuery.atLeast(10))));
+    assertEquals(ids("apricot", "banana"),
+        ids(index.query("score", IndexQuery.between(-10, 10))));
+    assertEquals(ids("banana", "blueberry"),
+        ids(index.query("time", IndexQuery.range(new Date(2000), true, new Date(3000), true))));
+    assertEquals(ids(), ids(index.query("score", IndexQuery.between(10, -10))));
+
+    // Other types don't match.
+    assertEquals(ids(), ids(index.query("score", IndexQuery.atLeast(0L))));
+  }
+
+  @Test
+  public void testPrefixAndIn() {
+    assertEquals(ids("apple", "apricot"),
+        ids(index.query("name", IndexQuery.prefix("ap"))));
+    assertEquals(ids("banana", "blueberry"),
+        ids(index.query("name", IndexQuery.range("b", true, "c", false))));
+    assertEquals(ids("apple", "cherry"),
+        ids(index.query("name", IndexQuery.in("apple", "cherry", "durian"))));
+    assertEquals(ids("banana"),
+        ids(index.query("score", IndexQuery.in(Arrays.asList(0)))));
+  }
+
+  @Test
+  public void testKeyIndex() {
+    graph.createKeyIndex("weight", Vertex.class);
+    for (int i = 0; i < 5; i++) {
+      graph.addVertex("w" + i).setProperty("weight", i * 1.5);
+    }
+
+    assertEquals(ids("w2", "w3", "w4"),
+        ids(graph.getGlobals().getVertexKeyIndexWrapper()
+            .getVertices("weight", IndexQuery.atLeast(3.0))));
+  }
+
+  @Test(expected=IllegalArgumentException.class)
+  public void testMismatchedBounds() {
+    IndexQuery.between(1, 2L);
+  }
+
+  private static Set<String> ids(String... ids) {
+    return new HashSet<String>(Arrays.asList(ids));
+  }
+
+  private static Set<String> ids(Iterable<? extends Element> elements) {
+    Set<String> ids = new HashSet<String>();
+    for (Element element : elements) {
+      ids.add(element.getId().toString());
+    }
+    return ids;
+  }
+}
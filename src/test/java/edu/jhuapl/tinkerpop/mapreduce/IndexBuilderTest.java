@@ -0,0 +1,95 @@
+package edu.jhuapl.tinkerpop.mapreduce;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.TreeSet;
+
+import org.apache.hadoop.io.Text;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.Iterables;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.GraphFactory;
+import com.tinkerpop.blueprints.Index;
+import com.tinkerpop.blueprints.Vertex;
+
+import edu.jhuapl.tinkerpop.AccumuloGraph;
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration;
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.InstanceType;
+
+public class IndexBuilderTest {
+
+  private static final String INSTANCE_NAME = "_mapreduce_instance";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private AccumuloGraphConfiguration createGraph(String name) {
+    AccumuloGraphConfiguration cfg = new AccumuloGraphConfiguration()
+        .setInstanceName(INSTANCE_NAME).setUser("root").setPassword("".getBytes())
+        .setGraphName(name).setInstanceType(InstanceType.Mock)
+        .setAutoFlush(true).setCreate(true);
+
+    AccumuloGraph graph = (AccumuloGraph) GraphFactory.open(cfg.getConfiguration());
+    for (int i = 0; i < 20; i++) {
+      Vertex v = graph.addVertex("v" + i);
+      v.setProperty("name", "name" + i);
+      v.setProperty("group", i % 2);
+      if (i > 0) {
+        Edge e = graph.addEdge("e" + i, graph.getVertex("v" + (i - 1)), v, "next");
+        e.setProperty("weight", i % 4);
+      }
+    }
+    graph.shutdown();
+    return cfg;
+  }
+
+  @Test
+  public void testKeyIndex() throws Exception {
+    AccumuloGraphConfiguration cfg = createGraph("_mapreduce_table_keyIndex");
+
+    IndexBuilder builder = new IndexBuilder();
+    assertTrue(builder.buildKeyIndex(cfg, Vertex.class, null, "name", "group"));
+
+    // Bulk files are partitioned along the index table's splits.
+    cfg.getConnector().tableOperations().addSplits(cfg.getEdgeKeyIndexTableName(),
+        new TreeSet<Text>(Arrays.asList(new Text("m"))));
+    assertTrue(builder.buildKeyIndex(cfg, Edge.class,
+        new File(folder.getRoot(), "bulk").getPath(), "weight"));
+
+    AccumuloGraph graph = (AccumuloGraph) GraphFactory.open(cfg.getConfiguration());
+    assertEquals(2, graph.getIndexedKeys(Vertex.class).size());
+    assertTrue(graph.getIndexedKeys(Edge.class).contains("weight"));
+
+    assertEquals("v3", Iterables.getOnlyElement(graph.getVertices("name", "name3")).getId());
+    assertEquals(10, Iterables.size(graph.getVertices("group", 1)));
+    assertEquals(5, Iterables.size(graph.getEdges("weight", 2)));
+    graph.shutdown();
+  }
+
+  @Test
+  public void testNamedIndex() throws Exception {
+    AccumuloGraphConfiguration cfg = createGraph("_mapreduce_table_namedIndex");
+
+    File bulk = new File(folder.getRoot(), "bulk");
+    assertTrue(new IndexBuilder().buildNamedIndex(cfg, Vertex.class,
+        "names", bulk.getPath(), "name"));
+    assertFalse(bulk.exists());
+
+    AccumuloGraph graph = (AccumuloGraph) GraphFactory.open(cfg.getConfiguration());
+    Index<Vertex> index = graph.getIndex("names", Vertex.class);
+    assertEquals("v3", Iterables.getOnlyElement(index.get("name", "name3")).getId());
+
+    // Removal relies on the reverse index entries.
+    graph.removeVertex(graph.getVertex("v3"));
+    assertEquals(0, Iterables.size(index.get("name", "name3")));
+    assertEquals(1, Iterables.size(index.get("name", "name4")));
+    graph.shutdown();
+  }
+}
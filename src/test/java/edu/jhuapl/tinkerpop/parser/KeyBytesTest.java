@@ -0,0 +1,59 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.parser;
+
+import static org.junit.Assert.*;
+
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.junit.Test;
+
+import edu.jhuapl.tinkerpop.Constants;
+
+public class KeyBytesTest {
+
+  @Test
+  public void testCompare() {
+    Key key = new Key("row", Constants.IN_EDGE, "a" + Constants.ID_DELIM + "b");
+    assertTrue(KeyBytes.equals(key.getColumnFamilyData(), Constants.IN_EDGE_BYTES));
+    assertFalse(KeyBytes.equals(key.getColumnFamilyData(), Constants.OUT_EDGE_BYTES));
+    assertFalse(KeyBytes.equals(key.getColumnFamilyData(), "__IN".getBytes()));
+    assertTrue(KeyBytes.startsWith(key.getColumnFamilyData(), "__IN".getBytes()));
+    assertFalse(KeyBytes.startsWith(key.getRowData(), "rows".getBytes()));
+  }
+
+  @Test
+  public void testSplit() {
+    Key key = new Key("row", Constants.IN_EDGE, "vertex" + Constants.ID_DELIM + "edge");
+    assertEquals("vertex", KeyBytes.beforeDelim(key.getColumnQualifierData()));
+    assertEquals("edge", KeyBytes.afterDelim(key.getColumnQualifierData()));
+    assertEquals("row", KeyBytes.toString(key.getRowData()));
+    assertEquals("label", KeyBytes.afterDelim((Constants.ID_DELIM + "label").getBytes()));
+    assertEquals("", KeyBytes.beforeDelim(new ArrayByteSequence(Constants.ID_DELIM + "x")));
+    assertEquals("nodelim", KeyBytes.beforeDelim(new ArrayByteSequence("nodelim")));
+
+    // Offsets into a larger backing array are respected.
+    byte[] data = ("xx" + "a" + Constants.ID_DELIM + "b" + "yy").getBytes();
+    ByteSequence seq = new ArrayByteSequence(data, 2, data.length - 4);
+    assertEquals("a", KeyBytes.beforeDelim(seq));
+    assertEquals("b", KeyBytes.afterDelim(seq));
+
+    try {
+      KeyBytes.afterDelim(new ArrayByteSequence("nodelim"));
+      fail();
+    } catch (IllegalArgumentException e) { }
+  }
+}